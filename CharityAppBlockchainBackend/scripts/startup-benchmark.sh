@@ -0,0 +1,48 @@
+#!/bin/sh
+# Builds the AOT-processed jar, trains an AppCDS archive and measures time-to-first-request.
+#
+#   scripts/startup-benchmark.sh [runs]
+#
+# Needs the production database reachable (the prod profile validates the schema on boot).
+# Conditions such as the read replica are frozen at AOT build time, so build with the same
+# app.datasource.* settings the instances will run with.
+set -e
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+OUT=target/fast-startup
+
+./mvnw -q -Paot -DskipTests package
+rm -rf "$OUT"
+java -Djarmode=tools -jar target/demo-0.0.1-SNAPSHOT.jar extract --destination "$OUT"
+
+JAVA_OPTS="-Dspring.aot.enabled=true -Dspring.profiles.active=prod"
+
+# Training run: start the context, then exit and dump the loaded classes into the archive
+java $JAVA_OPTS -XX:ArchiveClassesAtExit="$OUT/app.jsa" -Dspring.context.exit=onRefresh \
+    -jar "$OUT/demo-0.0.1-SNAPSHOT.jar" > "$OUT/training.log" 2>&1
+
+measure() {
+    label=$1; shift
+    total=0
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        start=$(date +%s%N)
+        java $JAVA_OPTS "$@" -Dserver.port="$PORT" -jar "$OUT/demo-0.0.1-SNAPSHOT.jar" > "$OUT/run.log" 2>&1 &
+        pid=$!
+        until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+            sleep 0.01
+        done
+        end=$(date +%s%N)
+        kill "$pid"; wait "$pid" 2>/dev/null || true
+        ms=$(( (end - start) / 1000000 ))
+        total=$(( total + ms ))
+        echo "$label run $i: ${ms} ms to first request"
+        i=$(( i + 1 ))
+    done
+    echo "$label average: $(( total / RUNS )) ms"
+}
+
+measure "no-cds"
+measure "cds" -XX:SharedArchiveFile="$OUT/app.jsa"
@@ -0,0 +1,154 @@
+package com.example.demo.archive;
+
+import com.example.demo.cluster.ClusterChangeLog;
+import com.example.demo.cluster.LeaderElection;
+import com.example.demo.entity.ClusterChange;
+import com.example.demo.entity.Donation;
+import com.example.demo.entity.Transaction;
+import com.example.demo.repo.DonationRepository;
+import com.example.demo.repo.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Moves transactions and donations older than app.archive.older-than-days out of the database into segment
+ * files, app.archive.segment-rows rows per segment. Each chunk is written and made visible in
+ * {@link ColdStorage} before its rows are deleted, so readers see a row in the database, in a segment, or
+ * briefly in both (merged by txHash), but never in neither.
+ * <p>
+ * In a cluster the job runs on the leader. Before deleting a chunk it records the deletion in the
+ * {@link ClusterChangeLog} and waits app.archive.rescan-grace-ms, enough for the other nodes to poll the change
+ * and rescan the shared archive directory, so the same holds for readers on every node.
+ */
+@Slf4j
+@Component
+public class ArchivalJob {
+
+    private static final int DELETE_BATCH = 1000;
+
+    private final ColdStorage coldStorage;
+    private final TransactionRepository transactionRepository;
+    private final DonationRepository donationRepository;
+    private final LeaderElection leaderElection;
+    private final ClusterChangeLog clusterChangeLog;
+    private final boolean enabled;
+    private final int olderThanDays;
+    private final int segmentRows;
+    private final long rescanGraceMillis;
+
+    public ArchivalJob(ColdStorage coldStorage,
+                       TransactionRepository transactionRepository,
+                       DonationRepository donationRepository,
+                       LeaderElection leaderElection,
+                       ClusterChangeLog clusterChangeLog,
+                       @Value("${app.archive.enabled:false}") boolean enabled,
+                       @Value("${app.archive.older-than-days:365}") int olderThanDays,
+                       @Value("${app.archive.segment-rows:20000}") int segmentRows,
+                       @Value("${app.archive.rescan-grace-ms:3000}") long rescanGraceMillis) {
+        this.coldStorage = coldStorage;
+        this.transactionRepository = transactionRepository;
+        this.donationRepository = donationRepository;
+        this.leaderElection = leaderElection;
+        this.clusterChangeLog = clusterChangeLog;
+        this.enabled = enabled;
+        this.olderThanDays = olderThanDays;
+        this.segmentRows = segmentRows;
+        this.rescanGraceMillis = rescanGraceMillis;
+    }
+
+    @PostConstruct
+    void subscribe() {
+        clusterChangeLog.subscribe(this::onRemoteChange);
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled && leaderElection.isLeader()) {
+            run();
+        }
+    }
+
+    /**
+     * @return rows archived per schema
+     */
+    public synchronized Map<String, Integer> run() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(olderThanDays);
+        int transactions = archive(SegmentSchema.TRANSACTIONS, Transaction.class,
+                limit -> transactionRepository.findByTimestampBeforeOrderByIdAsc(cutoff, limit),
+                Transaction::getId, transactionRepository::deleteAllByIdInBatch);
+        int donations = archive(SegmentSchema.DONATIONS, Donation.class,
+                limit -> donationRepository.findByTimestampBeforeOrderByIdAsc(cutoff, limit),
+                Donation::getId, donationRepository::deleteAllByIdInBatch);
+        if (transactions > 0 || donations > 0) {
+            log.info("Archived {} transactions and {} donations older than {}", transactions, donations, cutoff);
+        }
+        return Map.of(SegmentSchema.TRANSACTIONS.getName(), transactions, SegmentSchema.DONATIONS.getName(), donations);
+    }
+
+    private <T> int archive(SegmentSchema<T> schema, Class<T> entity, Function<Limit, List<T>> nextChunk,
+                            Function<T, Long> id, Consumer<List<Long>> delete) {
+        int archived = 0;
+        while (true) {
+            // a successor would archive the same oldest chunk
+            if (!leaderElection.isLeader()) {
+                log.warn("No longer the leader, stopping {} archival after {} rows", schema.getName(), archived);
+                return archived;
+            }
+            // archived rows are deleted, so the oldest remaining chunk is always the first one
+            List<T> chunk = nextChunk.apply(Limit.of(segmentRows));
+            if (chunk.isEmpty()) {
+                return archived;
+            }
+            try {
+                coldStorage.archive(schema, chunk);
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not write " + schema.getName() + " segment", e);
+            }
+            List<Long> ids = chunk.stream().map(id).toList();
+            // other nodes rescan on the change; until then the rows are in both places here, which reads merge
+            clusterChangeLog.record(entity, ClusterChange.Operation.DELETE, ids);
+            awaitRescanOfOtherNodes();
+            for (int from = 0; from < ids.size(); from += DELETE_BATCH) {
+                delete.accept(ids.subList(from, Math.min(from + DELETE_BATCH, ids.size())));
+            }
+            archived += chunk.size();
+            if (chunk.size() < segmentRows) {
+                return archived;
+            }
+        }
+    }
+
+    // the leader's archival announces each chunk with a delete; this node has to see its segment first
+    private void onRemoteChange(Class<?> entity, ClusterChange.Operation operation, List<Long> ids) {
+        if (operation == ClusterChange.Operation.DELETE && (entity == Donation.class || entity == Transaction.class)) {
+            try {
+                coldStorage.rescan();
+            } catch (IOException e) {
+                log.error("Could not rescan the archive after a remote delete", e);
+            }
+        }
+    }
+
+    private void awaitRescanOfOtherNodes() {
+        if (!leaderElection.isEnabled()) {
+            return;
+        }
+        try {
+            Thread.sleep(rescanGraceMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted before deleting archived rows", e);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.demo.archive;
+
+import com.example.demo.entity.Donation;
+import com.example.demo.entity.Transaction;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Archived transactions and donations, held in segment files under app.archive.dir and named
+ * {schema}-{millis}.seg. Lookups go through every segment of the schema; with no segments they cost nothing.
+ * In a cluster the directory is shared, and nodes that did not write a segment pick it up with {@link #rescan}.
+ */
+@Slf4j
+@Component
+public class ColdStorage {
+
+    private static final int HOT_CHECK_BATCH = 1000;
+
+    private final Path directory;
+    private final List<Segment<Transaction>> transactionSegments = new CopyOnWriteArrayList<>();
+    private final List<Segment<Donation>> donationSegments = new CopyOnWriteArrayList<>();
+    private final Set<String> loaded = new HashSet<>(); // guarded by this
+
+    public ColdStorage(@Value("${app.archive.dir:archive}") String directory) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        Files.createDirectories(directory);
+        rescan();
+    }
+
+    /**
+     * Opens the segments in the directory that are not open yet, i.e. those another node has written since.
+     *
+     * @return the number of segments opened
+     */
+    public synchronized int rescan() throws IOException {
+        int opened = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.seg")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (loaded.contains(name)) {
+                    continue;
+                }
+                if (name.startsWith(SegmentSchema.TRANSACTIONS.getName() + "-")) {
+                    transactionSegments.add(Segment.open(file, SegmentSchema.TRANSACTIONS));
+                } else if (name.startsWith(SegmentSchema.DONATIONS.getName() + "-")) {
+                    donationSegments.add(Segment.open(file, SegmentSchema.DONATIONS));
+                } else {
+                    continue;
+                }
+                loaded.add(name);
+                opened++;
+            }
+        }
+        if (opened > 0) {
+            log.info("Opened {} segments from {}, {} transaction and {} donation segments in all",
+                    opened, directory, transactionSegments.size(), donationSegments.size());
+        }
+        return opened;
+    }
+
+    /**
+     * Writes the entities as a new segment and makes it visible to readers. The file is fsynced and moved into
+     * place atomically, so once this returns the rows can be deleted from the database, as far as this node is
+     * concerned; other nodes see the segment after their next {@link #rescan}.
+     */
+    public <T> Segment<T> archive(SegmentSchema<T> schema, List<T> entities) throws IOException {
+        List<Object[]> rows = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            rows.add(schema.toRow(entity));
+        }
+        rows.sort(SegmentSchema.ROW_ORDER);
+
+        String name = schema.getName() + "-" + System.currentTimeMillis();
+        Path target = directory.resolve(name + ".seg");
+        for (int n = 1; Files.exists(target); n++) {
+            target = directory.resolve(name + "-" + n + ".seg");
+        }
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        SegmentWriter.write(temp, schema, rows);
+        // under the lock, so a rescan cannot open the file a second time
+        synchronized (this) {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            Segment<T> segment = Segment.open(target, schema);
+            loaded.add(target.getFileName().toString());
+            segments(schema).add(segment);
+            return segment;
+        }
+    }
+
+    public List<Transaction> findTransactionsByWallet(String walletAddress) {
+        List<Transaction> result = new ArrayList<>();
+        for (Segment<Transaction> segment : transactionSegments) {
+            result.addAll(segment.findByWallet(walletAddress));
+        }
+        return result;
+    }
+
+    public List<Donation> findDonationsByDonor(String donorAddress) {
+        List<Donation> result = new ArrayList<>();
+        for (Segment<Donation> segment : donationSegments) {
+            result.addAll(segment.findByWallet(donorAddress));
+        }
+        return result;
+    }
+
+    public Optional<Donation> findDonationByTxHash(String txHash) {
+        for (Segment<Donation> segment : donationSegments) {
+            Donation donation = segment.findByTxHash(txHash);
+            if (donation != null) {
+                return Optional.of(donation);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Passes every archived donation with a timestamp in [from, to) to the action, one segment at a time, so
+     * only one segment's rows are on the heap; a null bound is open. Rows an interrupted archival run left in
+     * the database are skipped, as they are counted there: stillHot gets the candidate ids (those from
+     * firstHotId up) in batches and returns the ones still in the table.
+     */
+    public void forEachDonation(LocalDateTime from, LocalDateTime to, long firstHotId,
+                                Function<List<Long>, Collection<Long>> stillHot, Consumer<Donation> action) {
+        for (Segment<Donation> segment : donationSegments) {
+            List<Donation> rows = new ArrayList<>();
+            List<Long> maybeHot = new ArrayList<>();
+            for (Donation donation : segment.findAll()) {
+                LocalDateTime at = donation.getTimestamp();
+                if ((from == null || (at != null && !at.isBefore(from))) && (to == null || (at != null && at.isBefore(to)))) {
+                    rows.add(donation);
+                    if (donation.getId() != null && donation.getId() >= firstHotId) {
+                        maybeHot.add(donation.getId());
+                    }
+                }
+            }
+            Set<Long> hot = new HashSet<>();
+            for (int i = 0; i < maybeHot.size(); i += HOT_CHECK_BATCH) {
+                hot.addAll(stillHot.apply(maybeHot.subList(i, Math.min(i + HOT_CHECK_BATCH, maybeHot.size()))));
+            }
+            for (Donation donation : rows) {
+                if (!hot.contains(donation.getId())) {
+                    action.accept(donation);
+                }
+            }
+        }
+    }
+
+    public List<Donation> findDonationsByCharity(Long charityId) {
+        return findDonations(SegmentSchema.DONATION_CHARITY_ID, charityId);
+    }
+
+    public List<Donation> findDonationsByCampaign(Long campaignId) {
+        return findDonations(SegmentSchema.DONATION_CAMPAIGN_ID, campaignId);
+    }
+
+    public List<Segment<Donation>> getDonationSegments() {
+        return List.copyOf(donationSegments);
+    }
+
+    public boolean isEmpty() {
+        return transactionSegments.isEmpty() && donationSegments.isEmpty();
+    }
+
+    private List<Donation> findDonations(int column, Long value) {
+        List<Donation> result = new ArrayList<>();
+        if (value == null) {
+            return result;
+        }
+        for (Segment<Donation> segment : donationSegments) {
+            result.addAll(segment.findByRange(column, value, value));
+        }
+        return result;
+    }
+
+    /**
+     * Hot rows plus the archived ones not among them, by txHash; sorted by order only when anything was added.
+     */
+    public static <T> List<T> merge(List<T> hot, List<T> archived, Function<T, String> txHash, Comparator<T> order) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<String> hotHashes = new HashSet<>();
+        for (T row : hot) {
+            hotHashes.add(txHash.apply(row));
+        }
+        List<T> merged = new ArrayList<>(hot.size() + archived.size());
+        merged.addAll(hot);
+        for (T row : archived) {
+            if (hotHashes.add(txHash.apply(row))) {
+                merged.add(row);
+            }
+        }
+        merged.sort(order);
+        return merged;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<Segment<T>> segments(SegmentSchema<T> schema) {
+        if (schema == SegmentSchema.TRANSACTIONS) {
+            return (List<Segment<T>>) (List<?>) transactionSegments;
+        }
+        if (schema == SegmentSchema.DONATIONS) {
+            return (List<Segment<T>>) (List<?>) donationSegments;
+        }
+        throw new IllegalArgumentException("Unknown segment schema " + schema.getName());
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.demo.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read side of a segment file (format in {@link SegmentWriter}). The file is memory-mapped once and blocks are
+ * inflated straight out of the mapping; only the sparse index is held on the heap. Segments are immutable, so
+ * instances are safe to share between threads.
+ */
+public final class Segment<T> {
+
+    private final Path path;
+    private final SegmentSchema<T> schema;
+    private final MappedByteBuffer data;
+
+    private final long[] offsets;
+    private final int[] compressedLengths;
+    private final int[] rawLengths;
+    private final int[] rowCounts;
+    private final String[] firstWallets;
+    private final String[] lastWallets;
+    private final long[][] zoneMin;
+    private final long[][] zoneMax;
+    // txHash hash code in the high half, block in the low half, sorted; built on the first txHash lookup
+    private volatile long[] txHashIndex;
+
+    private Segment(Path path, SegmentSchema<T> schema, MappedByteBuffer data, DataInputStream index) throws IOException {
+        this.path = path;
+        this.schema = schema;
+        this.data = data;
+        int blocks = index.readInt();
+        int zones = schema.zoneColumns().length;
+        offsets = new long[blocks];
+        compressedLengths = new int[blocks];
+        rawLengths = new int[blocks];
+        rowCounts = new int[blocks];
+        firstWallets = new String[blocks];
+        lastWallets = new String[blocks];
+        zoneMin = new long[zones][blocks];
+        zoneMax = new long[zones][blocks];
+        for (int b = 0; b < blocks; b++) {
+            offsets[b] = index.readLong();
+            compressedLengths[b] = index.readInt();
+            rawLengths[b] = index.readInt();
+            rowCounts[b] = index.readInt();
+            firstWallets[b] = index.readUTF();
+            lastWallets[b] = index.readUTF();
+            for (int z = 0; z < zones; z++) {
+                zoneMin[z][b] = index.readLong();
+                zoneMax[z][b] = index.readLong();
+            }
+        }
+    }
+
+    static <T> Segment<T> open(Path path, SegmentSchema<T> schema) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int size = data.capacity();
+        if (size < 21 || data.getInt(0) != SegmentWriter.MAGIC || data.getInt(size - 4) != SegmentWriter.MAGIC) {
+            throw new IOException("Not a segment file: " + path);
+        }
+        if (data.get(4) != schema.id() || data.getInt(5) != schema.columns().length) {
+            throw new IOException("Segment " + path + " does not hold " + schema.getName());
+        }
+        int indexOffset = (int) data.getLong(size - 12);
+        byte[] index = new byte[size - 12 - indexOffset];
+        data.get(indexOffset, index);
+        return new Segment<>(path, schema, data, new DataInputStream(new ByteArrayInputStream(index)));
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int rowCount() {
+        int rows = 0;
+        for (int count : rowCounts) {
+            rows += count;
+        }
+        return rows;
+    }
+
+    /**
+     * Rows of one wallet; only the blocks whose wallet range covers it are inflated.
+     */
+    public List<T> findByWallet(String wallet) {
+        List<T> result = new ArrayList<>();
+        // first block whose last wallet is >= wallet
+        int lo = 0;
+        int hi = offsets.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (lastWallets[mid].compareTo(wallet) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        for (int b = lo; b < offsets.length && firstWallets[b].compareTo(wallet) <= 0; b++) {
+            for (Object[] row : readBlock(b)) {
+                if (wallet.equals(row[SegmentSchema.WALLET])) {
+                    result.add(schema.fromRow(row));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rows whose zone column lies in [min, max]; blocks are skipped by their min/max in the index.
+     */
+    public List<T> findByRange(int column, long min, long max) {
+        int zone = schema.zoneSlot(column);
+        List<T> result = new ArrayList<>();
+        for (int b = 0; b < offsets.length; b++) {
+            if (zoneMax[zone][b] < min || zoneMin[zone][b] > max) {
+                continue;
+            }
+            for (Object[] row : readBlock(b)) {
+                Long value = (Long) row[column];
+                if (value != null && value >= min && value <= max) {
+                    result.add(schema.fromRow(row));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The row with this txHash, if any. The first lookup inflates every block once to build an index of 8
+     * bytes per row; after that only the blocks holding a matching hash code are read.
+     */
+    public T findByTxHash(String txHash) {
+        long[] index = txHashIndex();
+        long key = (long) txHash.hashCode() << 32;
+        int i = Arrays.binarySearch(index, key);
+        for (i = i >= 0 ? i : -i - 1; i < index.length && (index[i] & 0xFFFFFFFF00000000L) == key; i++) {
+            for (Object[] row : readBlock((int) index[i])) {
+                if (txHash.equals(row[SegmentSchema.TX_HASH])) {
+                    return schema.fromRow(row);
+                }
+            }
+        }
+        return null;
+    }
+
+    private long[] txHashIndex() {
+        long[] index = txHashIndex;
+        if (index == null) {
+            index = new long[rowCount()];
+            int n = 0;
+            for (int b = 0; b < offsets.length; b++) {
+                for (Object[] row : readBlock(b)) {
+                    String txHash = (String) row[SegmentSchema.TX_HASH];
+                    if (txHash != null) {
+                        index[n++] = (long) txHash.hashCode() << 32 | b;
+                    }
+                }
+            }
+            index = Arrays.copyOf(index, n);
+            // one block may hold several rows with the same hash code
+            index = Arrays.stream(index).sorted().distinct().toArray();
+            txHashIndex = index;
+        }
+        return index;
+    }
+
+    public List<T> findAll() {
+        List<T> result = new ArrayList<>(rowCount());
+        for (int b = 0; b < offsets.length; b++) {
+            for (Object[] row : readBlock(b)) {
+                result.add(schema.fromRow(row));
+            }
+        }
+        return result;
+    }
+
+    public List<T> findByBlockNumber(long fromBlock, long toBlock) {
+        return findByRange(SegmentSchema.BLOCK_NUMBER, fromBlock, toBlock);
+    }
+
+    private Object[][] readBlock(int block) {
+        ByteBuffer raw = ByteBuffer.wrap(inflate(block));
+        SegmentSchema.ColumnType[] columns = schema.columns();
+        int rows = rowCounts[block];
+        Object[][] result = new Object[rows][columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] == SegmentSchema.ColumnType.STRING) {
+                for (int r = 0; r < rows; r++) {
+                    int length = (int) readVarLong(raw) - 1;
+                    if (length >= 0) {
+                        result[r][c] = new String(raw.array(), raw.position(), length, StandardCharsets.UTF_8);
+                        raw.position(raw.position() + length);
+                    }
+                }
+            } else {
+                byte[] nulls = new byte[(rows + 7) / 8];
+                raw.get(nulls);
+                long previous = 0;
+                for (int r = 0; r < rows; r++) {
+                    if ((nulls[r >>> 3] & (1 << (r & 7))) == 0) {
+                        long zigzag = readVarLong(raw);
+                        previous += (zigzag >>> 1) ^ -(zigzag & 1);
+                        result[r][c] = previous;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private byte[] inflate(int block) {
+        ByteBuffer compressed = data.slice((int) offsets[block], compressedLengths[block]);
+        byte[] raw = new byte[rawLengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int read = 0;
+            while (read < raw.length) {
+                int n = inflater.inflate(raw, read, raw.length - read);
+                if (n == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != raw.length) {
+                throw new IllegalStateException("Truncated block " + block + " in " + path);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block " + block + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.demo.archive;
+
+import com.example.demo.entity.Donation;
+import com.example.demo.entity.Transaction;
+import com.example.demo.entity.Withdrawal;
+import com.example.demo.service.TransactionMetadataCodec;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.function.Function;
+
+/**
+ * Column layout of a persisted entity, shared by archive segments and the event journal. Column values are either String or Long (timestamps as epoch
+ * microseconds UTC, booleans as 0/1). Column 0 is always the wallet the sparse index is keyed on and rows are
+ * sorted by (wallet, block number, id) inside a segment; zone columns get per-block min/max in the index.
+ */
+public final class SegmentSchema<T> {
+
+    public enum ColumnType { STRING, LONG }
+
+    static final int WALLET = 0;
+    static final int BLOCK_NUMBER = 1;
+    static final int TX_HASH = 4;
+
+    private static final ColumnType S = ColumnType.STRING;
+    private static final ColumnType L = ColumnType.LONG;
+
+    public static final SegmentSchema<Transaction> TRANSACTIONS = new SegmentSchema<>(
+            (byte) 1, "transactions",
+            new ColumnType[]{S, L, L, L, S, S, S, S, L, L, S, S, L},
+            new int[]{BLOCK_NUMBER, 8, 9},
+            t -> new Object[]{t.getFromAddress(), t.getBlockNumber(), micros(t.getTimestamp()), t.getId(), t.getTxHash(),
+                    t.getToAddress(), t.getAmount(), t.getType(), t.getCharityId(), t.getCampaignId(), t.getStatus(),
+                    metadataJson(t), micros(t.getCreatedAt())},
+            row -> {
+                Transaction t = new Transaction();
+                t.setFromAddress((String) row[0]);
+                t.setBlockNumber((Long) row[1]);
+                t.setTimestamp(time(row[2]));
+                t.setId((Long) row[3]);
+                t.setTxHash((String) row[4]);
+                t.setToAddress((String) row[5]);
+                t.setAmount((String) row[6]);
+                t.setType((String) row[7]);
+                t.setCharityId((Long) row[8]);
+                t.setCampaignId((Long) row[9]);
+                t.setStatus((String) row[10]);
+                t.setMetadata(TransactionMetadataCodec.parse((String) row[11]));
+                t.setCreatedAt(time(row[12]));
+                return t;
+            });
+
+    public static final int TRANSACTION_CHARITY_ID = 8;
+    public static final int TRANSACTION_CAMPAIGN_ID = 9;
+
+    public static final SegmentSchema<Donation> DONATIONS = new SegmentSchema<>(
+            (byte) 2, "donations",
+            new ColumnType[]{S, L, L, L, S, L, S, L, S, S, S, S, L, L},
+            new int[]{BLOCK_NUMBER, 5, 7},
+            d -> new Object[]{d.getDonorAddress(), d.getBlockNumber(), micros(d.getTimestamp()), d.getId(), d.getTxHash(),
+                    d.getCharityId(), d.getCharityName(), d.getCampaignId(), d.getCampaignTitle(), d.getAmount(),
+                    d.getAmountInUSD() != null ? d.getAmountInUSD().toPlainString() : null, d.getMessage(),
+                    Boolean.TRUE.equals(d.getIsAnonymous()) ? 1L : 0L, micros(d.getCreatedAt())},
+            row -> {
+                Donation d = new Donation();
+                d.setDonorAddress((String) row[0]);
+                d.setBlockNumber((Long) row[1]);
+                d.setTimestamp(time(row[2]));
+                d.setId((Long) row[3]);
+                d.setTxHash((String) row[4]);
+                d.setCharityId((Long) row[5]);
+                d.setCharityName((String) row[6]);
+                d.setCampaignId((Long) row[7]);
+                d.setCampaignTitle((String) row[8]);
+                d.setAmount((String) row[9]);
+                d.setAmountInUSD(row[10] != null ? new BigDecimal((String) row[10]) : null);
+                d.setMessage((String) row[11]);
+                d.setIsAnonymous(Long.valueOf(1).equals(row[12]));
+                d.setCreatedAt(time(row[13]));
+                return d;
+            });
+
+    public static final int DONATION_CHARITY_ID = 5;
+    public static final int DONATION_CAMPAIGN_ID = 7;
+
+    public static final SegmentSchema<Withdrawal> WITHDRAWALS = new SegmentSchema<>(
+            (byte) 3, "withdrawals",
+            new ColumnType[]{S, L, L, L, S, L, S, S, S, S, L},
+            new int[]{BLOCK_NUMBER, 5},
+            w -> new Object[]{w.getToAddress(), w.getBlockNumber(), micros(w.getTimestamp()), w.getId(), w.getTxHash(),
+                    w.getCharityId(), w.getCharityName(), w.getAmount(), w.getFee(), w.getNetAmount(), micros(w.getCreatedAt())},
+            row -> {
+                Withdrawal w = new Withdrawal();
+                w.setToAddress((String) row[0]);
+                w.setBlockNumber((Long) row[1]);
+                w.setTimestamp(time(row[2]));
+                w.setId((Long) row[3]);
+                w.setTxHash((String) row[4]);
+                w.setCharityId((Long) row[5]);
+                w.setCharityName((String) row[6]);
+                w.setAmount((String) row[7]);
+                w.setFee((String) row[8]);
+                w.setNetAmount((String) row[9]);
+                w.setCreatedAt(time(row[10]));
+                return w;
+            });
+
+    static final Comparator<Object[]> ROW_ORDER = Comparator
+            .<Object[], String>comparing(row -> (String) row[WALLET], Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(row -> (Long) row[BLOCK_NUMBER], Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(row -> (Long) row[3], Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final byte id;
+    private final String name;
+    private final ColumnType[] columns;
+    private final int[] zoneColumns;
+    private final Function<T, Object[]> toRow;
+    private final Function<Object[], T> fromRow;
+
+    private SegmentSchema(byte id, String name, ColumnType[] columns, int[] zoneColumns,
+                          Function<T, Object[]> toRow, Function<Object[], T> fromRow) {
+        this.id = id;
+        this.name = name;
+        this.columns = columns;
+        this.zoneColumns = zoneColumns;
+        this.toRow = toRow;
+        this.fromRow = fromRow;
+    }
+
+    public static SegmentSchema<?> forId(byte id) {
+        for (SegmentSchema<?> schema : new SegmentSchema<?>[]{TRANSACTIONS, DONATIONS, WITHDRAWALS}) {
+            if (schema.id == id) {
+                return schema;
+            }
+        }
+        throw new IllegalArgumentException("Unknown schema id " + id);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public byte id() {
+        return id;
+    }
+
+    public ColumnType[] columns() {
+        return columns;
+    }
+
+    int[] zoneColumns() {
+        return zoneColumns;
+    }
+
+    int zoneSlot(int column) {
+        for (int i = 0; i < zoneColumns.length; i++) {
+            if (zoneColumns[i] == column) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Column " + column + " of " + name + " has no zone map");
+    }
+
+    public Object[] toRow(T entity) {
+        return toRow.apply(entity);
+    }
+
+    public T fromRow(Object[] row) {
+        return fromRow.apply(row);
+    }
+
+    // segments keep the metadata as the JSON the API returns, so older segments read the same way
+    private static String metadataJson(Transaction t) {
+        return t.getLegacyMetadata() != null ? t.getLegacyMetadata() : TransactionMetadataCodec.format(t.getMetadata());
+    }
+
+    private static Long micros(LocalDateTime time) {
+        return time == null ? null : time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime time(Object micros) {
+        if (micros == null) {
+            return null;
+        }
+        long value = (Long) micros;
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(value, 1_000_000),
+                (int) Math.floorMod(value, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Writes an immutable segment file:
+ * <pre>
+ * header   int magic, byte schema id, int column count
+ * blocks   deflated, column-major: every row's value of column 0, then column 1, ...
+ * index    int block count, then per block: long offset, int compressed length, int raw length, int rows,
+ *          UTF first wallet, UTF last wallet, long min / long max per zone column
+ * footer   long index offset, int magic
+ * </pre>
+ * String values are a varint (length + 1, 0 for null) followed by UTF-8 bytes. Long columns start with a null
+ * bitmap followed by zigzag varint deltas of the non-null values, which keeps sorted block numbers and
+ * timestamps to a byte or two each before compression.
+ */
+final class SegmentWriter {
+
+    static final int MAGIC = 0x43534731; // "CSG1"
+    static final int ROWS_PER_BLOCK = 512;
+
+    private SegmentWriter() {
+    }
+
+    /**
+     * @param rows rows in {@link SegmentSchema#ROW_ORDER}
+     */
+    static void write(Path file, SegmentSchema<?> schema, List<Object[]> rows) throws IOException {
+        SegmentSchema.ColumnType[] columns = schema.columns();
+        int[] zones = schema.zoneColumns();
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream index = new DataOutputStream(indexBytes);
+        int blocks = (rows.size() + ROWS_PER_BLOCK - 1) / ROWS_PER_BLOCK;
+        index.writeInt(blocks);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(9).putInt(MAGIC).put(schema.id()).putInt(columns.length).flip();
+            writeFully(channel, header);
+
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try {
+                for (int from = 0; from < rows.size(); from += ROWS_PER_BLOCK) {
+                    List<Object[]> block = rows.subList(from, Math.min(from + ROWS_PER_BLOCK, rows.size()));
+                    byte[] raw = encode(block, columns);
+                    byte[] compressed = deflate(deflater, raw);
+
+                    index.writeLong(channel.position());
+                    index.writeInt(compressed.length);
+                    index.writeInt(raw.length);
+                    index.writeInt(block.size());
+                    index.writeUTF(wallet(block.get(0)));
+                    index.writeUTF(wallet(block.get(block.size() - 1)));
+                    for (int zone : zones) {
+                        long min = Long.MAX_VALUE;
+                        long max = Long.MIN_VALUE;
+                        for (Object[] row : block) {
+                            if (row[zone] != null) {
+                                min = Math.min(min, (Long) row[zone]);
+                                max = Math.max(max, (Long) row[zone]);
+                            }
+                        }
+                        index.writeLong(min);
+                        index.writeLong(max);
+                    }
+                    writeFully(channel, ByteBuffer.wrap(compressed));
+                }
+            } finally {
+                deflater.end();
+            }
+
+            long indexOffset = channel.position();
+            writeFully(channel, ByteBuffer.wrap(indexBytes.toByteArray()));
+            writeFully(channel, ByteBuffer.allocate(12).putLong(indexOffset).putInt(MAGIC).flip());
+            channel.force(true);
+        }
+    }
+
+    private static String wallet(Object[] row) {
+        return row[SegmentSchema.WALLET] != null ? (String) row[SegmentSchema.WALLET] : "";
+    }
+
+    private static byte[] encode(List<Object[]> block, SegmentSchema.ColumnType[] columns) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(block.size() * 64);
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] == SegmentSchema.ColumnType.STRING) {
+                for (Object[] row : block) {
+                    if (row[c] == null) {
+                        writeVarLong(out, 0);
+                    } else {
+                        byte[] bytes = ((String) row[c]).getBytes(StandardCharsets.UTF_8);
+                        writeVarLong(out, bytes.length + 1L);
+                        out.writeBytes(bytes);
+                    }
+                }
+            } else {
+                byte[] nulls = new byte[(block.size() + 7) / 8];
+                for (int r = 0; r < block.size(); r++) {
+                    if (block.get(r)[c] == null) {
+                        nulls[r >>> 3] |= (byte) (1 << (r & 7));
+                    }
+                }
+                out.writeBytes(nulls);
+                long previous = 0;
+                for (Object[] row : block) {
+                    if (row[c] != null) {
+                        long value = (Long) row[c];
+                        long delta = value - previous;
+                        writeVarLong(out, (delta << 1) ^ (delta >> 63));
+                        previous = value;
+                    }
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.chain;
+
+import com.example.demo.dto.OnChainDonationDto;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * ABI encoding for the CharityPlatform view functions the backend serves. Each takes one uint256, so calldata
+ * is the 4-byte selector (first bytes of keccak256 of the signature) followed by one 32-byte word.
+ */
+final class ContractAbi {
+
+    static final String GET_CHARITY_BALANCE = "c984ae04";     // getCharityBalance(uint256)
+    static final String GET_CAMPAIGN_PROGRESS = "8ab9b92a";   // getCampaignProgress(uint256)
+    static final String GET_CHARITY_DONATIONS = "59d06eba";   // getCharityDonations(uint256)
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int WORD = 32;
+    // Donation is a static tuple: donor, amount, timestamp, charityId, campaignId
+    private static final int DONATION_WORDS = 5;
+
+    private ContractAbi() {
+    }
+
+    static String call(String selector, long argument) {
+        return "0x" + selector + String.format("%064x", argument);
+    }
+
+    static BigInteger decodeUint(byte[] data) {
+        return word(data, 0);
+    }
+
+    static List<OnChainDonationDto> decodeDonations(byte[] data) {
+        int offset = word(data, 0).intValueExact();
+        int length = word(data, offset).intValueExact();
+        int start = offset + WORD;
+        if (length > (data.length - start) / (DONATION_WORDS * WORD)) {
+            throw new IllegalArgumentException("Donation array of " + length + " does not fit in " + data.length + " bytes");
+        }
+        List<OnChainDonationDto> donations = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            int at = start + i * DONATION_WORDS * WORD;
+            donations.add(new OnChainDonationDto(
+                    "0x" + HEX.formatHex(data, at + 12, at + WORD),
+                    word(data, at + WORD).toString(),
+                    word(data, at + 2 * WORD).longValueExact(),
+                    word(data, at + 3 * WORD).longValueExact(),
+                    word(data, at + 4 * WORD).longValueExact()));
+        }
+        return donations;
+    }
+
+    static byte[] hex(String value) {
+        String digits = value.startsWith("0x") ? value.substring(2) : value;
+        return HEX.parseHex(digits);
+    }
+
+    private static BigInteger word(byte[] data, int offset) {
+        if (offset < 0 || offset + WORD > data.length) {
+            throw new IllegalArgumentException("Return data of " + data.length + " bytes has no word at " + offset);
+        }
+        byte[] word = new byte[WORD];
+        System.arraycopy(data, offset, word, 0, WORD);
+        return new BigInteger(1, word);
+    }
+}
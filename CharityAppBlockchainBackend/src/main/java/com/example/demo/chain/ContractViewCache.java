@@ -0,0 +1,213 @@
+package com.example.demo.chain;
+
+import com.example.demo.dto.BlockViewDto;
+import com.example.demo.dto.OnChainDonationDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Serves CharityPlatform view functions from a cache keyed by block number. The latest block is polled at most
+ * once per block-poll-ms; all views returned by one call are read at that block, misses are fetched in one
+ * batched round of eth_calls, and when the chain moves on the whole cache is dropped at once. Concurrent
+ * requests for the same missing view share one eth_call. A call that reverts, e.g. for an unknown charity,
+ * is cached as absent for the block.
+ * <p>
+ * Without app.chain.rpc-url and app.chain.contract-address the views answer 503.
+ */
+@Slf4j
+@Service
+public class ContractViewCache {
+
+    private static final BigInteger MAX_LONG = BigInteger.valueOf(Long.MAX_VALUE);
+
+    enum View {
+        CHARITY_BALANCE(ContractAbi.GET_CHARITY_BALANCE, data -> ContractAbi.decodeUint(data).toString()),
+        CAMPAIGN_PROGRESS(ContractAbi.GET_CAMPAIGN_PROGRESS, data -> ContractAbi.decodeUint(data).min(MAX_LONG).longValue()),
+        CHARITY_DONATIONS(ContractAbi.GET_CHARITY_DONATIONS, ContractAbi::decodeDonations);
+
+        private final String selector;
+        private final Function<byte[], Object> decoder;
+
+        View(String selector, Function<byte[], Object> decoder) {
+            this.selector = selector;
+            this.decoder = decoder;
+        }
+    }
+
+    private record Key(View view, long id) {
+    }
+
+    private record BlockViews(long block, Map<Key, CompletableFuture<Optional<Object>>> values) {
+    }
+
+    private final EthRpcClient rpc;
+    private final String contractAddress;
+    private final long blockPollMillis;
+
+    private final Object pollLock = new Object();
+    private volatile BlockViews views = new BlockViews(-1, new ConcurrentHashMap<>());
+    private volatile long latestBlock = -1;
+    private long polledAt;
+
+    public ContractViewCache(@Value("${app.chain.rpc-url:}") String rpcUrl,
+                             @Value("${app.chain.contract-address:}") String contractAddress,
+                             @Value("${app.chain.block-poll-ms:1000}") long blockPollMillis,
+                             @Value("${app.chain.timeout-ms:5000}") long timeoutMillis,
+                             @Value("${app.chain.max-batch-size:100}") int maxBatchSize) {
+        this.rpc = rpcUrl.isBlank() || contractAddress.isBlank()
+                ? null
+                : new EthRpcClient(URI.create(rpcUrl), Duration.ofMillis(timeoutMillis), maxBatchSize);
+        this.contractAddress = contractAddress;
+        this.blockPollMillis = blockPollMillis;
+    }
+
+    /**
+     * Withdrawable balance per charity, in wei. Charities the contract does not know are left out.
+     */
+    public BlockViewDto<Map<Long, String>> getCharityBalances(Collection<Long> charityIds) {
+        return get(View.CHARITY_BALANCE, charityIds);
+    }
+
+    /**
+     * Raised amount as a whole percentage of the goal per campaign; above 100 once overfunded.
+     */
+    public BlockViewDto<Map<Long, Long>> getCampaignProgress(Collection<Long> campaignIds) {
+        return get(View.CAMPAIGN_PROGRESS, campaignIds);
+    }
+
+    public BlockViewDto<List<OnChainDonationDto>> getCharityDonations(long charityId) {
+        BlockViewDto<Map<Long, List<OnChainDonationDto>>> result = get(View.CHARITY_DONATIONS, List.of(charityId));
+        List<OnChainDonationDto> donations = result.getValues().get(charityId);
+        if (donations == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Charity " + charityId + " is not on chain");
+        }
+        return new BlockViewDto<>(result.getBlockNumber(), donations);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> BlockViewDto<Map<Long, T>> get(View view, Collection<Long> ids) {
+        if (rpc == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "No chain RPC configured");
+        }
+        long block = latestBlock();
+        BlockViews current = viewsAt(block);
+
+        Map<Long, CompletableFuture<Optional<Object>>> futures = new LinkedHashMap<>();
+        Map<Key, CompletableFuture<Optional<Object>>> misses = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Key key = new Key(view, id);
+            CompletableFuture<Optional<Object>> future = current.values().get(key);
+            if (future == null) {
+                CompletableFuture<Optional<Object>> created = new CompletableFuture<>();
+                future = current.values().putIfAbsent(key, created);
+                if (future == null) {
+                    future = created;
+                    misses.put(key, created);
+                }
+            }
+            futures.put(id, future);
+        }
+        if (!misses.isEmpty()) {
+            fetch(current, misses);
+        }
+
+        Map<Long, T> values = new LinkedHashMap<>();
+        futures.forEach((id, future) -> {
+            try {
+                future.join().ifPresent(value -> values.put(id, (T) value));
+            } catch (CompletionException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Chain RPC failed: " + e.getCause().getMessage());
+            }
+        });
+        return new BlockViewDto<>(block, values);
+    }
+
+    private void fetch(BlockViews current, Map<Key, CompletableFuture<Optional<Object>>> misses) {
+        List<Key> keys = new ArrayList<>(misses.keySet());
+        List<String> calldata = keys.stream().map(key -> ContractAbi.call(key.view().selector, key.id())).toList();
+        List<EthRpcClient.CallResult> results;
+        try {
+            results = rpc.call(contractAddress, calldata, current.block());
+        } catch (IOException | RuntimeException e) {
+            log.warn("eth_call batch of {} at block {} failed: {}", keys.size(), current.block(), e.getMessage());
+            // not cached, so the next request tries again
+            misses.forEach((key, future) -> {
+                current.values().remove(key, future);
+                future.completeExceptionally(e);
+            });
+            return;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            Key key = keys.get(i);
+            EthRpcClient.CallResult result = results.get(i);
+            CompletableFuture<Optional<Object>> future = misses.get(key);
+            if (result.error() != null) {
+                if (result.error().toLowerCase().contains("revert")) {
+                    future.complete(Optional.empty());
+                } else {
+                    // e.g. a per-call rate limit: worth retrying, so not cached
+                    current.values().remove(key, future);
+                    future.completeExceptionally(new IOException(result.error()));
+                }
+                continue;
+            }
+            try {
+                future.complete(Optional.of(key.view().decoder.apply(result.data())));
+            } catch (RuntimeException e) {
+                current.values().remove(key, future);
+                future.completeExceptionally(e);
+            }
+        }
+    }
+
+    // the latest polled block replaces the whole cache, also on a reorg to a lower height; a caller that
+    // raced with a newer poll reads its block uncached
+    private BlockViews viewsAt(long block) {
+        BlockViews current = views;
+        if (current.block() == block) {
+            return current;
+        }
+        synchronized (this) {
+            if (views.block() != block && block == latestBlock) {
+                views = new BlockViews(block, new ConcurrentHashMap<>());
+            }
+            return views.block() == block ? views : new BlockViews(block, new ConcurrentHashMap<>());
+        }
+    }
+
+    private long latestBlock() {
+        synchronized (pollLock) {
+            long now = System.currentTimeMillis();
+            if (latestBlock < 0 || now - polledAt >= blockPollMillis) {
+                polledAt = now;
+                try {
+                    latestBlock = rpc.blockNumber();
+                } catch (IOException | RuntimeException e) {
+                    if (latestBlock < 0) {
+                        throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Chain RPC failed: " + e.getMessage());
+                    }
+                    log.warn("Could not poll the block number, serving block {}: {}", latestBlock, e.getMessage());
+                }
+            }
+            return latestBlock;
+        }
+    }
+}
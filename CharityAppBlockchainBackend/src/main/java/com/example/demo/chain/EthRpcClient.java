@@ -0,0 +1,128 @@
+package com.example.demo.chain;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Minimal Ethereum JSON-RPC client. eth_calls go out as JSON-RPC batches, max-batch-size calls per HTTP
+ * request with the batches sent concurrently, all pinned to one block number so they read the same state.
+ */
+class EthRpcClient {
+
+    /**
+     * Return data of one eth_call, or the node's error message when it reverted.
+     */
+    record CallResult(byte[] data, String error) {
+    }
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final Duration timeout;
+    private final int maxBatchSize;
+
+    EthRpcClient(URI endpoint, Duration timeout, int maxBatchSize) {
+        this.client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        this.endpoint = endpoint;
+        this.timeout = timeout;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    long blockNumber() throws IOException {
+        ObjectNode request = request(1, "eth_blockNumber");
+        request.putArray("params");
+        JsonNode response = join(send(request.toString()));
+        if (response.has("error")) {
+            throw new IOException("eth_blockNumber failed: " + response.get("error"));
+        }
+        return Long.decode(response.get("result").stringValue());
+    }
+
+    List<CallResult> call(String to, List<String> calldata, long block) throws IOException {
+        String blockTag = "0x" + Long.toHexString(block);
+        List<CompletableFuture<JsonNode>> batches = new ArrayList<>();
+        for (int from = 0; from < calldata.size(); from += maxBatchSize) {
+            ArrayNode batch = JSON.createArrayNode();
+            for (int i = from; i < Math.min(from + maxBatchSize, calldata.size()); i++) {
+                ObjectNode request = request(i, "eth_call");
+                ArrayNode params = request.putArray("params");
+                params.addObject().put("to", to).put("data", calldata.get(i));
+                params.add(blockTag);
+                batch.add(request);
+            }
+            batches.add(send(batch.toString()));
+        }
+
+        CallResult[] results = new CallResult[calldata.size()];
+        for (CompletableFuture<JsonNode> batch : batches) {
+            JsonNode responses = join(batch);
+            if (!responses.isArray()) {
+                throw new IOException("Batch rejected: " + responses.path("error"));
+            }
+            // responses may come back in any order
+            for (JsonNode response : responses) {
+                int id = response.path("id").asInt(-1);
+                if (id < 0 || id >= results.length) {
+                    throw new IOException("Response for unknown request id " + response.path("id"));
+                }
+                JsonNode error = response.get("error");
+                results[id] = error != null
+                        ? new CallResult(null, error.path("message").asString("eth_call failed"))
+                        : new CallResult(ContractAbi.hex(response.get("result").stringValue()), null);
+            }
+        }
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                throw new IOException("No response for eth_call " + i);
+            }
+        }
+        return List.of(results);
+    }
+
+    private static ObjectNode request(int id, String method) {
+        ObjectNode request = JSON.createObjectNode();
+        request.put("jsonrpc", "2.0");
+        request.put("id", id);
+        request.put("method", method);
+        return request;
+    }
+
+    private CompletableFuture<JsonNode> send(String body) {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenApply(response -> {
+            if (response.statusCode() != 200) {
+                throw new CompletionException(new IOException("RPC returned HTTP " + response.statusCode()));
+            }
+            return JSON.readTree(response.body());
+        });
+    }
+
+    private static JsonNode join(CompletableFuture<JsonNode> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("RPC request failed", e.getCause());
+        }
+    }
+}
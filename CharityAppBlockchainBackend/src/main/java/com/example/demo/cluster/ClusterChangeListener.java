@@ -0,0 +1,16 @@
+package com.example.demo.cluster;
+
+import com.example.demo.entity.ClusterChange;
+
+import java.util.List;
+
+/**
+ * Notified of writes committed by other nodes, after their cache entries have been evicted here.
+ */
+public interface ClusterChangeListener {
+
+    /**
+     * @param ids the changed rows; empty when the whole entity type changed
+     */
+    void onRemoteChange(Class<?> entity, ClusterChange.Operation operation, List<Long> ids);
+}
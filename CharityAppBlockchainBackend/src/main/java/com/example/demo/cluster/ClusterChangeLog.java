@@ -0,0 +1,290 @@
+package com.example.demo.cluster;
+
+import com.example.demo.entity.Campaign;
+import com.example.demo.entity.CharityRequest;
+import com.example.demo.entity.ClusterChange;
+import com.example.demo.entity.Donation;
+import com.example.demo.entity.Transaction;
+import com.example.demo.repo.ClusterChangeRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cluster-wide invalidation of the second-level and query caches. Every insert, update and delete of a cached
+ * entity (CharityRequest, Campaign, Donation) is written to cluster_changes in the same transaction, just
+ * before it commits, so a change row exists exactly when the write does. Each node tails the table and evicts
+ * what other nodes changed, then passes the changes to its {@link ClusterChangeListener}s.
+ * <p>
+ * Hibernate reports entity writes itself; bulk JPQL updates and plain JDBC writes bypass it, so their callers
+ * use {@link #record}. Transactions are not cached and only go through {@link #record}, for archival. Change ids are assigned at insert but become visible at commit, possibly out of order,
+ * so the tail keeps waiting on a missing id for gap-timeout-ms before it treats it as rolled back.
+ */
+@Slf4j
+@Component
+public class ClusterChangeLog implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private static final int POLL_BATCH = 1000;
+    private static final Set<Class<?>> CAPTURED = Set.of(CharityRequest.class, Campaign.class, Donation.class);
+    private static final Map<String, Class<?>> TRACKED = Map.of(
+            CharityRequest.class.getSimpleName(), CharityRequest.class,
+            Campaign.class.getSimpleName(), Campaign.class,
+            Donation.class.getSimpleName(), Donation.class,
+            Transaction.class.getSimpleName(), Transaction.class);
+
+    private final ClusterChangeRepository changeRepository;
+    private final LeaderElection leaderElection;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final long gapTimeoutMillis;
+    private final long retentionMillis;
+
+    private final Map<SharedSessionContractImplementor, List<ClusterChange>> pending = new ConcurrentHashMap<>();
+    private final List<ClusterChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    // tail position: every id up to low is handled, seen holds the handled ids above it
+    private long low;
+    private final TreeSet<Long> seen = new TreeSet<>();
+    private long gapSince;
+
+    public ClusterChangeLog(ClusterChangeRepository changeRepository,
+                            LeaderElection leaderElection,
+                            EntityManagerFactory entityManagerFactory,
+                            EntityManager entityManager,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${app.cluster.gap-timeout-ms:10000}") long gapTimeoutMillis,
+                            @Value("${app.cluster.change-retention-minutes:60}") long retentionMinutes) {
+        this.changeRepository = changeRepository;
+        this.leaderElection = leaderElection;
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+        this.retentionMillis = retentionMinutes * 60_000;
+    }
+
+    @PostConstruct
+    void register() {
+        if (!leaderElection.isEnabled()) {
+            return;
+        }
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        // our caches start empty, so only later changes matter
+        Long max = changeRepository.findMaxId();
+        low = max != null ? max : 0;
+    }
+
+    public void subscribe(ClusterChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Records writes Hibernate does not see. Joins the current transaction when there is one; an empty ids
+     * collection invalidates the entity type as a whole.
+     */
+    public void record(Class<?> entity, ClusterChange.Operation operation, Collection<Long> ids) {
+        if (!leaderElection.isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            transactionTemplate.executeWithoutResult(status -> record(entity, operation, ids));
+            return;
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        if (ids.isEmpty()) {
+            add(session, entity, operation, null);
+        }
+        for (Long id : ids) {
+            add(session, entity, operation, id);
+        }
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        capture(event.getSession(), event.getPersister(), event.getId(), ClusterChange.Operation.INSERT);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        capture(event.getSession(), event.getPersister(), event.getId(), ClusterChange.Operation.UPDATE);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        capture(event.getSession(), event.getPersister(), event.getId(), ClusterChange.Operation.DELETE);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void capture(EventSource session, EntityPersister persister, Object id, ClusterChange.Operation operation) {
+        Class<?> entity = persister.getMappedClass();
+        if (CAPTURED.contains(entity) && id instanceof Long longId) {
+            add(session, entity, operation, longId);
+        }
+    }
+
+    private void add(SessionImplementor session, Class<?> entity, ClusterChange.Operation operation, Long id) {
+        ClusterChange change = new ClusterChange();
+        change.setNodeId(leaderElection.getNodeId());
+        change.setEntity(entity.getSimpleName());
+        change.setOperation(operation);
+        change.setEntityId(id);
+        pending.computeIfAbsent(session, s -> {
+            // runs after Hibernate's final flush, inside the transaction
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::write);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, ended) -> pending.remove(ended));
+            return new ArrayList<>();
+        }).add(change);
+    }
+
+    private void write(SessionImplementor session) {
+        List<ClusterChange> changes = pending.remove(session);
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        session.doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO cluster_changes (node_id, entity, operation, entity_id, created_at_ms) VALUES (?, ?, ?, ?, ?)")) {
+                for (ClusterChange change : changes) {
+                    insert.setString(1, change.getNodeId());
+                    insert.setString(2, change.getEntity());
+                    insert.setString(3, change.getOperation().name());
+                    insert.setObject(4, change.getEntityId());
+                    insert.setLong(5, now);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.poll-ms:1000}")
+    public synchronized void poll() {
+        if (!leaderElection.isEnabled()) {
+            return;
+        }
+        List<ClusterChange> remote = new ArrayList<>();
+        for (ClusterChange change : changeRepository.findByIdGreaterThanOrderByIdAsc(low, Limit.of(POLL_BATCH))) {
+            if (seen.add(change.getId()) && !leaderElection.getNodeId().equals(change.getNodeId())) {
+                remote.add(change);
+            }
+        }
+        advance();
+        if (!remote.isEmpty()) {
+            apply(remote);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.prune-interval-ms:60000}")
+    public void prune() {
+        if (leaderElection.isEnabled() && leaderElection.isLeader()) {
+            Integer pruned = transactionTemplate.execute(status ->
+                    changeRepository.deleteCreatedBefore(System.currentTimeMillis() - retentionMillis));
+            if (pruned != null && pruned > 0) {
+                log.debug("Pruned {} cluster changes", pruned);
+            }
+        }
+    }
+
+    // moves low over the contiguous handled ids, and over a missing id once it has been missing for too long
+    private void advance() {
+        while (true) {
+            while (seen.remove(low + 1)) {
+                low++;
+                gapSince = 0;
+            }
+            if (seen.isEmpty()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (gapSince == 0) {
+                gapSince = now;
+                return;
+            }
+            if (now - gapSince < gapTimeoutMillis) {
+                return;
+            }
+            low++;
+            gapSince = 0;
+        }
+    }
+
+    private void apply(List<ClusterChange> changes) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+        Map<String, Map<ClusterChange.Operation, List<Long>>> grouped = new LinkedHashMap<>();
+        Set<String> wholeType = new TreeSet<>();
+        for (ClusterChange change : changes) {
+            Class<?> entity = TRACKED.get(change.getEntity());
+            if (entity == null) {
+                continue;
+            }
+            if (change.getEntityId() == null) {
+                cache.evictEntityData(entity);
+                wholeType.add(change.getEntity());
+            } else if (change.getOperation() != ClusterChange.Operation.INSERT) {
+                cache.evictEntityData(entity, change.getEntityId());
+            }
+            List<Long> ids = grouped.computeIfAbsent(change.getEntity(), e -> new LinkedHashMap<>())
+                    .computeIfAbsent(change.getOperation(), o -> new ArrayList<>());
+            if (change.getEntityId() != null) {
+                ids.add(change.getEntityId());
+            }
+        }
+        // cached query results may include or miss any of the changed rows
+        cache.evictQueryRegions();
+
+        grouped.forEach((name, byOperation) -> byOperation.forEach((operation, ids) -> {
+            List<Long> affected = wholeType.contains(name) ? List.of() : ids;
+            for (ClusterChangeListener listener : listeners) {
+                try {
+                    listener.onRemoteChange(TRACKED.get(name), operation, affected);
+                } catch (RuntimeException e) {
+                    log.warn("Cluster change listener failed on {}: {}", name, e.getMessage());
+                }
+            }
+        }));
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.demo.cluster;
+
+import com.example.demo.repo.ClusterLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lease-based leader election through the cluster_leases table, so that background jobs (archival, campaign
+ * expiry, change-log pruning) run on one node only. The leader renews its lease every lease-renew-ms; another
+ * node takes over once the lease has not been renewed for lease-ttl-ms.
+ * <p>
+ * A node stops considering itself leader one renew interval before its lease expires, so with clocks kept in
+ * sync there is no overlap between an old leader that lost contact with the database and its successor.
+ * Renewals run on their own thread, so a long job on the shared scheduler cannot let the lease lapse; jobs
+ * that run for long should still check {@link #isLeader()} as they go.
+ * With app.cluster.enabled=false the single node is always the leader.
+ */
+@Slf4j
+@Component
+public class LeaderElection {
+
+    static final String SCHEDULER_LEASE = "scheduler";
+
+    private final ClusterLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final String nodeId;
+    private final long ttlMillis;
+    private final long renewMillis;
+    private final List<Runnable> electedListeners = new CopyOnWriteArrayList<>();
+
+    private volatile long leaderUntil;
+    private ScheduledExecutorService renewer;
+
+    public LeaderElection(ClusterLeaseRepository leaseRepository,
+                          TransactionTemplate transactionTemplate,
+                          @Value("${app.cluster.enabled:false}") boolean enabled,
+                          @Value("${app.cluster.node-id:}") String nodeId,
+                          @Value("${app.cluster.lease-ttl-ms:15000}") long ttlMillis,
+                          @Value("${app.cluster.lease-renew-ms:5000}") long renewMillis) {
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.ttlMillis = ttlMillis;
+        this.renewMillis = renewMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public boolean isLeader() {
+        return !enabled || System.currentTimeMillis() < leaderUntil;
+    }
+
+    /**
+     * Runs the callback each time this node becomes the leader, e.g. to reload state the previous leader owned.
+     */
+    public void onElected(Runnable callback) {
+        electedListeners.add(callback);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        renewer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "leader-lease-" + nodeId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        renewer.scheduleWithFixedDelay(this::renew, 0, renewMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void renew() {
+        if (!enabled) {
+            return;
+        }
+        boolean wasLeader = isLeader();
+        long now = System.currentTimeMillis();
+        boolean held;
+        try {
+            held = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                    leaseRepository.tryAcquire(SCHEDULER_LEASE, nodeId, now + ttlMillis, now) == 1
+                            || leaseRepository.insertIfAbsent(SCHEDULER_LEASE, nodeId, now + ttlMillis) == 1));
+        } catch (RuntimeException e) {
+            log.warn("Could not renew the {} lease: {}", SCHEDULER_LEASE, e.getMessage());
+            held = false;
+        }
+        leaderUntil = held ? now + ttlMillis - renewMillis : 0;
+
+        if (held && !wasLeader) {
+            log.info("Node {} is now the leader", nodeId);
+            for (Runnable callback : electedListeners) {
+                try {
+                    callback.run();
+                } catch (RuntimeException e) {
+                    log.warn("Leader election callback failed: {}", e.getMessage());
+                }
+            }
+        } else if (!held && wasLeader) {
+            log.info("Node {} is no longer the leader", nodeId);
+        }
+    }
+
+    // hand over right away instead of making the others wait for the lease to expire
+    @PreDestroy
+    void release() throws InterruptedException {
+        if (renewer != null) {
+            renewer.shutdownNow();
+            renewer.awaitTermination(renewMillis, TimeUnit.MILLISECONDS);
+        }
+        if (enabled && leaderUntil > 0) {
+            leaderUntil = 0;
+            try {
+                transactionTemplate.executeWithoutResult(status -> leaseRepository.release(SCHEDULER_LEASE, nodeId));
+            } catch (RuntimeException e) {
+                log.warn("Could not release the {} lease: {}", SCHEDULER_LEASE, e.getMessage());
+            }
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.demo.config;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.ser.BeanPropertyWriter;
+import tools.jackson.databind.ser.PropertyWriter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes a list response as one array per field instead of one object per element:
+ * {"count":2,"columns":{"txHash":["0x1","0x2"],"amount":["0.1","0.5"]}}.
+ * Field names appear once per response, which is where most of the bytes of the list endpoints go.
+ * Clients opt in with Accept: application/x-columnar-json. Lists of values without fields (strings, numbers)
+ * have no columns to split into and are written as a plain JSON array.
+ */
+public class ColumnarJsonHttpMessageConverter extends AbstractHttpMessageConverter<Collection<?>> {
+
+    public static final MediaType COLUMNAR_JSON = MediaType.parseMediaType("application/x-columnar-json");
+
+    private final JsonMapper jsonMapper;
+
+    public ColumnarJsonHttpMessageConverter(JsonMapper jsonMapper) {
+        super(COLUMNAR_JSON);
+        this.jsonMapper = jsonMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Collection<?> readInternal(Class<? extends Collection<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Columnar JSON is a response-only format", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Collection<?> items, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = jsonMapper.createGenerator(outputMessage.getBody())) {
+            // cells are written straight from the getters through the mapper's own serializers, no trees in between
+            SerializationContext context = (SerializationContext) generator.objectWriteContext();
+            Map<Class<?>, Map<String, BeanPropertyWriter>> writersByType = new HashMap<>();
+            Set<String> columns = new LinkedHashSet<>();
+            for (Object item : items) {
+                if (item instanceof Map<?, ?> map) {
+                    map.keySet().forEach(key -> columns.add(String.valueOf(key)));
+                } else if (item != null) {
+                    Map<String, BeanPropertyWriter> writers =
+                            writersByType.computeIfAbsent(item.getClass(), type -> writersOf(type, context));
+                    if (writers.isEmpty()) {
+                        generator.writePOJO(items);
+                        return;
+                    }
+                    columns.addAll(writers.keySet());
+                }
+            }
+
+            generator.writeStartObject();
+            generator.writeNumberProperty("count", items.size());
+            generator.writeName("columns");
+            generator.writeStartObject();
+            for (String column : columns) {
+                generator.writeName(column);
+                generator.writeStartArray();
+                for (Object item : items) {
+                    writeCell(item, column, writersByType, generator, context);
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+    }
+
+    // the bean serializer's properties, in the order and under the names plain JSON uses
+    private static Map<String, BeanPropertyWriter> writersOf(Class<?> type, SerializationContext context) {
+        Map<String, BeanPropertyWriter> writers = new LinkedHashMap<>();
+        // only bean serializers have property writers; scalars and their ilk have none
+        Iterator<PropertyWriter> properties = context.findValueSerializer(type).properties();
+        while (properties.hasNext()) {
+            if (properties.next() instanceof BeanPropertyWriter writer) {
+                writers.put(writer.getName(), writer);
+            }
+        }
+        return writers;
+    }
+
+    private static void writeCell(Object item, String column, Map<Class<?>, Map<String, BeanPropertyWriter>> writersByType,
+                                  JsonGenerator generator, SerializationContext context) throws IOException {
+        if (item instanceof Map<?, ?> map) {
+            generator.writePOJO(map.get(column));
+            return;
+        }
+        BeanPropertyWriter writer = item != null ? writersByType.get(item.getClass()).get(column) : null;
+        if (writer == null) {
+            generator.writeNull(); // field absent in this row
+            return;
+        }
+        try {
+            writer.serializeAsElement(item, generator, context);
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Could not write " + column + " of " + item.getClass().getSimpleName(), e);
+        }
+    }
+}
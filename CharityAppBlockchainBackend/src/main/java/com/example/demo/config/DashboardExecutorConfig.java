@@ -0,0 +1,50 @@
+package com.example.demo.config;
+
+import com.example.demo.profiling.QueryProfiler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class DashboardExecutorConfig {
+
+    /**
+     * Pool the dashboard sections fan out on. Bounded so a burst of dashboard loads queues up instead of
+     * taking more DB connections than the pool has.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor dashboardExecutor(@Value("${app.dashboard.threads:8}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 50);
+        executor.setThreadNamePrefix("dashboard-");
+        executor.setTaskDecorator(readYourWritesPropagation());
+        executor.initialize();
+        return executor;
+    }
+
+    // sections run on pool threads, so carry the request's primary pin and query profiling scope over to them
+    private static TaskDecorator readYourWritesPropagation() {
+        return task -> {
+            boolean pinned = ReplicaRoutingDataSource.isPinnedToPrimary();
+            QueryProfiler.Scope scope = QueryProfiler.current();
+            return () -> {
+                if (pinned) {
+                    ReplicaRoutingDataSource.pinToPrimary();
+                }
+                QueryProfiler.Scope previous = QueryProfiler.attach(scope);
+                try {
+                    task.run();
+                } finally {
+                    QueryProfiler.attach(previous);
+                    if (pinned) {
+                        ReplicaRoutingDataSource.clearPin();
+                    }
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records time-to-first-request: JVM uptime when the first request has been served.
+ * Boot already publishes application.started.time and application.ready.time; this covers the part
+ * the autoscaler actually waits for, including lazily created beans on the first call.
+ */
+@Slf4j
+@Component
+public class FirstRequestTimingFilter extends OncePerRequestFilter {
+
+    private final AtomicLong firstRequestMillis = new AtomicLong(-1);
+
+    public FirstRequestTimingFilter(MeterRegistry meterRegistry) {
+        Gauge.builder("application.first.request.time", firstRequestMillis, AtomicLong::get)
+                .baseUnit(TimeUnit.MILLISECONDS.name().toLowerCase())
+                .description("JVM uptime when the first HTTP request completed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (firstRequestMillis.get() < 0) {
+                long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+                if (firstRequestMillis.compareAndSet(-1, uptime)) {
+                    log.info("Time to first request: {} ms ({} {})", uptime, request.getMethod(), request.getRequestURI());
+                }
+            }
+        }
+    }
+}
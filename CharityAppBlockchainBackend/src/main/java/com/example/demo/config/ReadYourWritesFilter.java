@@ -0,0 +1,64 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Read-your-writes for replica routing. A successful write (e.g. POST /api/donations) returns
+ * X-Primary-Until; a client that echoes that header back has its reads served by the primary until then,
+ * so it never sees a replica that has not caught up with its own donation yet.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "jdbc-url")
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Primary-Until";
+
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(@Value("${app.datasource.read-your-writes-ms:0}") long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (windowMillis > 0 && isWrite(request.getMethod())) {
+            response.setHeader(HEADER, String.valueOf(System.currentTimeMillis() + windowMillis));
+        }
+        boolean pinned = isPinned(request.getHeader(HEADER));
+        if (pinned) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (pinned) {
+                ReplicaRoutingDataSource.clearPin();
+            }
+        }
+    }
+
+    private boolean isPinned(String primaryUntil) {
+        if (windowMillis <= 0 || primaryUntil == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(primaryUntil) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isWrite(String method) {
+        return "POST".equals(method) || "PUT".equals(method) || "PATCH".equals(method) || "DELETE".equals(method);
+    }
+}
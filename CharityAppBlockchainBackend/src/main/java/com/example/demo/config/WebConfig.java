@@ -1,15 +1,58 @@
 package com.example.demo.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Collection;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final JsonMapper jsonMapper;
+
+    public WebConfig(JsonMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/uploads/**") // put /uploads url
                 .addResourceLocations("file:" + System.getProperty("user.home") + "/charity/logo/"); // retrieve file from here
     }
-}
\ No newline at end of file
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping("/api/**")
+                .allowedOrigins("*")
+                .exposedHeaders(ReadYourWritesFilter.HEADER); // let the frontend read it back for read-your-writes
+    }
+
+    @Override
+    public void configureMessageConverters(HttpMessageConverters.ServerBuilder builder) {
+        // custom converters go ahead of the defaults, so without the plain one first a list asked for with */*
+        // would be answered in columnar JSON
+        builder.addCustomConverter(plainJsonForCollections());
+        builder.addCustomConverter(new ColumnarJsonHttpMessageConverter(jsonMapper));
+    }
+
+    private JacksonJsonHttpMessageConverter plainJsonForCollections() {
+        return new JacksonJsonHttpMessageConverter(jsonMapper) {
+            @Override
+            public boolean canRead(ResolvableType type, MediaType mediaType) {
+                return false; // request bodies are left to the default converters
+            }
+
+            @Override
+            public boolean canWrite(ResolvableType targetType, Class<?> valueClass, MediaType mediaType) {
+                return Collection.class.isAssignableFrom(valueClass) && super.canWrite(targetType, valueClass, mediaType);
+            }
+        };
+    }
+}
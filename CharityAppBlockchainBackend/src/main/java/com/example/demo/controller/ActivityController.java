@@ -0,0 +1,24 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.ActivityItemDto;
+import com.example.demo.dto.KeysetPageDto;
+import com.example.demo.service.ActivityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/activity")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ActivityController {
+
+    private final ActivityService activityService;
+
+    @GetMapping("/{walletAddress}")
+    public ResponseEntity<KeysetPageDto<ActivityItemDto>> getActivity(@PathVariable String walletAddress,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(activityService.getActivity(walletAddress, cursor, size));
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.controller;
+
+import com.example.demo.archive.ArchivalJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/archive")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ArchiveController {
+
+    private final ArchivalJob archivalJob;
+
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, Integer>> runArchival() {
+        return ResponseEntity.ok(archivalJob.run());
+    }
+}
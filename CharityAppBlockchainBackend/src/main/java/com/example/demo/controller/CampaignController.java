@@ -1,7 +1,10 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.CampaignDto;
+import com.example.demo.dto.RankedCampaignDto;
 import com.example.demo.entity.Campaign;
+import com.example.demo.ratelimit.AdmissionControl;
+import com.example.demo.service.CampaignRankingService;
 import com.example.demo.service.CampaignService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,8 +19,15 @@ public class CampaignController {
     @Autowired
     private CampaignService campaignService;
 
+    @Autowired
+    private CampaignRankingService campaignRankingService;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
     @PostMapping("/api/campaign")
     public ResponseEntity<Campaign> postData(@RequestBody Campaign c) {
+        admissionControl.checkWallet(c.getWalletAddress());
         System.out.println("hiiiiiiii");
         c.setStatus("ACTIVE");
         System.out.println("campaign controller " + c);
@@ -36,4 +46,19 @@ public class CampaignController {
         List<Campaign> campaigns = campaignService.getCampaignByActive();
         return ResponseEntity.ok(campaigns);
     }
+
+    @GetMapping("/api/campaign/trending")
+    public ResponseEntity<List<RankedCampaignDto>> getTrendingCampaigns(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(campaignRankingService.getTrending(limit));
+    }
+
+    @GetMapping("/api/campaign/almost-funded")
+    public ResponseEntity<List<RankedCampaignDto>> getAlmostFundedCampaigns(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(campaignRankingService.getAlmostFunded(limit));
+    }
+
+    @GetMapping("/api/campaign/newest")
+    public ResponseEntity<List<RankedCampaignDto>> getNewestCampaigns(@RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(campaignRankingService.getNewest(limit));
+    }
 }
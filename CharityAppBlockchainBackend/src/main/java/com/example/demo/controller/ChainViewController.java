@@ -0,0 +1,46 @@
+package com.example.demo.controller;
+
+import com.example.demo.chain.ContractViewCache;
+import com.example.demo.dto.BlockViewDto;
+import com.example.demo.dto.OnChainDonationDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CharityPlatform view functions read through the backend, so cards no longer call the wallet RPC one by one.
+ */
+@RestController
+@RequestMapping("/api/chain")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ChainViewController {
+
+    private static final int MAX_IDS = 500;
+
+    private final ContractViewCache contractViewCache;
+
+    @GetMapping("/charity-balances")
+    public ResponseEntity<BlockViewDto<Map<Long, String>>> getCharityBalances(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(contractViewCache.getCharityBalances(ids));
+    }
+
+    @GetMapping("/campaign-progress")
+    public ResponseEntity<BlockViewDto<Map<Long, Long>>> getCampaignProgress(@RequestParam List<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(contractViewCache.getCampaignProgress(ids));
+    }
+
+    @GetMapping("/charities/{charityId}/donations")
+    public ResponseEntity<BlockViewDto<List<OnChainDonationDto>>> getCharityDonations(@PathVariable long charityId) {
+        return ResponseEntity.ok(contractViewCache.getCharityDonations(charityId));
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BulkStatusResultDto;
+import com.example.demo.dto.BulkStatusUpdateDto;
 import com.example.demo.dto.CharityRequestDto;
+import com.example.demo.dto.CharityRequestSummaryDto;
+import com.example.demo.dto.KeysetPageDto;
 import com.example.demo.entity.CharityRequest;
 import com.example.demo.mapper.CharityReqMapper;
+import com.example.demo.ratelimit.AdmissionControl;
 import com.example.demo.service.CharityRequestService;
 import com.example.demo.service.ImageService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,8 +32,12 @@ public class CharityRequestController {
     @Autowired
     private ImageService imageService;
 
+    @Autowired
+    private AdmissionControl admissionControl;
+
     @PostMapping("/api/charity/register")
     public ResponseEntity<CharityRequest> saveEmployee(@ModelAttribute CharityRequestDto charityRequest) {
+        admissionControl.checkWallet(charityRequest.getWallet());
         MultipartFile file = charityRequest.getLogo();
         MultipartFile verificationDocument = charityRequest.getVerification();
         String logoUrl = imageService.uploadImage(file);
@@ -52,12 +61,26 @@ public class CharityRequestController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/api/charityRequests/bulk-status")
+    public ResponseEntity<List<BulkStatusResultDto>> updateStatusInBulk(@RequestBody BulkStatusUpdateDto request) {
+        List<BulkStatusResultDto> results = charityRequestService.updateStatusInBulk(request.getIds(), request.getStatus());
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/api/charityRequests")
     public ResponseEntity<List<CharityRequestDto>> getAllCharities() {
         List<CharityRequestDto> allCharities = charityRequestService.getAllCharities();
         return ResponseEntity.ok(allCharities);
     }
 
+    @GetMapping("/api/charityRequests/queue")
+    public ResponseEntity<KeysetPageDto<CharityRequestSummaryDto>> getReviewQueue(
+            @RequestParam(defaultValue = "PENDING") CharityRequest.RequestStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(charityRequestService.getReviewQueue(status, cursor, size));
+    }
+
     @GetMapping("/api/charityRequests/{id}")
     public ResponseEntity<CharityRequestDto> getCharityById(@PathVariable("id") long charityId) {
         CharityRequestDto returnedCharity = charityRequestService.getCharityById(charityId);
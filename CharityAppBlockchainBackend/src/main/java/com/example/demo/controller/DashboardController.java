@@ -0,0 +1,28 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.AdminDashboardDto;
+import com.example.demo.dto.CharityDashboardDto;
+import com.example.demo.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping("/charity/{walletAddress}")
+    public ResponseEntity<CharityDashboardDto> getCharityDashboard(@PathVariable String walletAddress,
+                                                                   @RequestParam(required = false) Long charityId) {
+        return ResponseEntity.ok(dashboardService.getCharityDashboard(walletAddress, charityId));
+    }
+
+    @GetMapping("/admin")
+    public ResponseEntity<AdminDashboardDto> getAdminDashboard() {
+        return ResponseEntity.ok(dashboardService.getAdminDashboard());
+    }
+}
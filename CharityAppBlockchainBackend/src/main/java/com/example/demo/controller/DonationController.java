@@ -1,9 +1,21 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.DonationDTO;
+import com.example.demo.dto.DonationImportReportDto;
+import com.example.demo.dto.DonorSummaryDto;
+import com.example.demo.entity.Donation;
+import com.example.demo.entity.DonationImport;
+import com.example.demo.importer.DonationCsvImporter;
+import com.example.demo.ratelimit.AdmissionControl;
+import com.example.demo.service.DonationIngestBuffer;
 import com.example.demo.service.DonationService;
+import com.example.demo.service.DonorSummaryService;
+import com.example.demo.service.PDFCertificateService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
@@ -11,7 +23,9 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/donations")
@@ -21,8 +35,24 @@ public class DonationController {
 
     private final DonationService donationService;
 
+    private final AdmissionControl admissionControl;
+
+    private final DonationIngestBuffer donationIngestBuffer;
+
+    private final DonorSummaryService donorSummaryService;
+
+    private final DonationCsvImporter donationCsvImporter;
+
+    @Lazy // only needed for certificate downloads, keep OpenPDF off the startup path
+    private final PDFCertificateService pdfCertificateService;
+
     @PostMapping
     public ResponseEntity<DonationDTO> createDonation(@RequestBody DonationDTO donationDTO) {
+        admissionControl.checkWallet(donationDTO.getDonorAddress());
+        if (donationIngestBuffer.isEnabled()) {
+            donationIngestBuffer.submit(donationDTO);
+            return ResponseEntity.accepted().body(donationDTO);
+        }
         DonationDTO saved = donationService.saveDonation(donationDTO);
         return ResponseEntity.ok(saved);
     }
@@ -33,6 +63,16 @@ public class DonationController {
         return ResponseEntity.ok(donations);
     }
 
+    @GetMapping("/donor/{walletAddress}/summary")
+    public ResponseEntity<DonorSummaryDto> getDonorSummary(@PathVariable String walletAddress) {
+        return ResponseEntity.ok(donorSummaryService.getSummary(walletAddress));
+    }
+
+    @PostMapping("/summaries/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDonorSummaries() {
+        return ResponseEntity.ok(donorSummaryService.rebuild());
+    }
+
     @GetMapping("/charity/{charityId}")
     public ResponseEntity<List<DonationDTO>> getCharityDonations(@PathVariable Long charityId) {
         List<DonationDTO> donations = donationService.getCharityDonations(charityId);
@@ -66,19 +106,36 @@ public class DonationController {
     }
 
     /**
-     * Generate donation certificate PDF
+     * Generate donation certificate PDF, streamed into the response
      */
     @GetMapping("/certificate/{txHash}")
-    public ResponseEntity<Resource> generateDonationCertificate(@PathVariable String txHash) {
-        byte[] pdfData = donationService.generateCertificatePDF(txHash);
+    public void generateDonationCertificate(@PathVariable String txHash, HttpServletResponse response) throws IOException {
+        Donation donation = donationService.getCertificateDonation(txHash);
 
-        ByteArrayResource resource = new ByteArrayResource(pdfData);
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=donation-certificate-" + txHash.substring(0, 10) + ".pdf");
+        pdfCertificateService.writePDF(donation, response.getOutputStream());
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=donation-certificate-" + txHash.substring(0, 10) + ".pdf")
-                .contentType(MediaType.APPLICATION_PDF)
-                .contentLength(pdfData.length)
-                .body(resource);
+    /**
+     * Imports historical donations from a CSV in the export layout, sent as the raw request body
+     * (curl --data-binary @donations.csv -H 'Content-Type: text/csv'). Rerunning a failed import with the same
+     * importId and file resumes after the last committed record.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<DonationImportReportDto> importDonations(@RequestParam String importId,
+                                                                  @RequestParam(required = false) String donorAddress,
+                                                                  HttpServletRequest request) throws IOException {
+        DonationImportReportDto report = donationCsvImporter.importCsv(importId, donorAddress, request.getInputStream());
+        if (report.getStatus() == DonationImport.Status.FAILED) {
+            return ResponseEntity.internalServerError().body(report);
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<DonationImportReportDto> getImport(@PathVariable String importId) {
+        return ResponseEntity.ok(donationCsvImporter.getReport(importId));
     }
-}
\ No newline at end of file
+}
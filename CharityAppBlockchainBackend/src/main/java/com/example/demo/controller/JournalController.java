@@ -0,0 +1,27 @@
+package com.example.demo.controller;
+
+import com.example.demo.journal.JournalService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/journal")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class JournalController {
+
+    private final JournalService journalService;
+
+    @PostMapping("/seed")
+    public ResponseEntity<Map<String, Long>> seedJournal() {
+        return ResponseEntity.ok(journalService.seedFromDatabase());
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getJournalStats() {
+        return ResponseEntity.ok(journalService.stats());
+    }
+}
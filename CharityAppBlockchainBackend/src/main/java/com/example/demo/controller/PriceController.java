@@ -0,0 +1,37 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.EthUsdPriceService;
+import com.example.demo.service.PriceBackfillService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/prices")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class PriceController {
+
+    private final EthUsdPriceService ethUsdPriceService;
+
+    private final PriceBackfillService priceBackfillService;
+
+    @GetMapping("/eth-usd")
+    public ResponseEntity<Map<String, Object>> getEthUsd(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        double price = ethUsdPriceService.priceAt(at);
+        if (Double.isNaN(price)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("at", at, "price", price));
+    }
+
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, Integer>> backfillUsdValues() {
+        return ResponseEntity.ok(Map.of("updated", priceBackfillService.backfill()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.controller;
+
+import com.example.demo.report.ReportFormat;
+import com.example.demo.report.ReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    /**
+     * Donation and withdrawal report for the days from..to (both inclusive), streamed as it is generated.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> getReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        ReportFormat reportFormat = switch (format.toLowerCase()) {
+            case "csv" -> ReportFormat.CSV;
+            case "pdf" -> ReportFormat.PDF;
+            default -> null;
+        };
+        if (reportFormat == null || to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out ->
+                reportService.writeReport(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), reportFormat, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, reportFormat.getContentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"report-" + from + "-" + to + "." + reportFormat.getExtension() + "\"")
+                .body(body);
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.KeysetPageDto;
 import com.example.demo.dto.TransactionDTO;
+import com.example.demo.dto.TransactionSearchCriteria;
+import com.example.demo.ratelimit.AdmissionControl;
 import com.example.demo.service.TransactionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,6 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -18,8 +22,11 @@ public class TransactionController {
     @Autowired
     private final TransactionService transactionService;
 
+    private final AdmissionControl admissionControl;
+
     @PostMapping
     public ResponseEntity<TransactionDTO> createTransaction(@RequestBody TransactionDTO transactionDTO) {
+        admissionControl.checkWallet(transactionDTO.getFromAddress());
         TransactionDTO saved = transactionService.saveTransaction(transactionDTO);
         return ResponseEntity.ok(saved);
     }
@@ -29,4 +36,16 @@ public class TransactionController {
         List<TransactionDTO> transactions = transactionService.getUserTransactions(walletAddress);
         return ResponseEntity.ok(transactions);
     }
+
+    @GetMapping("/search")
+    public ResponseEntity<KeysetPageDto<TransactionDTO>> search(TransactionSearchCriteria criteria,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(transactionService.search(criteria, cursor, size));
+    }
+
+    @PostMapping("/metadata/migrate")
+    public ResponseEntity<Map<String, Integer>> migrateLegacyMetadata() {
+        return ResponseEntity.ok(Map.of("migrated", transactionService.migrateLegacyMetadata()));
+    }
 }
@@ -0,0 +1,34 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.WithdrawalDTO;
+import com.example.demo.ratelimit.AdmissionControl;
+import com.example.demo.service.WithdrawalService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/withdrawals")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class WithdrawalController {
+
+    private final WithdrawalService withdrawalService;
+
+    private final AdmissionControl admissionControl;
+
+    @PostMapping
+    public ResponseEntity<WithdrawalDTO> createWithdrawal(@RequestBody WithdrawalDTO withdrawalDTO) {
+        admissionControl.checkWallet(withdrawalDTO.getToAddress());
+        WithdrawalDTO saved = withdrawalService.saveWithdrawal(withdrawalDTO);
+        return ResponseEntity.ok(saved);
+    }
+
+    @GetMapping("/charity/{charityId}")
+    public ResponseEntity<List<WithdrawalDTO>> getCharityWithdrawals(@PathVariable Long charityId) {
+        List<WithdrawalDTO> withdrawals = withdrawalService.getCharityWithdrawals(charityId);
+        return ResponseEntity.ok(withdrawals);
+    }
+}
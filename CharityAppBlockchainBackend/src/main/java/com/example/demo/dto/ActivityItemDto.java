@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a wallet's activity feed. Built from JPQL constructor expressions over donations, transactions
+ * and withdrawals; description is the charity name, or the transaction type for transactions.
+ */
+@Getter
+@Setter
+@ToString
+public class ActivityItemDto {
+    private String type;
+    private long id;
+    private String txHash;
+    private String amount;
+    private LocalDateTime timestamp;
+    private Long charityId;
+    private String description;
+
+    public ActivityItemDto(String type, Long id, String txHash, String amount, LocalDateTime timestamp,
+                           Long charityId, String description) {
+        this.type = type;
+        this.id = id;
+        this.txHash = txHash;
+        this.amount = amount;
+        this.timestamp = timestamp;
+        this.charityId = charityId;
+        this.description = description;
+    }
+}
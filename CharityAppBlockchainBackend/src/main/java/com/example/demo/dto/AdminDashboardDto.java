@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Campaign;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the admin dashboard needs in one response.
+ * Sections that failed or timed out are null and listed in failedSections.
+ */
+@Data
+public class AdminDashboardDto {
+    private PlatformStatisticsDTO statistics;
+    private KeysetPageDto<CharityRequestSummaryDto> pendingRequests;
+    private List<Campaign> activeCampaigns;
+    private List<DonorLeaderboardDTO> leaderboard;
+    private List<String> failedSections = new ArrayList<>();
+}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Contract view results, all read at the same block.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockViewDto<T> {
+    private long blockNumber;
+    private T values;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusResultDto {
+    private long id;
+    private Outcome outcome;
+
+    public enum Outcome {
+        UPDATED, UNCHANGED, NOT_FOUND, MAIL_FAILED
+    }
+}
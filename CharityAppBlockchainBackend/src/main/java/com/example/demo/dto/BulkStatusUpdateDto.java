@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.CharityRequest;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@Setter
+@ToString
+public class BulkStatusUpdateDto {
+    private List<Long> ids;
+    private CharityRequest.RequestStatus status;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Campaign;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything the charity dashboard needs in one response.
+ * Sections that failed or timed out are null and listed in failedSections.
+ */
+@Data
+public class CharityDashboardDto {
+    private CharityRequestDto charity;
+    private PlatformStatisticsDTO statistics;
+    private List<Campaign> campaigns;
+    private List<DonationDTO> donations;
+    private List<TransactionDTO> transactions;
+    private List<String> failedSections = new ArrayList<>();
+}
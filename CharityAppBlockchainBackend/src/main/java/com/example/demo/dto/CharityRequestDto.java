@@ -2,6 +2,7 @@ package com.example.demo.dto;
 
 import com.example.demo.entity.CharityRequest;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
 import org.springframework.web.multipart.MultipartFile;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @ToString
+@NoArgsConstructor
 public class CharityRequestDto {
     private long id;
     private MultipartFile logo;
@@ -24,4 +26,19 @@ public class CharityRequestDto {
     private LocalDateTime requestedTimeStamp;
     private CharityRequest.RequestStatus status;
     private String email;
+
+    // JPQL constructor expression in CharityRequestRepo; same fields and url shape as CharityReqMapper.mapToDto
+    public CharityRequestDto(Long id, String name, String description, String email, String wallet, String logoUrl,
+                             String verificationDocumentUrl, LocalDateTime requestedTimeStamp,
+                             CharityRequest.RequestStatus status) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.email = email;
+        this.wallet = wallet;
+        this.logoUrl = "/uploads/" + logoUrl;
+        this.verificationDocumentUrl = "/uploads/" + verificationDocumentUrl;
+        this.requestedTimeStamp = requestedTimeStamp;
+        this.status = status;
+    }
 }
@@ -0,0 +1,39 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.CharityRequest;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Summary columns of a charity request for the admin review queue.
+ * Built straight from a JPQL constructor expression, so the TEXT description is never read.
+ */
+@Getter
+@Setter
+@ToString
+public class CharityRequestSummaryDto {
+    private long id;
+    private String name;
+    private String wallet;
+    private String email;
+    private String logoUrl;
+    private String websiteUrl;
+    private LocalDateTime requestedTimeStamp;
+    private CharityRequest.RequestStatus status;
+
+    public CharityRequestSummaryDto(Long id, String name, String wallet, String email, String logoUrl,
+                                    String websiteUrl, LocalDateTime requestedTimeStamp,
+                                    CharityRequest.RequestStatus status) {
+        this.id = id;
+        this.name = name;
+        this.wallet = wallet;
+        this.email = email;
+        this.logoUrl = "/uploads/" + logoUrl; // same url shape as CharityReqMapper.mapToDto
+        this.websiteUrl = websiteUrl;
+        this.requestedTimeStamp = requestedTimeStamp;
+        this.status = status;
+    }
+}
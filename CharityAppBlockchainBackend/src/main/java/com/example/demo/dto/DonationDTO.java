@@ -1,11 +1,13 @@
 package com.example.demo.dto;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class DonationDTO {
     private String txHash;
     private String donorAddress;
@@ -19,4 +21,22 @@ public class DonationDTO {
     private Long blockNumber;
     private String message;
     private Boolean isAnonymous;
+
+    // JPQL constructor expression in DonationRepository, so list reads never hydrate Donation entities
+    public DonationDTO(String txHash, String donorAddress, Long charityId, String charityName, Long campaignId,
+                       String campaignTitle, String amount, BigDecimal amountInUSD, LocalDateTime timestamp,
+                       Long blockNumber, String message, Boolean isAnonymous) {
+        this.txHash = txHash;
+        this.donorAddress = donorAddress;
+        this.charityId = charityId;
+        this.charityName = charityName;
+        this.campaignId = campaignId;
+        this.campaignTitle = campaignTitle;
+        this.amount = amount;
+        this.amountInUSD = amountInUSD;
+        this.timestamp = timestamp;
+        this.blockNumber = blockNumber;
+        this.message = message;
+        this.isAnonymous = isAnonymous;
+    }
 }
@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.DonationImport;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Progress of a CSV donation import. Counts cover every run of the import; rowsPerSecond and errors only the
+ * latest run on this node.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationImportReportDto {
+    private String importId;
+    private DonationImport.Status status;
+    private long recordsRead;
+    private long imported;
+    private long duplicates;
+    private long rejected;
+    private long byteOffset;
+    private double rowsPerSecond;
+    // the first rejected records, as "record <n>: <reason>"
+    private List<String> errors;
+    private String lastError;
+}
@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonorSummaryDto {
+    private String donorAddress;
+    private BigDecimal totalAmount;
+    private BigDecimal totalAmountUSD;
+    private long donationCount;
+    private LocalDateTime firstDonationAt;
+    private LocalDateTime lastDonationAt;
+    private int charityCount;
+    private List<Long> charityIds;
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A Donation struct as stored by the CharityPlatform contract.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OnChainDonationDto {
+    private String donor;
+    // wei, as a decimal string
+    private String amount;
+    // unix seconds of the donating block
+    private long timestamp;
+    private long charityId;
+    // 0 for donations made directly to the charity
+    private long campaignId;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RankedCampaignDto {
+    private Long id;
+    private String title;
+    private String charityName;
+    private String walletAddress;
+    private double goalAmount;
+    // sum of the donations recorded against the campaign, in ETH
+    private double raisedAmount;
+    private int donorCount;
+    // decayed weight of recent donations, in ETH-equivalents as of now
+    private double trendingScore;
+}
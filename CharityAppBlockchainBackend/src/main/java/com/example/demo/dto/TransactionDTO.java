@@ -1,10 +1,14 @@
 package com.example.demo.dto;
 
+import com.example.demo.entity.TransactionMetadata;
+import com.example.demo.service.TransactionMetadataCodec;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class TransactionDTO {
     private String txHash;
     private String fromAddress;
@@ -17,4 +21,21 @@ public class TransactionDTO {
     private Long blockNumber;
     private LocalDateTime timestamp;
     private String metadata; // JSON string for additional data
+
+    // JPQL constructor expression in TransactionRepository, so list reads never hydrate Transaction entities
+    public TransactionDTO(String txHash, String fromAddress, String toAddress, String amount, String type,
+                          Long charityId, Long campaignId, String status, Long blockNumber, LocalDateTime timestamp,
+                          TransactionMetadata metadata, String legacyMetadata) {
+        this.txHash = txHash;
+        this.fromAddress = fromAddress;
+        this.toAddress = toAddress;
+        this.amount = amount;
+        this.type = type;
+        this.charityId = charityId;
+        this.campaignId = campaignId;
+        this.status = status;
+        this.blockNumber = blockNumber;
+        this.timestamp = timestamp;
+        this.metadata = legacyMetadata != null ? legacyMetadata : TransactionMetadataCodec.format(metadata);
+    }
 }
\ No newline at end of file
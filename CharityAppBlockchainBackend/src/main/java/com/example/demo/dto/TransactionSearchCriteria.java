@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of the transaction search; null fields are not filtered on.
+ */
+@Data
+public class TransactionSearchCriteria {
+    private String fromAddress;
+    private Long campaignId;
+    private String campaignTitle;
+    private String charityName;
+    private String clientVersion;
+    private Long minGasUsed;
+    private Long maxGasUsed;
+    private String type;
+    private String status;
+    private Boolean anonymous;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime since;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime until;
+
+    // at least one of these has to be set, so the search can start from an index
+    public boolean hasIndexedFilter() {
+        return fromAddress != null || campaignId != null || campaignTitle != null || charityName != null
+                || clientVersion != null || minGasUsed != null || maxGasUsed != null;
+    }
+}
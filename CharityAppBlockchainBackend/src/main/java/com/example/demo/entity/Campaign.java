@@ -5,9 +5,16 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "campaigns")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "campaigns",
+        indexes = @Index(name = "idx_campaigns_status_deadline", columnList = "status, deadline"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,4 +34,8 @@ public class Campaign {
     private String durationDays;
     private String status;
     private String charityName;
+
+    private LocalDateTime createdAt;
+    // createdAt + durationDays, the same deadline the contract enforces
+    private LocalDateTime deadline;
 }
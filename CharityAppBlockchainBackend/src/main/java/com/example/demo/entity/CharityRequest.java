@@ -6,11 +6,16 @@ import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "charity_requests")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "charity_requests",
+        indexes = @Index(name = "idx_charity_requests_status_submitted", columnList = "status, submitted_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,41 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One committed write to a cached entity, for other nodes to invalidate their caches. A null entityId stands
+ * for the whole entity type (bulk changes made outside Hibernate).
+ */
+@Entity
+@Table(name = "cluster_changes",
+        indexes = @Index(name = "idx_cluster_changes_created", columnList = "created_at_ms"))
+@Data
+@NoArgsConstructor
+public class ClusterChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false)
+    private String nodeId;
+
+    @Column(nullable = false, length = 64)
+    private String entity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Operation operation;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "created_at_ms", nullable = false)
+    private long createdAtMs;
+
+    public static enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A named lease; whichever node holds an unexpired lease is the leader for it.
+ */
+@Entity
+@Table(name = "cluster_leases")
+@Data
+@NoArgsConstructor
+public class ClusterLease {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private String owner;
+
+    // epoch millis on the owner's clock
+    @Column(name = "expires_at_ms", nullable = false)
+    private long expiresAtMs;
+}
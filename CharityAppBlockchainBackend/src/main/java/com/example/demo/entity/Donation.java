@@ -2,12 +2,23 @@ package com.example.demo.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "donations")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
+@Table(name = "donations",
+        indexes = {
+                @Index(name = "idx_donations_timestamp", columnList = "timestamp"),
+                @Index(name = "idx_donations_donor_activity", columnList = "donor_address, timestamp, id")
+        })
 @Data
 public class Donation {
 
@@ -15,6 +26,7 @@ public class Donation {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(unique = true, nullable = false)
     private String txHash;
 
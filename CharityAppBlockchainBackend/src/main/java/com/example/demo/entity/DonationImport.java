@@ -0,0 +1,59 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of a CSV donation import, updated in the same transaction as each batch of inserted rows. byteOffset
+ * is the end of the last committed record, so a rerun with the same id skips exactly what is already stored.
+ */
+@Entity
+@Table(name = "donation_imports")
+@Data
+@NoArgsConstructor
+public class DonationImport {
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    @Column(name = "byte_offset", nullable = false)
+    private long byteOffset;
+
+    // data records committed so far, header excluded
+    @Column(name = "records_read", nullable = false)
+    private long recordsRead;
+
+    @Column(nullable = false)
+    private long imported;
+
+    @Column(nullable = false)
+    private long duplicates;
+
+    @Column(nullable = false)
+    private long rejected;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // a second node resuming the same import fails on its first checkpoint instead of double-writing
+    @Version
+    private Long version;
+
+    public static enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Lifetime totals per donor wallet, kept up to date in the same transaction as each donation insert.
+ */
+@Entity
+@Table(name = "donor_summaries")
+@Data
+@NoArgsConstructor
+public class DonorSummary {
+
+    @Id
+    @Column(name = "donor_address")
+    private String donorAddress;
+
+    @Column(name = "total_amount", nullable = false, precision = 38, scale = 18)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "total_amount_usd", nullable = false, precision = 38, scale = 2)
+    private BigDecimal totalAmountUSD = BigDecimal.ZERO;
+
+    @Column(name = "donation_count", nullable = false)
+    private long donationCount;
+
+    @Column(name = "first_donation_at")
+    private LocalDateTime firstDonationAt;
+
+    @Column(name = "last_donation_at")
+    private LocalDateTime lastDonationAt;
+
+    @Column(name = "charity_count", nullable = false)
+    private int charityCount;
+
+    // distinct charity ids as a sorted array of 4-byte ints
+    @Lob
+    @Column(name = "charity_ids", length = 65535) // a MySQL BLOB; the default 255 bytes would hold only 63 ids
+    private byte[] charityIds;
+}
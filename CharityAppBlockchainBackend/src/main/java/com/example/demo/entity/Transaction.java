@@ -6,7 +6,15 @@ import lombok.Data;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions",
+        indexes = {
+                @Index(name = "idx_transactions_from_activity", columnList = "from_address, timestamp, id"),
+                @Index(name = "idx_transactions_campaign", columnList = "campaign_id, timestamp, id"),
+                @Index(name = "idx_transactions_meta_campaign_title", columnList = "meta_campaign_title, timestamp, id"),
+                @Index(name = "idx_transactions_meta_charity_name", columnList = "meta_charity_name, timestamp, id"),
+                @Index(name = "idx_transactions_meta_client_version", columnList = "meta_client_version, timestamp, id"),
+                @Index(name = "idx_transactions_meta_gas_used", columnList = "meta_gas_used")
+        })
 @Data
 public class Transaction {
     @Id
@@ -39,8 +47,12 @@ public class Transaction {
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
-    @Column(length = 2000)
-    private String metadata;
+    @Embedded
+    private TransactionMetadata metadata;
+
+    // the JSON string stored before metadata was split into columns; moved over at startup, then cleared
+    @Column(name = "metadata", length = 2000)
+    private String legacyMetadata;
 
     @Column(updatable = false)
     private LocalDateTime createdAt;
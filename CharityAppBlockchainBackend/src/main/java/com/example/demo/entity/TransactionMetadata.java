@@ -0,0 +1,42 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.Lob;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The client-supplied metadata of a transaction. Fields the frontend is known to send are stored as typed
+ * columns that searches can filter on; any other fields are kept as one CBOR-encoded object in extra.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+public class TransactionMetadata {
+
+    @Column(name = "meta_campaign_title")
+    private String campaignTitle;
+
+    @Column(name = "meta_charity_name")
+    private String charityName;
+
+    @Column(name = "meta_message", length = 1000)
+    private String message;
+
+    @Column(name = "meta_anonymous")
+    private Boolean anonymous;
+
+    @Column(name = "meta_error", length = 1000)
+    private String error;
+
+    @Column(name = "meta_gas_used")
+    private Long gasUsed;
+
+    @Column(name = "meta_client_version", length = 64)
+    private String clientVersion;
+
+    @Lob
+    @Column(name = "meta_extra", length = 65535)
+    private byte[] extra;
+}
@@ -7,7 +7,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "withdrawals")
+@Table(name = "withdrawals",
+        indexes = {
+                @Index(name = "idx_withdrawals_timestamp", columnList = "timestamp, id"),
+                @Index(name = "idx_withdrawals_to_activity", columnList = "to_address, timestamp, id")
+        })
 @Data
 public class Withdrawal {
     @Id
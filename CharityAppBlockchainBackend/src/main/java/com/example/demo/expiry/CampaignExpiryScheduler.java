@@ -0,0 +1,178 @@
+package com.example.demo.expiry;
+
+import com.example.demo.cluster.ClusterChangeLog;
+import com.example.demo.cluster.LeaderElection;
+import com.example.demo.entity.Campaign;
+import com.example.demo.entity.ClusterChange;
+import com.example.demo.repo.CampaignDeadlineView;
+import com.example.demo.repo.CampaignRepo;
+import com.example.demo.service.CampaignRankingService;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Flips ACTIVE campaigns to ENDED at their deadline, so the active set (and idx_campaigns_status_deadline)
+ * only holds live campaigns. Deadlines sit in a {@link HierarchicalTimerWheel} that is advanced every tick;
+ * whatever expired in that tick is ended with batched UPDATEs.
+ * <p>
+ * The wheel is in memory only and is rebuilt from the database on startup, which also ends campaigns whose
+ * deadline passed while the application was down. In a cluster only the leader ends campaigns, and a node
+ * rebuilds its wheel when it becomes leader, as the previous leader may have ended some of its entries.
+ * Campaigns saved on other nodes reach every wheel through the {@link ClusterChangeLog}.
+ */
+@Slf4j
+@Component
+public class CampaignExpiryScheduler {
+
+    public static final String ACTIVE = "ACTIVE";
+    public static final String ENDED = "ENDED";
+
+    private final CampaignRepo campaignRepo;
+    private final CampaignRankingService campaignRankingService;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaderElection leaderElection;
+    private final ClusterChangeLog clusterChangeLog;
+    private final long tickMillis;
+    private final int batchSize;
+    private HierarchicalTimerWheel<Long> wheel;
+
+    public CampaignExpiryScheduler(CampaignRepo campaignRepo,
+                                   CampaignRankingService campaignRankingService,
+                                   TransactionTemplate transactionTemplate,
+                                   LeaderElection leaderElection,
+                                   ClusterChangeLog clusterChangeLog,
+                                   @Value("${app.campaigns.expiry.tick-ms:1000}") long tickMillis,
+                                   @Value("${app.campaigns.expiry.batch-size:500}") int batchSize) {
+        this.campaignRepo = campaignRepo;
+        this.campaignRankingService = campaignRankingService;
+        this.transactionTemplate = transactionTemplate;
+        this.leaderElection = leaderElection;
+        this.clusterChangeLog = clusterChangeLog;
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+    }
+
+    @PostConstruct
+    void init() {
+        backfillDeadlines();
+        load();
+        leaderElection.onElected(this::load);
+        clusterChangeLog.subscribe(this::onRemoteChange);
+    }
+
+    // a campaign saved on a follower is only in that follower's wheel, which never fires
+    private void onRemoteChange(Class<?> entity, ClusterChange.Operation operation, List<Long> ids) {
+        if (entity != Campaign.class || operation == ClusterChange.Operation.DELETE) {
+            return;
+        }
+        if (ids.isEmpty()) {
+            load();
+            return;
+        }
+        List<CampaignDeadlineView> active = campaignRepo.findByIdInAndStatusAndDeadlineIsNotNull(ids, ACTIVE);
+        synchronized (this) {
+            for (CampaignDeadlineView campaign : active) {
+                wheel.schedule(campaign.getId(), toMillis(campaign.getDeadline()));
+            }
+        }
+    }
+
+    private void load() {
+        List<CampaignDeadlineView> active = campaignRepo.findByStatusAndDeadlineIsNotNull(ACTIVE);
+        HierarchicalTimerWheel<Long> loaded = new HierarchicalTimerWheel<>(tickMillis, System.currentTimeMillis());
+        for (CampaignDeadlineView campaign : active) {
+            loaded.schedule(campaign.getId(), toMillis(campaign.getDeadline()));
+        }
+        synchronized (this) {
+            wheel = loaded;
+        }
+        log.info("Scheduled expiry of {} active campaigns", active.size());
+    }
+
+    /**
+     * Sets createdAt and the deadline of a campaign about to be saved. A campaign without a usable
+     * durationDays gets no deadline and never expires.
+     */
+    public static void assignDeadline(Campaign campaign) {
+        if (campaign.getCreatedAt() == null) {
+            campaign.setCreatedAt(LocalDateTime.now());
+        }
+        Integer days = parseDays(campaign.getDurationDays());
+        campaign.setDeadline(days != null ? campaign.getCreatedAt().plusDays(days) : null);
+    }
+
+    public void schedule(Campaign campaign) {
+        if (campaign.getId() != null && campaign.getDeadline() != null && ACTIVE.equals(campaign.getStatus())) {
+            synchronized (this) {
+                wheel.schedule(campaign.getId(), toMillis(campaign.getDeadline()));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.campaigns.expiry.tick-ms:1000}")
+    public void tick() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        List<Long> expired;
+        synchronized (this) {
+            expired = wheel.advance(System.currentTimeMillis());
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        int ended = 0;
+        for (int from = 0; from < expired.size(); from += batchSize) {
+            List<Long> batch = expired.subList(from, Math.min(from + batchSize, expired.size()));
+            try {
+                ended += transactionTemplate.execute(status -> {
+                    clusterChangeLog.record(Campaign.class, ClusterChange.Operation.UPDATE, batch);
+                    return campaignRepo.updateStatusOfExpired(batch, ACTIVE, ENDED, LocalDateTime.now());
+                });
+                campaignRankingService.onCampaignsEnded(batch);
+            } catch (RuntimeException e) {
+                // try again on the next tick rather than leave them active until a restart
+                log.warn("Could not end {} expired campaigns: {}", batch.size(), e.getMessage());
+                synchronized (this) {
+                    batch.forEach(id -> wheel.schedule(id, System.currentTimeMillis()));
+                }
+            }
+        }
+        log.info("Ended {} of {} campaigns past their deadline", ended, expired.size());
+    }
+
+    // campaigns saved before the deadline column existed; their creation time is unknown, so it counts from now
+    private void backfillDeadlines() {
+        List<Campaign> missing = campaignRepo.findByStatusAndDeadlineIsNull(ACTIVE);
+        missing.forEach(CampaignExpiryScheduler::assignDeadline);
+        missing.removeIf(campaign -> campaign.getDeadline() == null);
+        if (!missing.isEmpty()) {
+            campaignRepo.saveAll(missing);
+            log.info("Backfilled deadlines of {} active campaigns", missing.size());
+        }
+    }
+
+    private static Integer parseDays(String durationDays) {
+        if (durationDays == null) {
+            return null;
+        }
+        try {
+            int days = Integer.parseInt(durationDays.trim());
+            return days > 0 ? days : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
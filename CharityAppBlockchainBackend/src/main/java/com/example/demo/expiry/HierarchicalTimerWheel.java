@@ -0,0 +1,100 @@
+package com.example.demo.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: LEVELS wheels of SLOTS slots, where a slot on level l spans SLOTS^l ticks.
+ * Scheduling is O(1); when the lower wheel wraps, the current slot of the next level up is cascaded down, so
+ * each timer is moved at most LEVELS - 1 times before it fires. Deadlines beyond the top wheel's span are
+ * parked in its furthest slot and re-placed when that slot is cascaded.
+ * <p>
+ * Timers never fire early: a deadline is rounded up to the next tick. Not thread-safe.
+ */
+public class HierarchicalTimerWheel<T> {
+
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    private final long tickMillis;
+    @SuppressWarnings("unchecked")
+    private final List<Timer<T>>[][] wheels = new List[LEVELS][SLOTS];
+    private final List<T> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimerWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public void schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        place(new Timer<>(item, deadlineTick));
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward to the given time and returns everything whose deadline has passed.
+     */
+    public List<T> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = 1; level < LEVELS && (currentTick & ((1L << (BITS * level)) - 1)) == 0; level++) {
+                cascade(level);
+            }
+            List<Timer<T>> slot = wheels[0][(int) (currentTick & MASK)];
+            if (slot != null) {
+                wheels[0][(int) (currentTick & MASK)] = null;
+                for (Timer<T> timer : slot) {
+                    expired.add(timer.item);
+                }
+            }
+        }
+        // scheduled in the past, or cascaded onto a tick that has already been reached
+        expired.addAll(due);
+        due.clear();
+        size -= expired.size();
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level) {
+        int index = (int) ((currentTick >>> (BITS * level)) & MASK);
+        List<Timer<T>> slot = wheels[level][index];
+        if (slot != null) {
+            wheels[level][index] = null;
+            slot.forEach(this::place);
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        if (delta <= 0) {
+            due.add(timer.item);
+            return;
+        }
+        long slotTick = delta < SPAN ? timer.deadlineTick : currentTick + SPAN - 1;
+        int level = 0;
+        while (slotTick - currentTick >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        int index = (int) ((slotTick >>> (BITS * level)) & MASK);
+        List<Timer<T>> slot = wheels[level][index];
+        if (slot == null) {
+            slot = wheels[level][index] = new ArrayList<>();
+        }
+        slot.add(timer);
+    }
+
+    private record Timer<T>(T item, long deadlineTick) {
+    }
+}
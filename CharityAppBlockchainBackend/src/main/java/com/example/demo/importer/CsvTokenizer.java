@@ -0,0 +1,296 @@
+package com.example.demo.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC 4180 CSV reader over raw UTF-8 bytes. Records are tokenized inside the read buffer: a field is
+ * an offset and a length, quoted fields are unescaped in place, and nothing is allocated until a field is
+ * asked for as a String. Numbers and timestamps are parsed straight from the bytes.
+ * <p>
+ * Byte offsets are absolute positions in the stream, so a reader can be positioned at a record boundary
+ * remembered from an earlier run with {@link #skipTo}.
+ */
+public final class CsvTokenizer {
+
+    private final InputStream in;
+    private final int maxRecordBytes;
+
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    private long bufferStart;
+    private boolean eof;
+
+    // scan state of the record being delimited, kept across refills
+    private int scanned;
+    private boolean scanInQuotes;
+
+    private int[] starts = new int[16];
+    private int[] lengths = new int[16];
+    private int fieldCount;
+    private long recordStart;
+    private long recordEnd;
+    private boolean malformed;
+
+    public CsvTokenizer(InputStream in, int bufferSize, int maxRecordBytes) {
+        this.in = in;
+        this.maxRecordBytes = maxRecordBytes;
+        this.buf = new byte[bufferSize];
+    }
+
+    /**
+     * Advances to the next non-blank record.
+     *
+     * @return false at the end of the stream
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            int end = findRecordEnd();
+            if (end < 0) {
+                return false;
+            }
+            recordStart = bufferStart + pos;
+            int next = end < limit ? end + 1 : end;
+            recordEnd = bufferStart + next;
+            int contentEnd = end > pos && buf[end - 1] == '\r' ? end - 1 : end;
+            boolean blank = contentEnd == pos;
+            if (!blank) {
+                tokenize(pos, contentEnd);
+            }
+            pos = next;
+            scanned = pos;
+            scanInQuotes = false;
+            if (!blank) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Discards input up to the absolute offset, which must be a record boundary at or after the current one.
+     */
+    public void skipTo(long offset) throws IOException {
+        while (bufferStart + limit < offset) {
+            bufferStart += limit;
+            pos = 0;
+            limit = 0;
+            scanned = 0;
+            int read = in.read(buf, 0, (int) Math.min(buf.length, offset - bufferStart));
+            if (read < 0) {
+                throw new IOException("Stream ends before offset " + offset);
+            }
+            limit = read;
+        }
+        pos = (int) Math.max(pos, offset - bufferStart);
+        scanned = pos;
+        scanInQuotes = false;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * True when quotes in the current record were unbalanced or followed by stray characters.
+     */
+    public boolean isMalformed() {
+        return malformed;
+    }
+
+    /**
+     * Absolute offset just past the current record, including its line break.
+     */
+    public long recordEnd() {
+        return recordEnd;
+    }
+
+    public long recordStart() {
+        return recordStart;
+    }
+
+    public boolean isEmpty(int field) {
+        return field >= fieldCount || lengths[field] == 0;
+    }
+
+    /**
+     * @return the field decoded as UTF-8, or null when it is empty or missing
+     */
+    public String string(int field) {
+        return isEmpty(field) ? null : new String(buf, starts[field], lengths[field], StandardCharsets.UTF_8);
+    }
+
+    public boolean equalsAscii(int field, String value) {
+        if (field >= fieldCount || lengths[field] != value.length()) {
+            return false;
+        }
+        int start = starts[field];
+        for (int i = 0; i < value.length(); i++) {
+            if (buf[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long parseLong(int field) {
+        if (isEmpty(field)) {
+            throw new NumberFormatException("empty");
+        }
+        int start = starts[field];
+        int end = start + lengths[field];
+        boolean negative = buf[start] == '-';
+        int i = negative ? start + 1 : start;
+        if (i == end || end - i > 18) {
+            return Long.parseLong(new String(buf, start, end - start, StandardCharsets.US_ASCII));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("not a number: " + string(field));
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses "yyyy-MM-dd HH:mm:ss" (as written by the donation export) or the same with a 'T' separator without
+     * allocating; anything else goes through {@link LocalDateTime#parse}.
+     */
+    public LocalDateTime parseDateTime(int field) {
+        if (isEmpty(field)) {
+            throw new IllegalArgumentException("empty timestamp");
+        }
+        int s = starts[field];
+        if (lengths[field] == 19 && buf[s + 4] == '-' && buf[s + 7] == '-' && (buf[s + 10] == ' ' || buf[s + 10] == 'T')
+                && buf[s + 13] == ':' && buf[s + 16] == ':') {
+            return LocalDateTime.of(digits(s, 4), digits(s + 5, 2), digits(s + 8, 2),
+                    digits(s + 11, 2), digits(s + 14, 2), digits(s + 17, 2));
+        }
+        return LocalDateTime.parse(string(field));
+    }
+
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buf[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("not a timestamp");
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // index of the line feed ending the record at pos, or limit for a last record without one; -1 at the end
+    private int findRecordEnd() throws IOException {
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                byte b = buf[i];
+                if (b == '"') {
+                    scanInQuotes = !scanInQuotes;
+                } else if (b == '\n' && !scanInQuotes) {
+                    return i;
+                }
+            }
+            scanned = limit;
+            if (eof || !fill()) {
+                return pos < limit ? limit : -1;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, limit - pos);
+            bufferStart += pos;
+            limit -= pos;
+            scanned -= pos;
+            pos = 0;
+        }
+        if (limit == buf.length) {
+            if (buf.length >= maxRecordBytes) {
+                throw new IOException("Record at offset " + bufferStart + " is longer than " + maxRecordBytes + " bytes");
+            }
+            buf = Arrays.copyOf(buf, Math.min(buf.length * 2, maxRecordBytes));
+        }
+        int read = in.read(buf, limit, buf.length - limit);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private void tokenize(int from, int to) {
+        fieldCount = 0;
+        malformed = false;
+        int i = from;
+        while (true) {
+            if (fieldCount == starts.length) {
+                starts = Arrays.copyOf(starts, fieldCount * 2);
+                lengths = Arrays.copyOf(lengths, fieldCount * 2);
+            }
+            if (i < to && buf[i] == '"') {
+                // unescape "" in place: the write position never passes the read position
+                int start = i + 1;
+                int write = start;
+                int read = start;
+                boolean closed = false;
+                while (read < to) {
+                    byte b = buf[read++];
+                    if (b == '"') {
+                        if (read < to && buf[read] == '"') {
+                            buf[write++] = '"';
+                            read++;
+                        } else {
+                            closed = true;
+                            break;
+                        }
+                    } else {
+                        buf[write++] = b;
+                    }
+                }
+                starts[fieldCount] = start;
+                lengths[fieldCount] = write - start;
+                fieldCount++;
+                if (!closed || (read < to && buf[read] != ',')) {
+                    malformed = true;
+                    while (read < to && buf[read] != ',') {
+                        read++;
+                    }
+                }
+                i = read;
+            } else {
+                int start = i;
+                while (i < to && buf[i] != ',') {
+                    i++;
+                }
+                starts[fieldCount] = start;
+                lengths[fieldCount] = i - start;
+                fieldCount++;
+            }
+            if (i >= to) {
+                return;
+            }
+            i++; // the comma
+            if (i == to) {
+                // trailing comma: one more, empty field
+                if (fieldCount == starts.length) {
+                    starts = Arrays.copyOf(starts, fieldCount * 2);
+                    lengths = Arrays.copyOf(lengths, fieldCount * 2);
+                }
+                starts[fieldCount] = to;
+                lengths[fieldCount] = 0;
+                fieldCount++;
+                return;
+            }
+        }
+    }
+}
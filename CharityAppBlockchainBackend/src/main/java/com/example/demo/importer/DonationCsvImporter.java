@@ -0,0 +1,676 @@
+package com.example.demo.importer;
+
+import com.example.demo.archive.ColdStorage;
+import com.example.demo.archive.SegmentSchema;
+import com.example.demo.cluster.ClusterChangeLog;
+import com.example.demo.dto.DonationImportReportDto;
+import com.example.demo.entity.ClusterChange;
+import com.example.demo.entity.Donation;
+import com.example.demo.entity.DonationImport;
+import com.example.demo.journal.EventJournal;
+import com.example.demo.repo.DonationImportRepository;
+import com.example.demo.service.DonorSummaryService;
+import com.example.demo.service.EthUsdPriceService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of historical donations from CSV in the layout of the donation export. Rows go through three
+ * stages connected by small bounded queues, so reading, checking and writing overlap:
+ * <ol>
+ *     <li>parse, on the calling thread: {@link CsvTokenizer} over the request body, batch-size records at a time</li>
+ *     <li>validate: formats, charity and campaign names resolved to ids, USD value at the donation's time</li>
+ *     <li>write: rows whose txHash is already stored (or archived) are skipped, the rest inserted with one JDBC
+ *     batch, in the same transaction as donor summaries, the cluster change log and the import's checkpoint</li>
+ * </ol>
+ * The checkpoint holds the byte offset after the last committed record; running the same import id again
+ * with the same file skips to it, so an import that failed part way resumes where it stopped. Rejected
+ * records are counted and reported, not retried.
+ * <p>
+ * Columns are found by header name. Date, Transaction Hash, Charity and Amount (ETH) are required; Campaign,
+ * Block Number and Message are optional, as are Donor Address and Charity Id, which the export does not
+ * write. Without a Donor Address column every row belongs to the donor passed with the request.
+ */
+@Slf4j
+@Service
+public class DonationCsvImporter {
+
+    private static final Pattern IMPORT_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    private static final Pattern ADDRESS = Pattern.compile("0x[0-9a-fA-F]{40}");
+    private static final Pattern TX_HASH = Pattern.compile("0x[0-9a-fA-F]{64}");
+    private static final String DIRECT_DONATION = "Direct Donation";
+    private static final int MAX_MESSAGE_LENGTH = 1000;
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int ARCHIVE_LOOKUP_CACHE = 1024;
+
+    private static final String INSERT = "INSERT INTO donations (tx_hash, donor_address, charity_id, charity_name, "
+            + "campaign_id, campaign_title, amount, amount_inusd, timestamp, block_number, message, is_anonymous, "
+            + "created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DonationImportRepository importRepository;
+    private final EthUsdPriceService ethUsdPriceService;
+    private final DonorSummaryService donorSummaryService;
+    private final EventJournal eventJournal;
+    private final ClusterChangeLog clusterChangeLog;
+    private final ColdStorage coldStorage;
+    private final EntityManagerFactory entityManagerFactory;
+    private final int batchSize;
+    private final int queueDepth;
+    private final int bufferBytes;
+    private final int maxRecordBytes;
+    private final long progressIntervalMillis;
+
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    public DonationCsvImporter(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               DonationImportRepository importRepository,
+                               EthUsdPriceService ethUsdPriceService,
+                               DonorSummaryService donorSummaryService,
+                               EventJournal eventJournal,
+                               ClusterChangeLog clusterChangeLog,
+                               ColdStorage coldStorage,
+                               EntityManagerFactory entityManagerFactory,
+                               @Value("${app.donations.import.batch-size:1000}") int batchSize,
+                               @Value("${app.donations.import.queue-depth:4}") int queueDepth,
+                               @Value("${app.donations.import.buffer-kb:64}") int bufferKb,
+                               @Value("${app.donations.import.max-record-kb:1024}") int maxRecordKb,
+                               @Value("${app.donations.import.progress-interval-ms:5000}") long progressIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.importRepository = importRepository;
+        this.ethUsdPriceService = ethUsdPriceService;
+        this.donorSummaryService = donorSummaryService;
+        this.eventJournal = eventJournal;
+        this.clusterChangeLog = clusterChangeLog;
+        this.coldStorage = coldStorage;
+        this.entityManagerFactory = entityManagerFactory;
+        this.batchSize = batchSize;
+        this.queueDepth = queueDepth;
+        this.bufferBytes = bufferKb * 1024;
+        this.maxRecordBytes = maxRecordKb * 1024;
+        this.progressIntervalMillis = progressIntervalMillis;
+    }
+
+    public DonationImportReportDto getReport(String importId) {
+        DonationImport checkpoint = importRepository.findById(importId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No import " + importId));
+        return report(checkpoint, 0, List.of());
+    }
+
+    /**
+     * Imports the CSV, or the part of it after the checkpoint of an earlier run with the same id. Returns once
+     * every record has been committed or the import failed; the body must be the same file on every run.
+     */
+    public DonationImportReportDto importCsv(String importId, String defaultDonor, InputStream in) throws IOException {
+        if (importId == null || !IMPORT_ID.matcher(importId).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "importId must be 1-64 of A-Z a-z 0-9 . _ -");
+        }
+        if (defaultDonor != null && !ADDRESS.matcher(defaultDonor).matches()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "donorAddress is not an address: " + defaultDonor);
+        }
+        if (!running.add(importId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import " + importId + " is already running");
+        }
+        try {
+            return run(importId, defaultDonor, in);
+        } finally {
+            running.remove(importId);
+        }
+    }
+
+    private DonationImportReportDto run(String importId, String defaultDonor, InputStream in) throws IOException {
+        DonationImport checkpoint = transactionTemplate.execute(status -> {
+            DonationImport existing = importRepository.findById(importId).orElseGet(() -> {
+                DonationImport created = new DonationImport();
+                created.setId(importId);
+                created.setStartedAt(LocalDateTime.now());
+                return created;
+            });
+            if (existing.getStatus() != DonationImport.Status.COMPLETED) {
+                existing.setStatus(DonationImport.Status.RUNNING);
+                existing.setLastError(null);
+                existing.setUpdatedAt(LocalDateTime.now());
+            }
+            return importRepository.save(existing);
+        });
+        if (checkpoint.getStatus() == DonationImport.Status.COMPLETED) {
+            return report(checkpoint, 0, List.of());
+        }
+
+        CsvTokenizer csv = new CsvTokenizer(in, bufferBytes, maxRecordBytes);
+        if (!csv.next()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Empty file");
+        }
+        Columns columns = Columns.of(csv);
+        if (columns.donor < 0 && defaultDonor == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "The file has no Donor Address column, pass donorAddress");
+        }
+        if (checkpoint.getByteOffset() > csv.recordEnd()) {
+            csv.skipTo(checkpoint.getByteOffset());
+            log.info("Resuming import {} at byte {} after {} records", importId, checkpoint.getByteOffset(),
+                    checkpoint.getRecordsRead());
+        }
+
+        Run run = new Run(importId, checkpoint);
+        BlockingQueue<List<ParsedRow>> parsed = new ArrayBlockingQueue<>(queueDepth);
+        BlockingQueue<ValidBatch> validated = new ArrayBlockingQueue<>(queueDepth);
+        Lookups lookups = loadLookups();
+        CompletableFuture<Void> validator = stage("validate", run, () -> validateStage(run, parsed, validated, lookups));
+        CompletableFuture<Void> writer = stage("write", run, () -> writeStage(run, validated));
+
+        IOException readFailure = null;
+        try {
+            parseStage(run, csv, columns, defaultDonor, parsed);
+        } catch (IOException e) {
+            // the records read so far still go through, so the rerun resumes as late as possible
+            readFailure = e;
+        } catch (RuntimeException e) {
+            run.fail(e);
+        }
+        CompletableFuture.allOf(validator, writer).exceptionally(e -> null).join();
+        if (readFailure != null) {
+            run.fail(readFailure);
+        }
+
+        DonationImport finished = transactionTemplate.execute(status -> {
+            DonationImport current = importRepository.findById(importId).orElseThrow();
+            current.setStatus(run.failure.get() == null ? DonationImport.Status.COMPLETED : DonationImport.Status.FAILED);
+            if (run.failure.get() != null) {
+                current.setLastError(truncate(String.valueOf(run.failure.get().getMessage()), 1000));
+            }
+            current.setUpdatedAt(LocalDateTime.now());
+            return current;
+        });
+        double seconds = Math.max(1e-3, (System.nanoTime() - run.startNanos) / 1e9);
+        DonationImportReportDto report = report(finished, run.recordsThisRun / seconds, run.errors);
+        if (run.failure.get() != null) {
+            log.warn("Import {} failed after {} records: {}", importId, finished.getRecordsRead(), report.getLastError());
+        } else {
+            log.info("Import {} completed: {} records, {} imported, {} duplicates, {} rejected, {} rows/s", importId,
+                    finished.getRecordsRead(), finished.getImported(), finished.getDuplicates(), finished.getRejected(),
+                    Math.round(report.getRowsPerSecond()));
+        }
+        return report;
+    }
+
+    private void parseStage(Run run, CsvTokenizer csv, Columns columns, String defaultDonor,
+                            BlockingQueue<List<ParsedRow>> out) throws IOException {
+        long record = run.checkpoint.getRecordsRead();
+        List<ParsedRow> batch = new ArrayList<>(batchSize);
+        try {
+            while (run.failure.get() == null && csv.next()) {
+                batch.add(parse(csv, columns, defaultDonor, ++record));
+                if (batch.size() == batchSize) {
+                    if (!put(run, out, batch)) {
+                        return;
+                    }
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } finally {
+            // also on a read error: every row in the batch is a whole record
+            if (batch.isEmpty() || put(run, out, batch)) {
+                put(run, out, List.of());
+            }
+        }
+    }
+
+    private static ParsedRow parse(CsvTokenizer csv, Columns columns, String defaultDonor, long record) {
+        ParsedRow row = new ParsedRow();
+        row.record = record;
+        row.endOffset = csv.recordEnd();
+        if (csv.isMalformed()) {
+            row.error = "unbalanced quotes";
+            return row;
+        }
+        try {
+            row.timestamp = csv.parseDateTime(columns.date);
+        } catch (RuntimeException e) {
+            row.error = "invalid date " + csv.string(columns.date);
+            return row;
+        }
+        try {
+            row.blockNumber = columns.block >= 0 && !csv.isEmpty(columns.block) ? csv.parseLong(columns.block) : null;
+            row.charityId = columns.charityId >= 0 && !csv.isEmpty(columns.charityId) ? csv.parseLong(columns.charityId) : null;
+        } catch (NumberFormatException e) {
+            row.error = "invalid number: " + e.getMessage();
+            return row;
+        }
+        row.txHash = csv.string(columns.txHash);
+        row.donor = columns.donor >= 0 ? csv.string(columns.donor) : defaultDonor;
+        row.charityName = csv.string(columns.charity);
+        row.campaignTitle = columns.campaign >= 0 && !csv.equalsAscii(columns.campaign, DIRECT_DONATION)
+                ? csv.string(columns.campaign) : null;
+        row.amount = csv.string(columns.amount);
+        row.message = columns.message >= 0 ? csv.string(columns.message) : null;
+        return row;
+    }
+
+    private void validateStage(Run run, BlockingQueue<List<ParsedRow>> in, BlockingQueue<ValidBatch> out,
+                               Lookups lookups) throws InterruptedException {
+        while (true) {
+            List<ParsedRow> rows = take(run, in);
+            if (rows == null) {
+                return;
+            }
+            if (rows.isEmpty()) {
+                put(run, out, ValidBatch.END);
+                return;
+            }
+            ValidBatch batch = new ValidBatch(rows.size());
+            Set<String> batchHashes = new HashSet<>();
+            for (ParsedRow row : rows) {
+                String error = row.error != null ? row.error : validate(row, lookups);
+                if (error == null && !batchHashes.add(row.txHash.toLowerCase())) {
+                    batch.duplicates++;
+                    continue;
+                }
+                if (error != null) {
+                    batch.rejected++;
+                    batch.errors.add("record " + row.record + ": " + error);
+                    continue;
+                }
+                batch.donations.add(toDonation(row));
+            }
+            ParsedRow last = rows.get(rows.size() - 1);
+            batch.records = rows.size();
+            batch.endOffset = last.endOffset;
+            if (!put(run, out, batch)) {
+                return;
+            }
+        }
+    }
+
+    private String validate(ParsedRow row, Lookups lookups) {
+        if (row.txHash == null || !TX_HASH.matcher(row.txHash).matches()) {
+            return "invalid transaction hash " + row.txHash;
+        }
+        if (row.donor == null || !ADDRESS.matcher(row.donor).matches()) {
+            return "invalid donor address " + row.donor;
+        }
+        if (row.amount == null) {
+            return "missing amount";
+        }
+        try {
+            if (new BigDecimal(row.amount).signum() <= 0) {
+                return "amount must be positive";
+            }
+        } catch (NumberFormatException e) {
+            return "invalid amount " + row.amount;
+        }
+        if (row.message != null && row.message.length() > MAX_MESSAGE_LENGTH) {
+            return "message longer than " + MAX_MESSAGE_LENGTH + " characters";
+        }
+        if (row.charityId == null) {
+            row.charityId = row.charityName != null ? lookups.charityIds.get(row.charityName) : null;
+            if (row.charityId == null) {
+                return "unknown charity " + row.charityName;
+            }
+        }
+        if (row.campaignTitle != null && row.charityName != null) {
+            // campaigns no longer on the platform keep their title without an id
+            row.campaignId = lookups.campaignIds.get(campaignKey(row.charityName, row.campaignTitle));
+        }
+        return null;
+    }
+
+    private Donation toDonation(ParsedRow row) {
+        Donation donation = new Donation();
+        donation.setTxHash(row.txHash);
+        donation.setDonorAddress(row.donor);
+        donation.setCharityId(row.charityId);
+        donation.setCharityName(row.charityName);
+        donation.setCampaignId(row.campaignId);
+        donation.setCampaignTitle(row.campaignTitle);
+        donation.setAmount(row.amount);
+        donation.setAmountInUSD(ethUsdPriceService.usdValue(row.amount, row.timestamp));
+        donation.setTimestamp(row.timestamp);
+        donation.setBlockNumber(row.blockNumber);
+        donation.setMessage(row.message);
+        donation.setIsAnonymous(false);
+        return donation;
+    }
+
+    private void writeStage(Run run, BlockingQueue<ValidBatch> in) throws InterruptedException {
+        Map<String, Set<String>> archivedByDonor = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Set<String>> eldest) {
+                return size() > ARCHIVE_LOOKUP_CACHE;
+            }
+        };
+        long lastProgress = System.nanoTime();
+        while (true) {
+            ValidBatch batch = take(run, in);
+            if (batch == null || batch == ValidBatch.END) {
+                return;
+            }
+            try {
+                write(run, batch, archivedByDonor);
+            } catch (DuplicateKeyException e) {
+                // a donation posted while this batch was being written; the retry sees it as stored
+                batch.donations.forEach(d -> d.setId(null));
+                write(run, batch, archivedByDonor);
+            }
+            run.recordsThisRun += batch.records;
+            for (String error : batch.errors) {
+                if (run.errors.size() < MAX_REPORTED_ERRORS) {
+                    run.errors.add(error);
+                }
+            }
+            if (System.nanoTime() - lastProgress >= TimeUnit.MILLISECONDS.toNanos(progressIntervalMillis)) {
+                lastProgress = System.nanoTime();
+                double seconds = (lastProgress - run.startNanos) / 1e9;
+                log.info("Import {}: {} records read, {} rows/s", run.importId, run.totalRecords(),
+                        Math.round(run.recordsThisRun / seconds));
+            }
+        }
+    }
+
+    private void write(Run run, ValidBatch batch, Map<String, Set<String>> archivedByDonor) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> stored = storedTxHashes(batch.donations, archivedByDonor);
+            List<Donation> fresh = batch.donations.stream()
+                    .filter(d -> !stored.contains(d.getTxHash().toLowerCase()))
+                    .collect(Collectors.toList());
+            if (!fresh.isEmpty()) {
+                insert(fresh);
+                donorSummaryService.apply(fresh);
+                eventJournal.appendAfterCommit(SegmentSchema.DONATIONS, fresh);
+                clusterChangeLog.record(Donation.class, ClusterChange.Operation.INSERT,
+                        fresh.stream().map(Donation::getId).toList());
+            }
+            DonationImport checkpoint = importRepository.findById(run.importId).orElseThrow();
+            checkpoint.setByteOffset(batch.endOffset);
+            checkpoint.setRecordsRead(checkpoint.getRecordsRead() + batch.records);
+            checkpoint.setImported(checkpoint.getImported() + fresh.size());
+            checkpoint.setDuplicates(checkpoint.getDuplicates() + batch.duplicates + batch.donations.size() - fresh.size());
+            checkpoint.setRejected(checkpoint.getRejected() + batch.rejected);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+        });
+        // rows were inserted behind Hibernate's back, so cached donation queries may now be incomplete
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache().evictQueryRegions();
+    }
+
+    // lower-cased txHashes of the batch that are in the donations table or in an archive segment
+    private Set<String> storedTxHashes(List<Donation> donations, Map<String, Set<String>> archivedByDonor) {
+        Set<String> stored = new HashSet<>();
+        if (donations.isEmpty()) {
+            return stored;
+        }
+        String placeholders = String.join(",", Collections.nCopies(donations.size(), "?"));
+        Object[] hashes = donations.stream().map(Donation::getTxHash).toArray();
+        for (String hash : jdbcTemplate.queryForList(
+                "SELECT tx_hash FROM donations WHERE tx_hash IN (" + placeholders + ")", String.class, hashes)) {
+            stored.add(hash.toLowerCase());
+        }
+        if (!coldStorage.isEmpty()) {
+            for (Donation donation : donations) {
+                Set<String> archived = archivedByDonor.computeIfAbsent(donation.getDonorAddress(), donor ->
+                        coldStorage.findDonationsByDonor(donor).stream()
+                                .map(d -> d.getTxHash().toLowerCase())
+                                .collect(Collectors.toSet()));
+                if (archived.contains(donation.getTxHash().toLowerCase())) {
+                    stored.add(donation.getTxHash().toLowerCase());
+                }
+            }
+        }
+        return stored;
+    }
+
+    private void insert(List<Donation> donations) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(INSERT, new String[]{"id"})) {
+                for (Donation d : donations) {
+                    d.setCreatedAt(now);
+                    insert.setString(1, d.getTxHash());
+                    insert.setString(2, d.getDonorAddress());
+                    insert.setLong(3, d.getCharityId());
+                    insert.setString(4, d.getCharityName());
+                    setLong(insert, 5, d.getCampaignId());
+                    insert.setString(6, d.getCampaignTitle());
+                    insert.setString(7, d.getAmount());
+                    insert.setBigDecimal(8, d.getAmountInUSD());
+                    insert.setTimestamp(9, Timestamp.valueOf(d.getTimestamp()));
+                    setLong(insert, 10, d.getBlockNumber());
+                    insert.setString(11, d.getMessage());
+                    insert.setBoolean(12, d.getIsAnonymous());
+                    insert.setTimestamp(13, Timestamp.valueOf(now));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    for (Donation d : donations) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Driver returned fewer generated ids than rows inserted");
+                        }
+                        d.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static void setLong(PreparedStatement statement, int index, Long value) throws java.sql.SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    // charity names resolve to the approved charity first, then the oldest one
+    private Lookups loadLookups() {
+        Lookups lookups = new Lookups();
+        jdbcTemplate.query("SELECT id, charity_name FROM charity_requests "
+                        + "ORDER BY CASE WHEN status = 'APPROVED' THEN 0 ELSE 1 END, id",
+                rs -> {
+                    lookups.charityIds.putIfAbsent(rs.getString(2), rs.getLong(1));
+                });
+        jdbcTemplate.query("SELECT id, charity_name, title FROM campaigns ORDER BY id", rs -> {
+            if (rs.getString(2) != null && rs.getString(3) != null) {
+                lookups.campaignIds.putIfAbsent(campaignKey(rs.getString(2), rs.getString(3)), rs.getLong(1));
+            }
+        });
+        return lookups;
+    }
+
+    private static String campaignKey(String charityName, String title) {
+        return charityName + '\u0000' + title;
+    }
+
+    private static CompletableFuture<Void> stage(String name, Run run, Stage body) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+                done.complete(null);
+            } catch (Throwable e) {
+                run.fail(e);
+                done.completeExceptionally(e);
+            }
+        }, "donation-import-" + name + "-" + run.importId);
+        thread.start();
+        return done;
+    }
+
+    // false once the import has failed, so a stage blocked on a full queue gives up instead of hanging
+    private static <T> boolean put(Run run, BlockingQueue<T> queue, T item) {
+        try {
+            while (run.failure.get() == null) {
+                if (queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.fail(e);
+            return false;
+        }
+    }
+
+    private static <T> T take(Run run, BlockingQueue<T> queue) throws InterruptedException {
+        while (run.failure.get() == null) {
+            T item = queue.poll(100, TimeUnit.MILLISECONDS);
+            if (item != null) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private static DonationImportReportDto report(DonationImport checkpoint, double rowsPerSecond, List<String> errors) {
+        return new DonationImportReportDto(checkpoint.getId(), checkpoint.getStatus(), checkpoint.getRecordsRead(),
+                checkpoint.getImported(), checkpoint.getDuplicates(), checkpoint.getRejected(),
+                checkpoint.getByteOffset(), rowsPerSecond, List.copyOf(errors), checkpoint.getLastError());
+    }
+
+    private static String truncate(String value, int length) {
+        return value.length() <= length ? value : value.substring(0, length);
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    private static final class Run {
+        final String importId;
+        final DonationImport checkpoint;
+        final long startNanos = System.nanoTime();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        // only touched by the write stage until the run is over
+        final List<String> errors = new ArrayList<>();
+        long recordsThisRun;
+
+        Run(String importId, DonationImport checkpoint) {
+            this.importId = importId;
+            this.checkpoint = checkpoint;
+        }
+
+        void fail(Throwable e) {
+            failure.compareAndSet(null, e);
+        }
+
+        long totalRecords() {
+            return checkpoint.getRecordsRead() + recordsThisRun;
+        }
+    }
+
+    private static final class Columns {
+        int date = -1;
+        int txHash = -1;
+        int charity = -1;
+        int campaign = -1;
+        int amount = -1;
+        int block = -1;
+        int message = -1;
+        int donor = -1;
+        int charityId = -1;
+
+        static Columns of(CsvTokenizer header) {
+            Columns columns = new Columns();
+            for (int i = 0; i < header.fieldCount(); i++) {
+                String name = header.string(i);
+                if (name == null) {
+                    continue;
+                }
+                // a BOM written by spreadsheet tools
+                switch (name.replace("\uFEFF", "").trim()) {
+                    case "Date" -> columns.date = i;
+                    case "Transaction Hash" -> columns.txHash = i;
+                    case "Charity" -> columns.charity = i;
+                    case "Campaign" -> columns.campaign = i;
+                    case "Amount (ETH)" -> columns.amount = i;
+                    case "Block Number" -> columns.block = i;
+                    case "Message" -> columns.message = i;
+                    case "Donor Address" -> columns.donor = i;
+                    case "Charity Id" -> columns.charityId = i;
+                    default -> {
+                    }
+                }
+            }
+            if (columns.date < 0 || columns.txHash < 0 || columns.amount < 0 || (columns.charity < 0 && columns.charityId < 0)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Header needs Date, Transaction Hash, Amount (ETH) and Charity or Charity Id");
+            }
+            return columns;
+        }
+    }
+
+    private static final class ParsedRow {
+        long record;
+        long endOffset;
+        String error;
+        LocalDateTime timestamp;
+        Long blockNumber;
+        Long charityId;
+        Long campaignId;
+        String txHash;
+        String donor;
+        String charityName;
+        String campaignTitle;
+        String amount;
+        String message;
+    }
+
+    private static final class ValidBatch {
+        static final ValidBatch END = new ValidBatch(0);
+
+        final List<Donation> donations;
+        final List<String> errors = new ArrayList<>();
+        int records;
+        int duplicates;
+        int rejected;
+        long endOffset;
+
+        ValidBatch(int capacity) {
+            this.donations = new ArrayList<>(capacity);
+        }
+    }
+
+    private static final class Lookups {
+        final Map<String, Long> charityIds = new HashMap<>();
+        final Map<String, Long> campaignIds = new HashMap<>();
+    }
+}
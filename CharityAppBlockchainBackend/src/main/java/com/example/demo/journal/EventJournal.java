@@ -0,0 +1,417 @@
+package com.example.demo.journal;
+
+import com.example.demo.archive.SegmentSchema;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of committed donations, transactions and withdrawals, kept in fixed-size memory-mapped
+ * files journal-NNNNNNNN.log under app.journal.dir. Each record is
+ * <pre>
+ * int length, int CRC32C of the payload, payload = byte schema id + the entity's columns
+ * </pre>
+ * (strings as int length, -1 for null, plus UTF-8; longs as a presence byte plus 8 bytes). A zero length marks
+ * the end of a file. On startup the last file is scanned and anything after the first record whose checksum
+ * does not match (a torn write) is zeroed.
+ * <p>
+ * Records are appended after the writing transaction commits, so the journal never holds rolled-back rows; a
+ * crash between commit and append, or an append that fails, loses that record from the journal, not from the
+ * database. A failed append is logged and never reaches the caller, whose write has already committed.
+ * <p>
+ * Records are copied in under the append lock, but the fsync happens outside it: a writer whose records an
+ * fsync already in flight has covered returns right away, and the next one flushes everything appended in the
+ * meantime, so concurrent commits share one msync instead of queueing for their own.
+ * <p>
+ * In-memory views subscribe to appended events and rebuild themselves with {@link #replayAndSubscribe}, or load
+ * from the database and {@link #subscribe} to what comes after. With the journal disabled, subscribers still
+ * receive committed events, but there is nothing to replay.
+ */
+@Slf4j
+@Component
+public class EventJournal {
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER = 8;
+
+    private final Path directory;
+    private final boolean enabled;
+    private final int fileSize;
+    private final boolean fsync;
+
+    private final List<Path> files = new ArrayList<>();
+    private final List<Consumer<JournalEvent>> subscribers = new CopyOnWriteArrayList<>();
+    private MappedByteBuffer current;
+    private int writePosition;
+
+    private final Object syncLock = new Object();
+    private long syncedUpTo; // guarded by syncLock, file index in the high word and position in the low word
+
+    public EventJournal(@Value("${app.journal.dir:journal}") String directory,
+                        @Value("${app.journal.enabled:true}") boolean enabled,
+                        @Value("${app.journal.file-size-mb:64}") int fileSizeMb,
+                        @Value("${app.journal.fsync:true}") boolean fsync) {
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.enabled = enabled;
+        this.fileSize = fileSizeMb * 1024 * 1024;
+        this.fsync = fsync;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> existing = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            existing.forEach(files::add);
+        }
+        files.sort(null);
+        if (files.isEmpty()) {
+            roll();
+            return;
+        }
+        current = map(files.get(files.size() - 1), FileChannel.MapMode.READ_WRITE);
+        writePosition = recover(current);
+        log.info("Opened event journal at {} ({} files, {} bytes in the last)", directory, files.size(), writePosition);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized boolean isEmpty() {
+        return files.size() <= 1 && writePosition == 0;
+    }
+
+    /**
+     * Appends once the surrounding transaction has committed, or right away when there is none.
+     */
+    public <T> void appendAfterCommit(SegmentSchema<T> schema, List<T> entities) {
+        if (entities.isEmpty() || (!enabled && subscribers.isEmpty())) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishCommitted(schema, entities);
+                }
+            });
+        } else {
+            publishCommitted(schema, entities);
+        }
+    }
+
+    // the rows are already committed, so a journal failure must not turn the caller's write into an error
+    private <T> void publishCommitted(SegmentSchema<T> schema, List<T> entities) {
+        try {
+            publish(schema, entities);
+        } catch (RuntimeException e) {
+            log.error("Could not journal {} committed rows of {}", entities.size(), schema.getName(), e);
+        }
+    }
+
+    /**
+     * Replays the journal into the subscriber, then keeps delivering newly appended events. The handover
+     * happens under the append lock, so no event is missed or delivered twice; replayed and live events may
+     * interleave, so the subscriber must be thread-safe and not depend on order.
+     */
+    public long replayAndSubscribe(Consumer<JournalEvent> subscriber) {
+        List<Path> snapshot;
+        int end;
+        synchronized (this) {
+            subscribers.add(subscriber);
+            if (!enabled) {
+                return 0;
+            }
+            snapshot = List.copyOf(files);
+            end = writePosition;
+        }
+        return read(snapshot, end, subscriber);
+    }
+
+    /**
+     * Delivers events appended from now on, without replaying what the journal already holds.
+     */
+    public void subscribe(Consumer<JournalEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    private <T> void publish(SegmentSchema<T> schema, List<T> entities) {
+        if (enabled) {
+            append(schema, entities);
+            return;
+        }
+        synchronized (this) {
+            for (T entity : entities) {
+                notifySubscribers(new JournalEvent(-1, schema, entity));
+            }
+        }
+    }
+
+    private void notifySubscribers(JournalEvent event) {
+        for (Consumer<JournalEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                log.warn("Journal subscriber failed on {}: {}", event.getSchema().getName(), e.getMessage());
+            }
+        }
+    }
+
+    public <T> void append(SegmentSchema<T> schema, List<T> entities) {
+        sync(write(schema, entities, true));
+    }
+
+    /**
+     * Appends rows committed before the journal existed. Subscribers are not notified: whatever they know of
+     * those rows they have from the database.
+     */
+    public <T> void appendExisting(SegmentSchema<T> schema, List<T> entities) {
+        sync(write(schema, entities, false));
+    }
+
+    // copies the records in and returns the end of the last one; only a roll to a new file forces here
+    private synchronized <T> long write(SegmentSchema<T> schema, List<T> entities, boolean notify) {
+        for (T entity : entities) {
+            byte[] payload = encode(schema, schema.toRow(entity));
+            if (HEADER + payload.length > fileSize) {
+                throw new IllegalArgumentException("Journal record of " + payload.length + " bytes exceeds the file size");
+            }
+            if (writePosition + HEADER + payload.length > fileSize) {
+                // the whole file, since records of writers still waiting in sync() may precede this batch
+                if (fsync) {
+                    current.force();
+                }
+                rollUnchecked();
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            // payload and checksum go in before the length, so a reader never sees a length without its record
+            current.put(writePosition + HEADER, payload);
+            current.putInt(writePosition + 4, (int) crc.getValue());
+            current.putInt(writePosition, payload.length);
+            long position = ((long) (files.size() - 1) << 32) | writePosition;
+            writePosition += HEADER + payload.length;
+            if (notify && !subscribers.isEmpty()) {
+                notifySubscribers(new JournalEvent(position, schema, entity));
+            }
+        }
+        return ((long) (files.size() - 1) << 32) | writePosition;
+    }
+
+    private void sync(long upTo) {
+        if (!fsync) {
+            return;
+        }
+        synchronized (syncLock) {
+            if (syncedUpTo >= upTo) {
+                return; // an fsync that started after our write already covered it
+            }
+            MappedByteBuffer buffer;
+            long end;
+            synchronized (this) {
+                buffer = current;
+                end = ((long) (files.size() - 1) << 32) | writePosition;
+            }
+            // files before the current one were forced completely when the journal rolled past them
+            int from = (syncedUpTo >>> 32) == (end >>> 32) ? (int) syncedUpTo : 0;
+            if ((int) end > from) {
+                buffer.force(from, (int) end - from);
+            }
+            syncedUpTo = end;
+        }
+    }
+
+    /**
+     * Reads the whole journal once per consumer, each consumer on its own thread with its own sequential pass
+     * over the mapped files. Records appended after the call starts are not included.
+     *
+     * @return number of records each consumer received
+     */
+    public long replay(List<Consumer<JournalEvent>> consumers) {
+        List<Path> snapshot;
+        int end;
+        synchronized (this) {
+            if (!enabled) {
+                return 0;
+            }
+            snapshot = List.copyOf(files);
+            end = writePosition;
+        }
+        AtomicLong records = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, consumers.size()));
+        try {
+            List<CompletableFuture<Void>> passes = new ArrayList<>();
+            for (Consumer<JournalEvent> consumer : consumers) {
+                passes.add(CompletableFuture.runAsync(() -> records.set(read(snapshot, end, consumer)), pool));
+            }
+            CompletableFuture.allOf(passes.toArray(new CompletableFuture[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+        return records.get();
+    }
+
+    private long read(List<Path> snapshot, int lastFileEnd, Consumer<JournalEvent> consumer) {
+        long records = 0;
+        for (int f = 0; f < snapshot.size(); f++) {
+            boolean last = f == snapshot.size() - 1;
+            MappedByteBuffer buffer;
+            try {
+                buffer = map(snapshot.get(f), FileChannel.MapMode.READ_ONLY);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            int limit = last ? lastFileEnd : buffer.capacity();
+            int position = 0;
+            while (position + HEADER <= limit) {
+                int length = buffer.getInt(position);
+                if (length <= 0) {
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(position + HEADER, length);
+                CRC32C crc = new CRC32C();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                    throw new IllegalStateException("Checksum mismatch in " + snapshot.get(f) + " at " + position);
+                }
+                SegmentSchema<?> schema = SegmentSchema.forId(payload.get());
+                consumer.accept(new JournalEvent(((long) f << 32) | position, schema, decode(schema, payload)));
+                records++;
+                position += HEADER + length;
+            }
+        }
+        return records;
+    }
+
+    // finds the end of the valid records and clears whatever follows it
+    private int recover(MappedByteBuffer buffer) {
+        int position = 0;
+        while (position + HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + HEADER + length > buffer.capacity()) {
+                break;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.slice(position + HEADER, length));
+            if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+                log.warn("Discarding torn journal record at offset {}", position);
+                break;
+            }
+            position += HEADER + length;
+        }
+        // a torn payload may reach past its length field, so clear everything after the last good record
+        boolean cleared = false;
+        for (int i = position; i < buffer.capacity(); i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+                cleared = true;
+            }
+        }
+        if (cleared) {
+            buffer.force();
+        }
+        return position;
+    }
+
+    private void roll() throws IOException {
+        Path file = directory.resolve(String.format("%s%08d%s", PREFIX, files.size(), SUFFIX));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(fileSize);
+        }
+        files.add(file);
+        current = map(file, FileChannel.MapMode.READ_WRITE);
+        writePosition = 0;
+    }
+
+    private void rollUnchecked() {
+        try {
+            roll();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start a new journal file", e);
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, FileChannel.MapMode mode) throws IOException {
+        try (FileChannel channel = mode == FileChannel.MapMode.READ_ONLY
+                ? FileChannel.open(file, StandardOpenOption.READ)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(mode, 0, channel.size());
+        }
+    }
+
+    private static byte[] encode(SegmentSchema<?> schema, Object[] row) {
+        SegmentSchema.ColumnType[] columns = schema.columns();
+        int size = 1;
+        byte[][] strings = new byte[columns.length][];
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] == SegmentSchema.ColumnType.STRING) {
+                strings[c] = row[c] != null ? ((String) row[c]).getBytes(StandardCharsets.UTF_8) : null;
+                size += 4 + (strings[c] != null ? strings[c].length : 0);
+            } else {
+                size += 1 + (row[c] != null ? 8 : 0);
+            }
+        }
+        ByteBuffer out = ByteBuffer.allocate(size).put(schema.id());
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] == SegmentSchema.ColumnType.STRING) {
+                if (strings[c] == null) {
+                    out.putInt(-1);
+                } else {
+                    out.putInt(strings[c].length).put(strings[c]);
+                }
+            } else if (row[c] == null) {
+                out.put((byte) 0);
+            } else {
+                out.put((byte) 1).putLong((Long) row[c]);
+            }
+        }
+        return out.array();
+    }
+
+    private static Object decode(SegmentSchema<?> schema, ByteBuffer in) {
+        SegmentSchema.ColumnType[] columns = schema.columns();
+        Object[] row = new Object[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            if (columns[c] == SegmentSchema.ColumnType.STRING) {
+                int length = in.getInt();
+                if (length >= 0) {
+                    byte[] bytes = new byte[length];
+                    in.get(bytes);
+                    row[c] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            } else if (in.get() != 0) {
+                row[c] = in.getLong();
+            }
+        }
+        return schema.fromRow(row);
+    }
+}
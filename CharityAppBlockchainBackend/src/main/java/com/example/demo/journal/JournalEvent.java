@@ -0,0 +1,32 @@
+package com.example.demo.journal;
+
+import com.example.demo.archive.SegmentSchema;
+
+/**
+ * One replayed journal record: the entity as it was committed, and its position in the journal
+ * (file index in the high 32 bits, byte offset in the low 32).
+ */
+public final class JournalEvent {
+
+    private final long position;
+    private final SegmentSchema<?> schema;
+    private final Object entity;
+
+    JournalEvent(long position, SegmentSchema<?> schema, Object entity) {
+        this.position = position;
+        this.schema = schema;
+        this.entity = entity;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public SegmentSchema<?> getSchema() {
+        return schema;
+    }
+
+    public Object getEntity() {
+        return entity;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.profiling;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every statement executed through the wrapped DataSource and hands it to {@link QueryProfiler}.
+ * A batch counts as one statement, like the round trip it is. Statements slower than the threshold are
+ * logged by shape only: bound parameters and inline literals never reach the log.
+ */
+@Slf4j
+public class ProfilingDataSource extends DelegatingDataSource {
+
+    private final long slowQueryNanos;
+
+    public ProfilingDataSource(DataSource target, long slowQueryMillis) {
+        super(target);
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private void executed(String sql, long nanos) {
+        String shape = QueryProfiler.shapeOf(sql);
+        QueryProfiler.record(shape, nanos);
+        if (nanos >= slowQueryNanos) {
+            QueryProfiler.Scope scope = QueryProfiler.current();
+            log.warn("Slow query ({} ms) on {}: {}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    scope != null ? scope.label() : Thread.currentThread().getName(), shape);
+        }
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" ->
+                        proxy(Statement.class, new StatementHandler((Statement) result, null, (Connection) proxy));
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                        new StatementHandler((Statement) result, (String) args[0], (Connection) proxy));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                        new StatementHandler((Statement) result, (String) args[0], (Connection) proxy));
+                default -> result;
+            };
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final String preparedSql;
+        private final Connection connection;
+        // plain statements carry their SQL in addBatch
+        private String batchSql;
+
+        StatementHandler(Statement target, String preparedSql, Connection connection) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            if (name.equals("addBatch") && args != null && args.length == 1 && batchSql == null) {
+                batchSql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                return ProfilingDataSource.invoke(target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql : batchSql;
+            long start = System.nanoTime();
+            try {
+                return ProfilingDataSource.invoke(target, method, args);
+            } finally {
+                if (name.endsWith("Batch")) {
+                    batchSql = null;
+                }
+                executed(sql, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.demo.profiling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Attributes the statements run through {@link ProfilingDataSource} to the scope open on the current thread,
+ * normally one HTTP request (see {@link QueryProfilingFilter}). Statements are grouped by shape: the SQL with
+ * literals replaced by ?, which is also the only form that is ever logged.
+ */
+public final class QueryProfiler {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static final int MAX_CACHED_SHAPES = 2048;
+    private static final Map<String, String> SHAPES = new ConcurrentHashMap<>();
+
+    private QueryProfiler() {
+    }
+
+    /**
+     * Opens a scope on the current thread; scopes nest, and a statement counts towards every open one.
+     */
+    public static Scope open(Supplier<String> label) {
+        Scope scope = new Scope(label, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes scope current on this thread, for work handed to another thread; returns what was current before.
+     */
+    public static Scope attach(Scope scope) {
+        Scope previous = CURRENT.get();
+        set(scope);
+        return previous;
+    }
+
+    static void set(Scope scope) {
+        if (scope == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope);
+        }
+    }
+
+    static void record(String shape, long nanos) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.add(shape, nanos);
+        }
+    }
+
+    /**
+     * The SQL with string and numeric literals replaced by ?, whitespace collapsed and lists of placeholders
+     * folded, so "IN (?, ?, ?)" and "IN (?, ?)" share a shape.
+     */
+    public static String shapeOf(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String shape = SHAPES.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (SHAPES.size() < MAX_CACHED_SHAPES) {
+                SHAPES.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    private static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // '' is an escaped quote inside the literal
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                placeholder(out);
+            } else if (Character.isDigit(c) && !partOfIdentifier(out)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                placeholder(out);
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (!out.isEmpty()) {
+                    out.append(' ');
+                }
+            } else {
+                out.append(c);
+                i++;
+                if (c == '?') {
+                    fold(out);
+                }
+            }
+        }
+        int end = out.length();
+        while (end > 0 && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        out.setLength(end);
+        return out.toString();
+    }
+
+    private static boolean partOfIdentifier(StringBuilder out) {
+        if (out.isEmpty()) {
+            return false;
+        }
+        char previous = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '.' || previous == '$';
+    }
+
+    private static void placeholder(StringBuilder out) {
+        out.append('?');
+        fold(out);
+    }
+
+    // turns a trailing "?, ?" (or "?,?") into "?"
+    private static void fold(StringBuilder out) {
+        int end = out.length() - 1;
+        int i = end - 1;
+        while (i >= 0 && out.charAt(i) == ' ') {
+            i--;
+        }
+        if (i < 0 || out.charAt(i) != ',') {
+            return;
+        }
+        i--;
+        while (i >= 0 && out.charAt(i) == ' ') {
+            i--;
+        }
+        if (i >= 0 && out.charAt(i) == '?') {
+            out.setLength(i + 1);
+        }
+    }
+
+    /**
+     * Statements counted while the scope was open. Thread-safe, since a request may fan work out to a pool.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Supplier<String> label;
+        private final Scope parent;
+        private final Map<String, Integer> shapes = new LinkedHashMap<>();
+        private int count;
+        private long nanos;
+        private boolean closed;
+
+        private Scope(Supplier<String> label, Scope parent) {
+            this.label = label;
+            this.parent = parent;
+        }
+
+        public String label() {
+            return label.get();
+        }
+
+        public synchronized int count() {
+            return count;
+        }
+
+        public synchronized long nanos() {
+            return nanos;
+        }
+
+        /**
+         * Statement shapes in the order first seen, with how often each ran.
+         */
+        public synchronized Map<String, Integer> shapes() {
+            return new LinkedHashMap<>(shapes);
+        }
+
+        /**
+         * Shapes that ran at least threshold times: the usual sign of an N+1, one query per row of a previous one.
+         */
+        public synchronized Map<String, Integer> repeated(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            shapes.forEach((shape, times) -> {
+                if (times >= threshold) {
+                    repeated.put(shape, times);
+                }
+            });
+            return repeated;
+        }
+
+        private synchronized void add(String shape, long statementNanos) {
+            if (closed) {
+                return;
+            }
+            count++;
+            nanos += statementNanos;
+            shapes.merge(shape, 1, Integer::sum);
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                closed = true;
+            }
+            if (CURRENT.get() == this) {
+                set(parent);
+            }
+        }
+    }
+}
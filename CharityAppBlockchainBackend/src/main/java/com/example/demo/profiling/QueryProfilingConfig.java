@@ -0,0 +1,32 @@
+package com.example.demo.profiling;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class QueryProfilingConfig {
+
+    /**
+     * Wraps the application's DataSource, whether Boot's pool or the read/write router, so every statement
+     * Hibernate or JdbcTemplate runs is seen once. The pools behind the router are left alone.
+     */
+    @Bean
+    public static BeanPostProcessor profilingDataSourcePostProcessor(
+            @Value("${app.profiling.enabled:true}") boolean enabled,
+            @Value("${app.profiling.slow-query-ms:200}") long slowQueryMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && "dataSource".equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ProfilingDataSource)) {
+                    return new ProfilingDataSource(dataSource, slowQueryMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
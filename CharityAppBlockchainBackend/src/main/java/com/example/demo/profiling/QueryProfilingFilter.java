@@ -0,0 +1,86 @@
+package com.example.demo.profiling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a {@link QueryProfiler} scope per API request and publishes the per-endpoint summary: statements
+ * per request (http.server.request.queries), time spent in them (http.server.request.query.time) and
+ * requests that repeated one statement shape at least repeated-query-threshold times
+ * (http.server.request.repeated.queries), which are also logged with the shape.
+ */
+@Slf4j
+@Component
+public class QueryProfilingFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int repeatedQueryThreshold;
+
+    public QueryProfilingFilter(MeterRegistry meterRegistry,
+                                @Value("${app.profiling.enabled:true}") boolean enabled,
+                                @Value("${app.profiling.repeated-query-threshold:5}") int repeatedQueryThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.repeatedQueryThreshold = repeatedQueryThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // the matched pattern only exists once the handler is resolved, and keeps wallet addresses out of the log
+        QueryProfiler.Scope scope = QueryProfiler.open(() -> request.getMethod() + " " + uri(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            scope.close();
+            String uri = uri(request);
+            DistributionSummary.builder("http.server.request.queries")
+                    .description("SQL statements executed per request")
+                    .tag("uri", uri).tag("method", request.getMethod())
+                    .register(meterRegistry)
+                    .record(scope.count());
+            Timer.builder("http.server.request.query.time")
+                    .description("Time per request spent executing SQL statements")
+                    .tag("uri", uri).tag("method", request.getMethod())
+                    .register(meterRegistry)
+                    .record(scope.nanos(), TimeUnit.NANOSECONDS);
+
+            Map<String, Integer> repeated = scope.repeated(repeatedQueryThreshold);
+            if (!repeated.isEmpty()) {
+                Counter.builder("http.server.request.repeated.queries")
+                        .description("Requests that ran one statement shape repeatedly, a likely N+1")
+                        .tag("uri", uri).tag("method", request.getMethod())
+                        .register(meterRegistry)
+                        .increment();
+                repeated.forEach((shape, times) -> log.warn("Possible N+1 on {} {}: {} of {} statements were {}",
+                        request.getMethod(), uri, times, scope.count(), shape));
+            }
+        }
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Admission control for the write endpoints: token buckets per client IP and per wallet address,
+ * plus a global cap on concurrent charity registrations (two multipart uploads each).
+ */
+@Component
+public class AdmissionControl {
+
+    private static final int STRIPES = 16;
+
+    private final boolean enabled;
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter walletLimiter;
+    private final Semaphore uploadPermits;
+    private final Counter rejectedByIp;
+    private final Counter rejectedByWallet;
+    private final Counter rejectedUploads;
+
+    public AdmissionControl(@Value("${app.ratelimit.enabled:true}") boolean enabled,
+                            @Value("${app.ratelimit.ip.capacity:30}") int ipCapacity,
+                            @Value("${app.ratelimit.ip.refill-per-second:10}") int ipRefill,
+                            @Value("${app.ratelimit.wallet.capacity:10}") int walletCapacity,
+                            @Value("${app.ratelimit.wallet.refill-per-second:2}") int walletRefill,
+                            @Value("${app.ratelimit.idle-evict-seconds:300}") long idleEvictSeconds,
+                            @Value("${app.ratelimit.max-concurrent-uploads:4}") int maxConcurrentUploads,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ipLimiter = new TokenBucketRateLimiter(ipCapacity, ipRefill, idleEvictSeconds * 1000, STRIPES);
+        this.walletLimiter = new TokenBucketRateLimiter(walletCapacity, walletRefill, idleEvictSeconds * 1000, STRIPES);
+        this.uploadPermits = new Semaphore(maxConcurrentUploads);
+        this.rejectedByIp = Counter.builder("admission.rejected").tag("reason", "ip").register(meterRegistry);
+        this.rejectedByWallet = Counter.builder("admission.rejected").tag("reason", "wallet").register(meterRegistry);
+        this.rejectedUploads = Counter.builder("admission.rejected").tag("reason", "uploads").register(meterRegistry);
+        Gauge.builder("admission.buckets", ipLimiter, TokenBucketRateLimiter::size).tag("key", "ip").register(meterRegistry);
+        Gauge.builder("admission.buckets", walletLimiter, TokenBucketRateLimiter::size).tag("key", "wallet").register(meterRegistry);
+    }
+
+    public void checkIp(String ip) {
+        if (!enabled) {
+            return;
+        }
+        long waitMillis = ipLimiter.tryAcquire(ip);
+        if (waitMillis > 0) {
+            rejectedByIp.increment();
+            throw new TooManyRequestsException("Too many write requests from " + ip, waitMillis);
+        }
+    }
+
+    public void checkWallet(String walletAddress) {
+        if (!enabled || walletAddress == null || walletAddress.isBlank()) {
+            return;
+        }
+        long waitMillis = walletLimiter.tryAcquire(walletAddress.toLowerCase(Locale.ROOT));
+        if (waitMillis > 0) {
+            rejectedByWallet.increment();
+            throw new TooManyRequestsException("Too many write requests for wallet " + walletAddress, waitMillis);
+        }
+    }
+
+    /**
+     * @return true if an upload slot was taken; the caller must then call {@link #releaseUpload()}
+     */
+    public boolean tryAcquireUpload() {
+        if (!enabled) {
+            return true;
+        }
+        if (uploadPermits.tryAcquire()) {
+            return true;
+        }
+        rejectedUploads.increment();
+        return false;
+    }
+
+    public void releaseUpload() {
+        if (enabled) {
+            uploadPermits.release();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratelimit.evict-interval-ms:30000}")
+    public void evictIdleBuckets() {
+        ipLimiter.evictIdle();
+        walletLimiter.evictIdle();
+    }
+}
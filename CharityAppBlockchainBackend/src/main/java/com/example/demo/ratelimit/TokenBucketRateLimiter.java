@@ -0,0 +1,104 @@
+package com.example.demo.ratelimit;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets keyed by an arbitrary string (wallet address, client IP).
+ * <p>
+ * Each bucket is a single AtomicLong packing the last refill time (upper 43 bits, millis since the limiter
+ * was created) and the current balance in milli-tokens (lower 20 bits), updated with a CAS loop, so acquiring
+ * never blocks. Buckets live in a fixed number of stripes so idle eviction can sweep one stripe at a time.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int TOKEN_BITS = 20;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long ONE_TOKEN = 1000;
+
+    private final long capacityMilli;
+    private final long refillMilliPerMs; // milli-tokens per millisecond == tokens per second
+    private final long idleMillis;
+    private final long origin = System.currentTimeMillis();
+    private final ConcurrentHashMap<String, Bucket>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketRateLimiter(int capacity, int refillPerSecond, long idleMillis, int stripeCount) {
+        if (capacity <= 0 || capacity * ONE_TOKEN > TOKEN_MASK || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity must be 1.." + TOKEN_MASK / ONE_TOKEN + " and refill positive");
+        }
+        this.capacityMilli = capacity * ONE_TOKEN;
+        this.refillMilliPerMs = refillPerSecond;
+        this.idleMillis = idleMillis;
+        this.stripes = new ConcurrentHashMap[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return 0 if the request is admitted, otherwise the number of millis until a token is available
+     */
+    public long tryAcquire(String key) {
+        long now = System.currentTimeMillis() - origin;
+        Bucket bucket = stripe(key).computeIfAbsent(key, k -> new Bucket(now, capacityMilli));
+        bucket.lastAccess = now;
+        while (true) {
+            long state = bucket.state.get();
+            long last = state >>> TOKEN_BITS;
+            long tokens = Math.min(capacityMilli, (state & TOKEN_MASK) + Math.max(0, now - last) * refillMilliPerMs);
+            if (tokens < ONE_TOKEN) {
+                return Math.max(1, (ONE_TOKEN - tokens + refillMilliPerMs - 1) / refillMilliPerMs);
+            }
+            long next = (Math.max(now, last) << TOKEN_BITS) | (tokens - ONE_TOKEN);
+            if (bucket.state.compareAndSet(state, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops buckets not touched for longer than the idle timeout. Such a bucket would have refilled to
+     * capacity anyway, so forgetting it does not change any future decision.
+     */
+    public int evictIdle() {
+        long cutoff = System.currentTimeMillis() - origin - idleMillis;
+        int evicted = 0;
+        for (ConcurrentHashMap<String, Bucket> stripe : stripes) {
+            Iterator<Bucket> it = stripe.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().lastAccess < cutoff) {
+                    it.remove();
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, Bucket> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private ConcurrentHashMap<String, Bucket> stripe(String key) {
+        int h = key.hashCode();
+        return stripes[((h ^ (h >>> 16)) & Integer.MAX_VALUE) % stripes.length];
+    }
+
+    private static final class Bucket {
+        final AtomicLong state;
+        volatile long lastAccess;
+
+        Bucket(long now, long tokens) {
+            this.state = new AtomicLong((now << TOKEN_BITS) | tokens);
+            this.lastAccess = now;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Rejects write floods before they reach the DB pool or disk. Runs ahead of the DispatcherServlet,
+ * so a rejected registration is turned away before its multipart body is parsed and spooled.
+ * Per-wallet limits are applied in the controllers once the body has been read.
+ */
+@Component
+public class WriteAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String UPLOAD_PATH = "/api/charity/register";
+    private static final Set<String> WRITE_PATHS = Set.of("/api/donations", "/api/transactions", "/api/withdrawals", "/api/campaign", UPLOAD_PATH);
+
+    private final AdmissionControl admissionControl;
+
+    public WriteAdmissionFilter(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !WRITE_PATHS.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            admissionControl.checkIp(request.getRemoteAddr());
+        } catch (TooManyRequestsException e) {
+            reject(response, e.getRetryAfterSeconds(), e.getMessage());
+            return;
+        }
+
+        if (!UPLOAD_PATH.equals(request.getRequestURI())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!admissionControl.tryAcquireUpload()) {
+            reject(response, 1, "Too many concurrent uploads");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            admissionControl.releaseUpload();
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setHeader("Access-Control-Allow-Origin", "*"); // rejected before CORS handling, let the browser read it
+        response.setContentType("text/plain");
+        response.getWriter().write(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.demo.repo;
+
+public interface CampaignAmountView {
+    Long getCampaignId();
+
+    String getAmount();
+
+    Long getDonationCount();
+}
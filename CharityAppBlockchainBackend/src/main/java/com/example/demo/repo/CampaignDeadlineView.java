@@ -0,0 +1,12 @@
+package com.example.demo.repo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Interface projection used to rebuild the expiry timer wheel at startup.
+ */
+public interface CampaignDeadlineView {
+    Long getId();
+
+    LocalDateTime getDeadline();
+}
@@ -0,0 +1,11 @@
+package com.example.demo.repo;
+
+import java.time.LocalDateTime;
+
+public interface CampaignDonationView {
+    Long getCampaignId();
+
+    String getAmount();
+
+    LocalDateTime getTimestamp();
+}
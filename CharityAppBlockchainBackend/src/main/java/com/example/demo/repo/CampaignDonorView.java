@@ -0,0 +1,11 @@
+package com.example.demo.repo;
+
+import java.time.LocalDateTime;
+
+public interface CampaignDonorView {
+    Long getCampaignId();
+
+    String getDonorAddress();
+
+    LocalDateTime getFirstDonationAt();
+}
@@ -1,16 +1,38 @@
 package com.example.demo.repo;
 
 import com.example.demo.entity.Campaign;
-import com.example.demo.entity.CharityRequest;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CampaignRepo extends JpaRepository<Campaign, Long> {
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Campaign> findAllByWalletAddress(String walletAddress);
 
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Campaign> findAllByStatus(String active);
+
+    List<CampaignDeadlineView> findByStatusAndDeadlineIsNotNull(String status);
+
+    List<CampaignDeadlineView> findByIdInAndStatusAndDeadlineIsNotNull(Collection<Long> ids, String status);
+
+    List<Campaign> findByStatusAndDeadlineIsNull(String status);
+
+    // the deadline guard keeps a campaign whose deadline was moved since it was scheduled
+    @Modifying
+    @Query("UPDATE Campaign c SET c.status = :ended WHERE c.id IN :ids AND c.status = :active AND c.deadline <= :now")
+    int updateStatusOfExpired(@Param("ids") Collection<Long> ids,
+                              @Param("active") String active,
+                              @Param("ended") String ended,
+                              @Param("now") LocalDateTime now);
 }
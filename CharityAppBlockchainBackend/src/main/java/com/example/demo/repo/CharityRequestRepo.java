@@ -1,10 +1,51 @@
 package com.example.demo.repo;
 
+import com.example.demo.dto.CharityRequestDto;
+import com.example.demo.dto.CharityRequestSummaryDto;
 import com.example.demo.entity.CharityRequest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CharityRequestRepo extends JpaRepository<CharityRequest,Long> {
 
+    // Review queue: ordered by (submittedAt, id) so it walks idx_charity_requests_status_submitted
+    @Query("SELECT new com.example.demo.dto.CharityRequestSummaryDto(c.id, c.charityName, c.walletAddress, c.email, c.logoUrl, c.websiteUrl, c.submittedAt, c.status) " +
+            "FROM CharityRequest c WHERE c.status = :status " +
+            "ORDER BY c.submittedAt, c.id")
+    List<CharityRequestSummaryDto> findQueueFirstPage(@Param("status") CharityRequest.RequestStatus status, Limit limit);
+
+    @Query("SELECT new com.example.demo.dto.CharityRequestSummaryDto(c.id, c.charityName, c.walletAddress, c.email, c.logoUrl, c.websiteUrl, c.submittedAt, c.status) " +
+            "FROM CharityRequest c WHERE c.status = :status " +
+            "AND (c.submittedAt > :afterSubmittedAt OR (c.submittedAt = :afterSubmittedAt AND c.id > :afterId)) " +
+            "ORDER BY c.submittedAt, c.id")
+    List<CharityRequestSummaryDto> findQueuePageAfter(@Param("status") CharityRequest.RequestStatus status,
+                                                      @Param("afterSubmittedAt") LocalDateTime afterSubmittedAt,
+                                                      @Param("afterId") Long afterId,
+                                                      Limit limit);
+
+    // Read model: a constructor projection, so listing all charities does not hydrate (and cache) every entity
+    String CHARITY_REQUEST_DTO = "SELECT new com.example.demo.dto.CharityRequestDto(c.id, c.charityName, " +
+            "c.description, c.email, c.walletAddress, c.logoUrl, c.verificationDocumentUrl, c.submittedAt, c.status) " +
+            "FROM CharityRequest c ";
+
+    @Query(CHARITY_REQUEST_DTO)
+    List<CharityRequestDto> findAllDtos();
+
+    @Query(CHARITY_REQUEST_DTO + "WHERE c.walletAddress = :wallet")
+    List<CharityRequestDto> findDtosByWalletAddress(@Param("wallet") String walletAddress, Limit limit);
+
+    List<CharityRequestStatusView> findByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE CharityRequest c SET c.status = :status WHERE c.id IN :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("status") CharityRequest.RequestStatus status);
 }
@@ -0,0 +1,14 @@
+package com.example.demo.repo;
+
+import com.example.demo.entity.CharityRequest;
+
+/**
+ * Interface projection used by the bulk status update: just enough to decide per-id outcomes and address mails.
+ */
+public interface CharityRequestStatusView {
+    Long getId();
+
+    String getEmail();
+
+    CharityRequest.RequestStatus getStatus();
+}
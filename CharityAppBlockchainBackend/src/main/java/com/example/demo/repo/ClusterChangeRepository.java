@@ -0,0 +1,24 @@
+package com.example.demo.repo;
+
+import com.example.demo.entity.ClusterChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ClusterChangeRepository extends JpaRepository<ClusterChange, Long> {
+
+    List<ClusterChange> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    @Query("SELECT MAX(c.id) FROM ClusterChange c")
+    Long findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM ClusterChange c WHERE c.createdAtMs < :before")
+    int deleteCreatedBefore(@Param("before") long before);
+}
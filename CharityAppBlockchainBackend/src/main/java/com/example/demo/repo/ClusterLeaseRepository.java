@@ -0,0 +1,33 @@
+package com.example.demo.repo;
+
+import com.example.demo.entity.ClusterLease;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClusterLeaseRepository extends JpaRepository<ClusterLease, String> {
+
+    // renews our own lease or takes over an expired one; 1 when we hold it afterwards
+    @Modifying
+    @Query("UPDATE ClusterLease l SET l.owner = :owner, l.expiresAtMs = :expiresAtMs " +
+            "WHERE l.name = :name AND (l.owner = :owner OR l.expiresAtMs < :now)")
+    int tryAcquire(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("expiresAtMs") long expiresAtMs,
+                   @Param("now") long now);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "cluster_leases"))
+    @Query(value = "INSERT IGNORE INTO cluster_leases (name, owner, expires_at_ms) VALUES (:name, :owner, :expiresAtMs)",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name, @Param("owner") String owner, @Param("expiresAtMs") long expiresAtMs);
+
+    @Modifying
+    @Query("UPDATE ClusterLease l SET l.expiresAtMs = 0 WHERE l.name = :name AND l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
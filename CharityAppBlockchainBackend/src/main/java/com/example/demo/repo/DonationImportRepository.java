@@ -0,0 +1,9 @@
+package com.example.demo.repo;
+
+import com.example.demo.entity.DonationImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DonationImportRepository extends JpaRepository<DonationImport, String> {
+}
@@ -1,26 +1,130 @@
 package com.example.demo.repo;
 
+import com.example.demo.dto.ActivityItemDto;
+import com.example.demo.dto.DonationDTO;
 import com.example.demo.entity.Donation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface DonationRepository extends JpaRepository<Donation, Long> {
+    // Read model for list endpoints: a constructor projection, so no entities are hydrated or cached
+    String DONATION_DTO = "SELECT new com.example.demo.dto.DonationDTO(d.txHash, d.donorAddress, d.charityId, " +
+            "d.charityName, d.campaignId, d.campaignTitle, d.amount, d.amountInUSD, d.timestamp, d.blockNumber, " +
+            "d.message, d.isAnonymous) FROM Donation d ";
+
     Optional<Donation> findByTxHash(String txHash);
 
-    List<Donation> findByDonorAddress(String donorAddress);
+    List<Donation> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Donor summary rebuild: one id-range partition, read in keyset chunks
+    @Query("SELECT d.id AS id, d.donorAddress AS donorAddress, d.charityId AS charityId, d.amount AS amount, " +
+            "d.amountInUSD AS amountInUSD, d.timestamp AS timestamp " +
+            "FROM Donation d WHERE d.id > :afterId AND d.id <= :toId ORDER BY d.id")
+    List<DonorSummaryRowView> findSummaryRows(@Param("afterId") Long afterId, @Param("toId") Long toId, Limit limit);
+
+    @Query("SELECT d.id AS id, d.donorAddress AS donorAddress, d.charityId AS charityId, d.amount AS amount, " +
+            "d.amountInUSD AS amountInUSD, d.timestamp AS timestamp " +
+            "FROM Donation d WHERE d.id > :afterId AND d.donorAddress IN :donors")
+    List<DonorSummaryRowView> findSummaryRowsAfter(@Param("afterId") Long afterId, @Param("donors") Collection<String> donors);
+
+    @Query("SELECT MIN(d.id) FROM Donation d")
+    Long findMinId();
+
+    @Query("SELECT MAX(d.id) FROM Donation d")
+    Long findMaxId();
+
+    @Query("SELECT d.id FROM Donation d WHERE d.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query(DONATION_DTO + "WHERE d.donorAddress = :donor")
+    List<DonationDTO> findDtosByDonorAddress(@Param("donor") String donorAddress);
+
+    // Activity feed: newest first on (timestamp, id) so it walks idx_donations_donor_activity
+    @Query("SELECT new com.example.demo.dto.ActivityItemDto('DONATION', d.id, d.txHash, d.amount, d.timestamp, d.charityId, d.charityName) " +
+            "FROM Donation d WHERE d.donorAddress = :wallet " +
+            "ORDER BY d.timestamp DESC, d.id DESC")
+    List<ActivityItemDto> findActivityFirstPage(@Param("wallet") String wallet, Limit limit);
+
+    @Query("SELECT new com.example.demo.dto.ActivityItemDto('DONATION', d.id, d.txHash, d.amount, d.timestamp, d.charityId, d.charityName) " +
+            "FROM Donation d WHERE d.donorAddress = :wallet " +
+            "AND (d.timestamp < :beforeTimestamp OR (d.timestamp = :beforeTimestamp AND d.id < :beforeId)) " +
+            "ORDER BY d.timestamp DESC, d.id DESC")
+    List<ActivityItemDto> findActivityPageBefore(@Param("wallet") String wallet,
+                                                 @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                                 @Param("beforeId") Long beforeId,
+                                                 Limit limit);
+
+    @Query(DONATION_DTO + "WHERE d.charityId = :charityId")
+    List<DonationDTO> findDtosByCharityId(@Param("charityId") Long charityId);
+
+    @Query(DONATION_DTO + "WHERE d.campaignId = :campaignId")
+    List<DonationDTO> findDtosByCampaignId(@Param("campaignId") Long campaignId);
 
-    List<Donation> findByCharityId(Long charityId);
+    List<Donation> findByTimestampBeforeOrderByIdAsc(LocalDateTime cutoff, Limit limit);
 
-    List<Donation> findByCampaignId(Long campaignId);
+    List<DonationValuationView> findByAmountInUSDIsNullAndIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Report aggregates over [from, to): grouped in the database so the report never holds donation rows
+
+    @Query("SELECT d.charityId AS charityId, MAX(d.charityName) AS charityName, COUNT(d) AS donationCount, " +
+            "SUM(CAST(d.amount AS double)) AS totalEth, SUM(d.amountInUSD) AS totalUsd " +
+            "FROM Donation d WHERE d.timestamp >= :from AND d.timestamp < :to " +
+            "GROUP BY d.charityId ORDER BY d.charityId")
+    List<ReportCharityTotalView> sumByCharity(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT c.id AS campaignId, c.title AS title, c.charityName AS charityName, c.status AS status, " +
+            "c.goalAmount AS goalAmount, c.raisedAmount AS raisedAmount, " +
+            "COUNT(d) AS donationCount, SUM(CAST(d.amount AS double)) AS raisedInRange " +
+            "FROM Donation d, Campaign c WHERE c.id = d.campaignId AND d.timestamp >= :from AND d.timestamp < :to " +
+            "GROUP BY c.id, c.title, c.charityName, c.status, c.goalAmount, c.raisedAmount ORDER BY c.id")
+    List<ReportCampaignProgressView> sumByCampaign(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT d.donorAddress AS donorAddress, COUNT(d) AS donationCount, SUM(CAST(d.amount AS double)) AS totalEth " +
+            "FROM Donation d WHERE d.timestamp >= :from AND d.timestamp < :to AND d.isAnonymous = false " +
+            "GROUP BY d.donorAddress ORDER BY SUM(CAST(d.amount AS double)) DESC")
+    List<ReportDonorTotalView> findTopDonors(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Limit limit);
+
+    @Query("SELECT d.donorAddress AS donorAddress, COUNT(d) AS donationCount, SUM(CAST(d.amount AS double)) AS totalEth " +
+            "FROM Donation d WHERE d.timestamp >= :from AND d.timestamp < :to AND d.isAnonymous = false " +
+            "AND d.donorAddress IN :donors GROUP BY d.donorAddress")
+    List<ReportDonorTotalView> sumByDonors(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                           @Param("donors") Collection<String> donors);
+
+    @Query("SELECT d.donorAddress AS donorAddress, COUNT(d) AS donationCount, SUM(CAST(d.amount AS double)) AS totalEth " +
+            "FROM Donation d WHERE d.isAnonymous = false " +
+            "GROUP BY d.donorAddress ORDER BY SUM(CAST(d.amount AS double)) DESC")
+    List<ReportDonorTotalView> findLeaderboard(Limit limit);
+
+    // Campaign ranking seed, up to a watermark id. Amounts are strings that POST /api/donations does not check,
+    // so they are added up by the caller, once per distinct amount of a campaign
+
+    @Query("SELECT d.campaignId AS campaignId, d.amount AS amount, COUNT(d) AS donationCount " +
+            "FROM Donation d WHERE d.campaignId IS NOT NULL AND d.id <= :upToId GROUP BY d.campaignId, d.amount")
+    List<CampaignAmountView> countCampaignAmounts(@Param("upToId") Long upToId);
+
+    @Query("SELECT d.campaignId AS campaignId, d.donorAddress AS donorAddress, MIN(d.timestamp) AS firstDonationAt " +
+            "FROM Donation d WHERE d.campaignId IS NOT NULL AND d.id <= :upToId GROUP BY d.campaignId, d.donorAddress")
+    List<CampaignDonorView> findCampaignDonors(@Param("upToId") Long upToId);
+
+    @Query("SELECT d.campaignId AS campaignId, d.amount AS amount, d.timestamp AS timestamp " +
+            "FROM Donation d WHERE d.timestamp >= :since AND d.campaignId IS NOT NULL AND d.id <= :upToId")
+    List<CampaignDonationView> findCampaignDonationsSince(@Param("since") LocalDateTime since, @Param("upToId") Long upToId);
 
     @Query("SELECT COUNT(DISTINCT d.donorAddress) FROM Donation d")
     Long countUniqueDonors();
 
+    @Query("SELECT COUNT(DISTINCT d.donorAddress) FROM Donation d WHERE d.donorAddress IN :donors")
+    long countDonorsAmong(@Param("donors") Collection<String> donors);
+
     @Query("SELECT SUM(CAST(d.amount AS double)) FROM Donation d")
     Double getTotalDonationAmount();
 }
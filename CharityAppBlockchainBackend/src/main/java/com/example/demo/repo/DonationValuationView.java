@@ -0,0 +1,14 @@
+package com.example.demo.repo;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns the USD backfill needs, without hydrating Donation entities.
+ */
+public interface DonationValuationView {
+    Long getId();
+
+    String getAmount();
+
+    LocalDateTime getTimestamp();
+}
@@ -0,0 +1,31 @@
+package com.example.demo.repo;
+
+import com.example.demo.entity.DonorSummary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DonorSummaryRepository extends JpaRepository<DonorSummary, String> {
+
+    // rows are locked in donor order so concurrent batches cannot deadlock on each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM DonorSummary s WHERE s.donorAddress IN :donors ORDER BY s.donorAddress")
+    List<DonorSummary> findAllForUpdate(@Param("donors") Collection<String> donors);
+
+    // a no-op when the row exists; lets two first donations of the same wallet race without a key violation
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "donor_summaries"))
+    @Query(value = "INSERT IGNORE INTO donor_summaries (donor_address, total_amount, total_amount_usd, donation_count, charity_count) " +
+            "VALUES (:donor, 0, 0, 0, 0)", nativeQuery = true)
+    int insertIfAbsent(@Param("donor") String donor);
+}
@@ -0,0 +1,21 @@
+package com.example.demo.repo;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Interface projection with the donation columns the donor summary rebuild reads.
+ */
+public interface DonorSummaryRowView {
+    Long getId();
+
+    String getDonorAddress();
+
+    Long getCharityId();
+
+    String getAmount();
+
+    BigDecimal getAmountInUSD();
+
+    LocalDateTime getTimestamp();
+}
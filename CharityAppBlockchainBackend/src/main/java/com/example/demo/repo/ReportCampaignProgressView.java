@@ -0,0 +1,22 @@
+package com.example.demo.repo;
+
+/**
+ * Campaign progress for the admin report: what was raised inside the date range next to the campaign's goal.
+ */
+public interface ReportCampaignProgressView {
+    Long getCampaignId();
+
+    String getTitle();
+
+    String getCharityName();
+
+    String getStatus();
+
+    Double getGoalAmount();
+
+    Double getRaisedAmount();
+
+    Long getDonationCount();
+
+    Double getRaisedInRange();
+}
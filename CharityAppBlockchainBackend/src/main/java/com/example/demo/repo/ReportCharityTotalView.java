@@ -0,0 +1,18 @@
+package com.example.demo.repo;
+
+import java.math.BigDecimal;
+
+/**
+ * Per-charity donation totals for a date range, aggregated in the database for the admin report.
+ */
+public interface ReportCharityTotalView {
+    Long getCharityId();
+
+    String getCharityName();
+
+    Long getDonationCount();
+
+    Double getTotalEth();
+
+    BigDecimal getTotalUsd();
+}
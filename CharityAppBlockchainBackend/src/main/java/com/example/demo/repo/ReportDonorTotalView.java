@@ -0,0 +1,9 @@
+package com.example.demo.repo;
+
+public interface ReportDonorTotalView {
+    String getDonorAddress();
+
+    Long getDonationCount();
+
+    Double getTotalEth();
+}
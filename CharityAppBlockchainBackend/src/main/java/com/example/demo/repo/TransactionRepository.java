@@ -1,16 +1,48 @@
 package com.example.demo.repo;
 
+import com.example.demo.dto.ActivityItemDto;
+import com.example.demo.dto.TransactionDTO;
 import com.example.demo.entity.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, JpaSpecificationExecutor<Transaction> {
     Optional<Transaction> findByTxHash(String txHash);
 
-    List<Transaction> findByFromAddress(String fromAddress);
+    List<Transaction> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Read model: a constructor projection, so no entities are hydrated
+    @Query("SELECT new com.example.demo.dto.TransactionDTO(t.txHash, t.fromAddress, t.toAddress, t.amount, t.type, " +
+            "t.charityId, t.campaignId, t.status, t.blockNumber, t.timestamp, t.metadata, t.legacyMetadata) " +
+            "FROM Transaction t WHERE t.fromAddress = :wallet")
+    List<TransactionDTO> findDtosByFromAddress(@Param("wallet") String fromAddress);
+
+    // Activity feed: newest first on (timestamp, id) so it walks idx_transactions_from_activity
+    @Query("SELECT new com.example.demo.dto.ActivityItemDto('TRANSACTION', t.id, t.txHash, t.amount, t.timestamp, t.charityId, t.type) " +
+            "FROM Transaction t WHERE t.fromAddress = :wallet " +
+            "ORDER BY t.timestamp DESC, t.id DESC")
+    List<ActivityItemDto> findActivityFirstPage(@Param("wallet") String wallet, Limit limit);
+
+    @Query("SELECT new com.example.demo.dto.ActivityItemDto('TRANSACTION', t.id, t.txHash, t.amount, t.timestamp, t.charityId, t.type) " +
+            "FROM Transaction t WHERE t.fromAddress = :wallet " +
+            "AND (t.timestamp < :beforeTimestamp OR (t.timestamp = :beforeTimestamp AND t.id < :beforeId)) " +
+            "ORDER BY t.timestamp DESC, t.id DESC")
+    List<ActivityItemDto> findActivityPageBefore(@Param("wallet") String wallet,
+                                                 @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                                 @Param("beforeId") Long beforeId,
+                                                 Limit limit);
+
+    List<Transaction> findByTimestampBeforeOrderByIdAsc(LocalDateTime cutoff, Limit limit);
+
+    List<Transaction> findByIdGreaterThanAndLegacyMetadataIsNotNullOrderByIdAsc(Long afterId, Limit limit);
 
     List<Transaction> findByType(String type);
 
@@ -0,0 +1,69 @@
+package com.example.demo.repo;
+
+import com.example.demo.dto.TransactionSearchCriteria;
+import com.example.demo.entity.Transaction;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the transaction search from only the filters that are set, so the database sees a plain conjunction
+ * it can match to the (column, timestamp, id) indexes instead of "x IS NULL OR ..." on every column.
+ */
+public final class TransactionSpecifications {
+
+    private TransactionSpecifications() {
+    }
+
+    public static Specification<Transaction> matching(TransactionSearchCriteria criteria,
+                                                      LocalDateTime beforeTimestamp, Long beforeId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getFromAddress() != null) {
+                predicates.add(cb.equal(root.get("fromAddress"), criteria.getFromAddress()));
+            }
+            if (criteria.getCampaignId() != null) {
+                predicates.add(cb.equal(root.get("campaignId"), criteria.getCampaignId()));
+            }
+            if (criteria.getCampaignTitle() != null) {
+                predicates.add(cb.equal(root.get("metadata").get("campaignTitle"), criteria.getCampaignTitle()));
+            }
+            if (criteria.getCharityName() != null) {
+                predicates.add(cb.equal(root.get("metadata").get("charityName"), criteria.getCharityName()));
+            }
+            if (criteria.getClientVersion() != null) {
+                predicates.add(cb.equal(root.get("metadata").get("clientVersion"), criteria.getClientVersion()));
+            }
+            if (criteria.getMinGasUsed() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("metadata").get("gasUsed"), criteria.getMinGasUsed()));
+            }
+            if (criteria.getMaxGasUsed() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("metadata").get("gasUsed"), criteria.getMaxGasUsed()));
+            }
+            if (criteria.getType() != null) {
+                predicates.add(cb.equal(root.get("type"), criteria.getType()));
+            }
+            if (criteria.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), criteria.getStatus()));
+            }
+            if (criteria.getAnonymous() != null) {
+                predicates.add(cb.equal(root.get("metadata").get("anonymous"), criteria.getAnonymous()));
+            }
+            if (criteria.getSince() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("timestamp"), criteria.getSince()));
+            }
+            if (criteria.getUntil() != null) {
+                predicates.add(cb.lessThan(root.get("timestamp"), criteria.getUntil()));
+            }
+            if (beforeTimestamp != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("timestamp"), beforeTimestamp),
+                        cb.and(cb.equal(root.get("timestamp"), beforeTimestamp), cb.lessThan(root.get("id"), beforeId))));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.repo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Interface projection the report streams withdrawals through, one keyset page at a time.
+ */
+public interface WithdrawalReportView {
+    Long getId();
+
+    String getTxHash();
+
+    Long getCharityId();
+
+    String getCharityName();
+
+    String getAmount();
+
+    String getFee();
+
+    String getNetAmount();
+
+    String getToAddress();
+
+    LocalDateTime getTimestamp();
+}
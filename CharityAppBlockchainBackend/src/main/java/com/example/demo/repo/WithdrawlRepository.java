@@ -1,14 +1,48 @@
 package com.example.demo.repo;
 
+import com.example.demo.dto.ActivityItemDto;
 import com.example.demo.entity.Withdrawal;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface WithdrawlRepository extends JpaRepository<Withdrawal, Long> {
     Optional<Withdrawal> findByTxHash(String txHash);
 
+    List<Withdrawal> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
     List<Withdrawal> findByCharityId(Long charityId);
+
+    // Activity feed: newest first on (timestamp, id) so it walks idx_withdrawals_to_activity
+    @Query("SELECT new com.example.demo.dto.ActivityItemDto('WITHDRAWAL', w.id, w.txHash, w.amount, w.timestamp, w.charityId, w.charityName) " +
+            "FROM Withdrawal w WHERE w.toAddress = :wallet " +
+            "ORDER BY w.timestamp DESC, w.id DESC")
+    List<ActivityItemDto> findActivityFirstPage(@Param("wallet") String wallet, Limit limit);
+
+    @Query("SELECT new com.example.demo.dto.ActivityItemDto('WITHDRAWAL', w.id, w.txHash, w.amount, w.timestamp, w.charityId, w.charityName) " +
+            "FROM Withdrawal w WHERE w.toAddress = :wallet " +
+            "AND (w.timestamp < :beforeTimestamp OR (w.timestamp = :beforeTimestamp AND w.id < :beforeId)) " +
+            "ORDER BY w.timestamp DESC, w.id DESC")
+    List<ActivityItemDto> findActivityPageBefore(@Param("wallet") String wallet,
+                                                 @Param("beforeTimestamp") LocalDateTime beforeTimestamp,
+                                                 @Param("beforeId") Long beforeId,
+                                                 Limit limit);
+
+    // Report stream over [from, to): ordered by (timestamp, id) so it walks idx_withdrawals_timestamp
+    @Query("SELECT w.id AS id, w.txHash AS txHash, w.charityId AS charityId, w.charityName AS charityName, " +
+            "w.amount AS amount, w.fee AS fee, w.netAmount AS netAmount, w.toAddress AS toAddress, w.timestamp AS timestamp " +
+            "FROM Withdrawal w WHERE w.timestamp >= :from AND w.timestamp < :to " +
+            "AND (w.timestamp > :afterTimestamp OR (w.timestamp = :afterTimestamp AND w.id > :afterId)) " +
+            "ORDER BY w.timestamp, w.id")
+    List<WithdrawalReportView> findReportPageAfter(@Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to,
+                                                   @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                                   @Param("afterId") Long afterId,
+                                                   Limit limit);
 }
 
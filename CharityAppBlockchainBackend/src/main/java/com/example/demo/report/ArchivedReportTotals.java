@@ -0,0 +1,269 @@
+package com.example.demo.report;
+
+import com.example.demo.entity.Campaign;
+import com.example.demo.entity.Donation;
+import com.example.demo.repo.ReportCampaignProgressView;
+import com.example.demo.repo.ReportCharityTotalView;
+import com.example.demo.repo.ReportDonorTotalView;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The report sections' totals over archived donations, summed in memory as the segments are scanned, and
+ * merged into the rows the database grouped. Memory grows with the number of charities, campaigns and donors
+ * in the range, not with the number of donations.
+ */
+final class ArchivedReportTotals {
+
+    private final Map<Long, CharityTotal> charities = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+    private final Map<Long, CampaignTotal> campaigns = new TreeMap<>();
+    private final Map<String, DonorTotal> donors = new HashMap<>();
+
+    void add(Donation donation) {
+        double eth = eth(donation.getAmount());
+        CharityTotal charity = charities.computeIfAbsent(donation.getCharityId(), CharityTotal::new);
+        charity.name = donation.getCharityName() != null ? donation.getCharityName() : charity.name;
+        charity.count++;
+        charity.eth += eth;
+        if (donation.getAmountInUSD() != null) {
+            charity.usd = charity.usd.add(donation.getAmountInUSD());
+        }
+        if (donation.getCampaignId() != null) {
+            CampaignTotal campaign = campaigns.computeIfAbsent(donation.getCampaignId(), id -> new CampaignTotal());
+            campaign.count++;
+            campaign.eth += eth;
+        }
+        if (!Boolean.TRUE.equals(donation.getIsAnonymous())) {
+            DonorTotal donor = donors.computeIfAbsent(donation.getDonorAddress(), DonorTotal::new);
+            donor.count++;
+            donor.eth += eth;
+        }
+    }
+
+    boolean isEmpty() {
+        return charities.isEmpty();
+    }
+
+    Collection<Long> campaignIds() {
+        return campaigns.keySet();
+    }
+
+    Collection<String> donorAddresses() {
+        return donors.keySet();
+    }
+
+    List<ReportCharityTotalView> mergeCharities(List<ReportCharityTotalView> hot) {
+        Map<Long, CharityTotal> merged = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+        for (ReportCharityTotalView row : hot) {
+            CharityTotal total = new CharityTotal(row.getCharityId());
+            total.name = row.getCharityName();
+            total.count = row.getDonationCount();
+            total.eth = row.getTotalEth() != null ? row.getTotalEth() : 0;
+            total.usd = row.getTotalUsd() != null ? row.getTotalUsd() : BigDecimal.ZERO;
+            merged.put(row.getCharityId(), total);
+        }
+        charities.forEach((id, archived) -> merged.merge(id, archived, (a, b) -> {
+            a.name = a.name != null ? a.name : b.name;
+            a.count += b.count;
+            a.eth += b.eth;
+            a.usd = a.usd.add(b.usd);
+            return a;
+        }));
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * @param campaignsOutsideHot the campaigns that have archived donations in the range but none in the table
+     */
+    List<ReportCampaignProgressView> mergeCampaigns(List<ReportCampaignProgressView> hot,
+                                                    Map<Long, Campaign> campaignsOutsideHot) {
+        Map<Long, ReportCampaignProgressView> merged = new TreeMap<>();
+        for (ReportCampaignProgressView row : hot) {
+            merged.put(row.getCampaignId(), row);
+        }
+        campaigns.forEach((id, archived) -> {
+            ReportCampaignProgressView row = merged.get(id);
+            if (row != null) {
+                double raised = row.getRaisedInRange() != null ? row.getRaisedInRange() : 0;
+                merged.put(id, new CampaignRow(id, row.getTitle(), row.getCharityName(), row.getStatus(),
+                        row.getGoalAmount(), row.getRaisedAmount(), row.getDonationCount() + archived.count,
+                        raised + archived.eth));
+                return;
+            }
+            Campaign campaign = campaignsOutsideHot.get(id);
+            // without its campaign row the database query leaves a donation out as well
+            if (campaign != null) {
+                merged.put(id, new CampaignRow(id, campaign.getTitle(), campaign.getCharityName(), campaign.getStatus(),
+                        campaign.getGoalAmount(), campaign.getRaisedAmount(), archived.count, archived.eth));
+            }
+        });
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * @param hotTop   the database's top donors
+     * @param hotOwn   the database totals of the donors with archived donations
+     */
+    List<ReportDonorTotalView> mergeDonors(List<ReportDonorTotalView> hotTop, List<ReportDonorTotalView> hotOwn, int limit) {
+        // a donor outside the database's top list can only rise above it with archived donations
+        Map<String, DonorTotal> merged = new LinkedHashMap<>();
+        for (ReportDonorTotalView row : hotTop) {
+            merged.put(row.getDonorAddress(), DonorTotal.of(row));
+        }
+        for (ReportDonorTotalView row : hotOwn) {
+            merged.putIfAbsent(row.getDonorAddress(), DonorTotal.of(row));
+        }
+        donors.forEach((address, archived) -> merged.merge(address, archived.copy(), (a, b) -> {
+            a.count += b.count;
+            a.eth += b.eth;
+            return a;
+        }));
+        return merged.values().stream()
+                .sorted(Comparator.comparingDouble((DonorTotal d) -> d.eth).reversed())
+                .limit(limit)
+                .map(ReportDonorTotalView.class::cast)
+                .toList();
+    }
+
+    private static double eth(String amount) {
+        try {
+            return amount != null ? Double.parseDouble(amount) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class CharityTotal implements ReportCharityTotalView {
+        final Long id;
+        String name;
+        long count;
+        double eth;
+        BigDecimal usd = BigDecimal.ZERO;
+
+        CharityTotal(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public Long getCharityId() {
+            return id;
+        }
+
+        @Override
+        public String getCharityName() {
+            return name;
+        }
+
+        @Override
+        public Long getDonationCount() {
+            return count;
+        }
+
+        @Override
+        public Double getTotalEth() {
+            return eth;
+        }
+
+        @Override
+        public BigDecimal getTotalUsd() {
+            return usd;
+        }
+    }
+
+    private static final class CampaignTotal {
+        long count;
+        double eth;
+    }
+
+    private record CampaignRow(Long campaignId, String title, String charityName, String status, Double goalAmount,
+                               Double raisedAmount, Long donationCount, Double raisedInRange)
+            implements ReportCampaignProgressView {
+
+        @Override
+        public Long getCampaignId() {
+            return campaignId;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+
+        @Override
+        public String getCharityName() {
+            return charityName;
+        }
+
+        @Override
+        public String getStatus() {
+            return status;
+        }
+
+        @Override
+        public Double getGoalAmount() {
+            return goalAmount;
+        }
+
+        @Override
+        public Double getRaisedAmount() {
+            return raisedAmount;
+        }
+
+        @Override
+        public Long getDonationCount() {
+            return donationCount;
+        }
+
+        @Override
+        public Double getRaisedInRange() {
+            return raisedInRange;
+        }
+    }
+
+    private static final class DonorTotal implements ReportDonorTotalView {
+        final String address;
+        long count;
+        double eth;
+
+        DonorTotal(String address) {
+            this.address = address;
+        }
+
+        static DonorTotal of(ReportDonorTotalView row) {
+            DonorTotal total = new DonorTotal(row.getDonorAddress());
+            total.count = row.getDonationCount();
+            total.eth = row.getTotalEth() != null ? row.getTotalEth() : 0;
+            return total;
+        }
+
+        DonorTotal copy() {
+            DonorTotal copy = new DonorTotal(address);
+            copy.count = count;
+            copy.eth = eth;
+            return copy;
+        }
+
+        @Override
+        public String getDonorAddress() {
+            return address;
+        }
+
+        @Override
+        public Long getDonationCount() {
+            return count;
+        }
+
+        @Override
+        public Double getTotalEth() {
+            return eth;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.report;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 4180 CSV; each section is a title line, a header row and its rows, separated by a blank line.
+ */
+class CsvReportWriter implements ReportWriter {
+
+    private final Writer out;
+
+    CsvReportWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+    }
+
+    @Override
+    public void title(String title, String subtitle) throws IOException {
+        line(title);
+        line(subtitle);
+        out.write("\r\n");
+    }
+
+    @Override
+    public void beginSection(String title, String... columns) throws IOException {
+        line(title);
+        row((Object[]) columns);
+    }
+
+    @Override
+    public void row(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            field(ReportWriter.text(values[i]));
+        }
+        out.write("\r\n");
+    }
+
+    @Override
+    public void endSection() throws IOException {
+        out.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    private void line(String value) throws IOException {
+        field(value);
+        out.write("\r\n");
+    }
+
+    private void field(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.report;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+
+import java.awt.Color;
+import java.io.OutputStream;
+
+/**
+ * Writes the report as a PDF straight to the response. Tables are added as incomplete large elements and
+ * flushed every FLUSH_ROWS rows, so finished pages go out to the stream instead of piling up in the table.
+ */
+class PdfReportWriter implements ReportWriter {
+
+    private static final int FLUSH_ROWS = 200;
+
+    private static final Font TITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
+    private static final Font SUBTITLE_FONT = FontFactory.getFont(FontFactory.HELVETICA, 11);
+    private static final Font SECTION_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 13);
+    private static final Font HEADER_FONT = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 8);
+    private static final Font CELL_FONT = FontFactory.getFont(FontFactory.HELVETICA, 7);
+
+    private final Document document;
+    private PdfPTable table;
+    private int pendingRows;
+
+    PdfReportWriter(OutputStream out) {
+        document = new Document(PageSize.A4.rotate(), 30, 30, 30, 30);
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        writer.setFullCompression();
+        writer.setCloseStream(false);
+        document.open();
+    }
+
+    @Override
+    public void title(String title, String subtitle) {
+        Paragraph heading = new Paragraph(title, TITLE_FONT);
+        heading.setAlignment(Element.ALIGN_CENTER);
+        add(heading);
+        Paragraph range = new Paragraph(subtitle, SUBTITLE_FONT);
+        range.setAlignment(Element.ALIGN_CENTER);
+        range.setSpacingAfter(10);
+        add(range);
+    }
+
+    @Override
+    public void beginSection(String title, String... columns) {
+        Paragraph heading = new Paragraph(title, SECTION_FONT);
+        heading.setSpacingBefore(12);
+        heading.setSpacingAfter(6);
+        add(heading);
+
+        table = new PdfPTable(columns.length);
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+        for (String column : columns) {
+            PdfPCell cell = new PdfPCell(new Phrase(column, HEADER_FONT));
+            cell.setBackgroundColor(new Color(230, 230, 230));
+            table.addCell(cell);
+        }
+        pendingRows = 0;
+    }
+
+    @Override
+    public void row(Object... values) {
+        for (Object value : values) {
+            table.addCell(new Phrase(ReportWriter.text(value), CELL_FONT));
+        }
+        if (++pendingRows == FLUSH_ROWS) {
+            add(table);
+            pendingRows = 0;
+        }
+    }
+
+    @Override
+    public void endSection() {
+        table.setComplete(true);
+        add(table);
+        table = null;
+    }
+
+    @Override
+    public void close() {
+        document.close();
+    }
+
+    private void add(Element element) {
+        try {
+            document.add(element);
+        } catch (DocumentException e) {
+            throw new IllegalStateException("Failed to render report", e);
+        }
+    }
+}
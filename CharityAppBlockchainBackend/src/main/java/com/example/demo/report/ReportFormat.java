@@ -0,0 +1,30 @@
+package com.example.demo.report;
+
+import org.springframework.http.MediaType;
+
+import java.io.OutputStream;
+
+public enum ReportFormat {
+    CSV("text/csv", "csv"),
+    PDF(MediaType.APPLICATION_PDF_VALUE, "pdf");
+
+    private final String contentType;
+    private final String extension;
+
+    ReportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    ReportWriter open(OutputStream out) {
+        return this == PDF ? new PdfReportWriter(out) : new CsvReportWriter(out);
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.demo.report;
+
+import com.example.demo.archive.ColdStorage;
+import com.example.demo.entity.Campaign;
+import com.example.demo.repo.CampaignRepo;
+import com.example.demo.repo.DonationRepository;
+import com.example.demo.repo.ReportCampaignProgressView;
+import com.example.demo.repo.ReportCharityTotalView;
+import com.example.demo.repo.ReportDonorTotalView;
+import com.example.demo.repo.WithdrawalReportView;
+import com.example.demo.repo.WithdrawlRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams the admin report for [from, to). The aggregate sections are grouped in the database and loaded
+ * concurrently while the report header is written; they are then written in order, followed by the
+ * withdrawals, which are read in keyset pages so memory stays bounded by the page size however long the
+ * range is. Archived donations in the range are summed from the segments alongside and merged into the
+ * aggregate sections. Generation time and bytes written are recorded as report.generation.time and
+ * report.bytes.written.
+ */
+@Service
+public class ReportService {
+
+    private static final int TOP_DONORS = 50;
+
+    private static final int DONOR_BATCH = 1000;
+
+    private final DonationRepository donationRepository;
+    private final WithdrawlRepository withdrawlRepository;
+    private final CampaignRepo campaignRepo;
+    private final ColdStorage coldStorage;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final int pageSize;
+
+    public ReportService(DonationRepository donationRepository,
+                         WithdrawlRepository withdrawlRepository,
+                         CampaignRepo campaignRepo,
+                         ColdStorage coldStorage,
+                         @Qualifier("dashboardExecutor") Executor executor,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.reports.page-size:1000}") int pageSize) {
+        this.donationRepository = donationRepository;
+        this.withdrawlRepository = withdrawlRepository;
+        this.campaignRepo = campaignRepo;
+        this.coldStorage = coldStorage;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.pageSize = pageSize;
+    }
+
+    public void writeReport(LocalDateTime from, LocalDateTime to, ReportFormat format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        String outcome = "error";
+
+        CompletableFuture<List<ReportCharityTotalView>> charities =
+                CompletableFuture.supplyAsync(() -> donationRepository.sumByCharity(from, to), executor);
+        CompletableFuture<List<ReportCampaignProgressView>> campaigns =
+                CompletableFuture.supplyAsync(() -> donationRepository.sumByCampaign(from, to), executor);
+        CompletableFuture<List<ReportDonorTotalView>> donors =
+                CompletableFuture.supplyAsync(() -> donationRepository.findTopDonors(from, to, Limit.of(TOP_DONORS)), executor);
+        CompletableFuture<ArchivedReportTotals> archived =
+                CompletableFuture.supplyAsync(() -> archivedTotals(from, to), executor);
+
+        try (ReportWriter writer = format.open(counting)) {
+            writer.title("ChainHeart Donation Report", "Period: " + from + " up to (excluding) " + to);
+            ArchivedReportTotals archive = archived.join();
+            if (archive.isEmpty()) {
+                writeCharityTotals(writer, charities.join());
+                writeCampaignProgress(writer, campaigns.join());
+                writeTopDonors(writer, donors.join());
+            } else {
+                writeCharityTotals(writer, archive.mergeCharities(charities.join()));
+                writeCampaignProgress(writer, mergeCampaigns(archive, campaigns.join()));
+                writeTopDonors(writer, archive.mergeDonors(donors.join(), hotTotalsOf(archive.donorAddresses(), from, to), TOP_DONORS));
+            }
+            writeWithdrawals(writer, from, to);
+            outcome = "ok";
+        } finally {
+            Timer.builder("report.generation.time")
+                    .tag("format", format.getExtension()).tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("report.bytes.written")
+                    .baseUnit("bytes")
+                    .tag("format", format.getExtension())
+                    .register(meterRegistry)
+                    .record(counting.count);
+        }
+    }
+
+    private ArchivedReportTotals archivedTotals(LocalDateTime from, LocalDateTime to) {
+        ArchivedReportTotals totals = new ArchivedReportTotals();
+        if (!coldStorage.getDonationSegments().isEmpty()) {
+            Long firstHotId = donationRepository.findMinId();
+            coldStorage.forEachDonation(from, to, firstHotId != null ? firstHotId : Long.MAX_VALUE,
+                    donationRepository::findExistingIds, totals::add);
+        }
+        return totals;
+    }
+
+    private List<ReportCampaignProgressView> mergeCampaigns(ArchivedReportTotals archive, List<ReportCampaignProgressView> hot) {
+        Set<Long> missing = new HashSet<>(archive.campaignIds());
+        hot.forEach(row -> missing.remove(row.getCampaignId()));
+        Map<Long, Campaign> campaigns = new HashMap<>();
+        campaignRepo.findAllById(missing).forEach(campaign -> campaigns.put(campaign.getId(), campaign));
+        return archive.mergeCampaigns(hot, campaigns);
+    }
+
+    private List<ReportDonorTotalView> hotTotalsOf(Collection<String> donors, LocalDateTime from, LocalDateTime to) {
+        List<String> addresses = new ArrayList<>(donors);
+        List<ReportDonorTotalView> totals = new ArrayList<>();
+        for (int i = 0; i < addresses.size(); i += DONOR_BATCH) {
+            totals.addAll(donationRepository.sumByDonors(from, to, addresses.subList(i, Math.min(i + DONOR_BATCH, addresses.size()))));
+        }
+        return totals;
+    }
+
+    private void writeCharityTotals(ReportWriter writer, List<ReportCharityTotalView> rows) throws IOException {
+        writer.beginSection("Per-charity totals", "Charity ID", "Charity", "Donations", "Total (ETH)", "Total (USD)");
+        for (ReportCharityTotalView row : rows) {
+            writer.row(row.getCharityId(), row.getCharityName(), row.getDonationCount(), row.getTotalEth(), row.getTotalUsd());
+        }
+        writer.endSection();
+    }
+
+    private void writeCampaignProgress(ReportWriter writer, List<ReportCampaignProgressView> rows) throws IOException {
+        writer.beginSection("Campaign progress", "Campaign ID", "Campaign", "Charity", "Status", "Goal",
+                "Raised (total)", "Donations in range", "Raised in range", "Progress %");
+        for (ReportCampaignProgressView row : rows) {
+            Double progress = row.getGoalAmount() != null && row.getGoalAmount() > 0
+                    ? row.getRaisedAmount() * 100 / row.getGoalAmount() : null;
+            writer.row(row.getCampaignId(), row.getTitle(), row.getCharityName(), row.getStatus(), row.getGoalAmount(),
+                    row.getRaisedAmount(), row.getDonationCount(), row.getRaisedInRange(), progress);
+        }
+        writer.endSection();
+    }
+
+    private void writeTopDonors(ReportWriter writer, List<ReportDonorTotalView> rows) throws IOException {
+        writer.beginSection("Top donors", "Rank", "Donor", "Donations", "Total (ETH)");
+        int rank = 0;
+        for (ReportDonorTotalView row : rows) {
+            writer.row(++rank, row.getDonorAddress(), row.getDonationCount(), row.getTotalEth());
+        }
+        writer.endSection();
+    }
+
+    private void writeWithdrawals(ReportWriter writer, LocalDateTime from, LocalDateTime to) throws IOException {
+        writer.beginSection("Withdrawals and fees", "Date", "Tx hash", "Charity ID", "Charity", "To",
+                "Amount (ETH)", "Fee (ETH)", "Net (ETH)");
+        BigDecimal amount = BigDecimal.ZERO;
+        BigDecimal fee = BigDecimal.ZERO;
+        BigDecimal net = BigDecimal.ZERO;
+        long count = 0;
+
+        // (from, 0) as the starting key matches every row at or after from, ids being positive
+        LocalDateTime afterTimestamp = from;
+        long afterId = 0;
+        List<WithdrawalReportView> page;
+        do {
+            page = withdrawlRepository.findReportPageAfter(from, to, afterTimestamp, afterId, Limit.of(pageSize));
+            for (WithdrawalReportView w : page) {
+                writer.row(w.getTimestamp(), w.getTxHash(), w.getCharityId(), w.getCharityName(), w.getToAddress(),
+                        w.getAmount(), w.getFee(), w.getNetAmount());
+                amount = amount.add(decimal(w.getAmount()));
+                fee = fee.add(decimal(w.getFee()));
+                net = net.add(decimal(w.getNetAmount()));
+                count++;
+            }
+            if (!page.isEmpty()) {
+                WithdrawalReportView last = page.get(page.size() - 1);
+                afterTimestamp = last.getTimestamp();
+                afterId = last.getId();
+            }
+        } while (page.size() == pageSize);
+
+        writer.row("Total", count + " withdrawals", null, null, null, amount, fee, net);
+        writer.endSection();
+    }
+
+    private static BigDecimal decimal(String value) {
+        if (value == null || value.isBlank()) {
+            return BigDecimal.ZERO;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return BigDecimal.ZERO;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
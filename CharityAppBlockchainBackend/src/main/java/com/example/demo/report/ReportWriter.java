@@ -0,0 +1,34 @@
+package com.example.demo.report;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Sink the report is written through, section by section and row by row. Implementations may buffer a
+ * bounded number of rows but never a whole section.
+ */
+interface ReportWriter extends Closeable {
+
+    void title(String title, String subtitle) throws IOException;
+
+    void beginSection(String title, String... columns) throws IOException;
+
+    void row(Object... values) throws IOException;
+
+    void endSection() throws IOException;
+
+    static String text(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Double d) {
+            return BigDecimal.valueOf(d).setScale(6, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+        }
+        if (value instanceof BigDecimal d) {
+            return d.toPlainString();
+        }
+        return value.toString();
+    }
+}
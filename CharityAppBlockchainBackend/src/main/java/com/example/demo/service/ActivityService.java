@@ -0,0 +1,174 @@
+package com.example.demo.service;
+
+import com.example.demo.archive.ColdStorage;
+import com.example.demo.dto.ActivityItemDto;
+import com.example.demo.dto.KeysetPageDto;
+import com.example.demo.repo.DonationRepository;
+import com.example.demo.repo.TransactionRepository;
+import com.example.demo.repo.WithdrawlRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Per-wallet activity feed, newest first. Each source (donations made, transactions sent, withdrawals received)
+ * is read as an index-ordered keyset page of at most size + 1 rows, and the pages are k-way merged on
+ * (timestamp desc, source, id desc). A page never touches more than 3 * (size + 1) rows, however long the
+ * wallet's history is. Donations and transactions that have been archived are read from the segments' wallet
+ * index and merged into their source's page, so the feed reaches back past app.archive.older-than-days.
+ * <p>
+ * The cursor is timestamp_source_id of the last item returned, source being the ordinal in {@link Source}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActivityService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final Comparator<ActivityItemDto> FEED_ORDER = Comparator
+            .comparing(ActivityItemDto::getTimestamp, Comparator.reverseOrder())
+            .thenComparingInt(item -> Source.valueOf(item.getType()).ordinal())
+            .thenComparing(ActivityItemDto::getId, Comparator.reverseOrder());
+
+    private final DonationRepository donationRepository;
+    private final TransactionRepository transactionRepository;
+    private final WithdrawlRepository withdrawlRepository;
+    private final ColdStorage coldStorage;
+
+    enum Source { DONATION, TRANSACTION, WITHDRAWAL }
+
+    @Transactional(readOnly = true)
+    public KeysetPageDto<ActivityItemDto> getActivity(String walletAddress, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1); // one extra item tells us whether there is a next page
+        Cursor after = cursor == null || cursor.isBlank() ? null : Cursor.parse(cursor);
+
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> FEED_ORDER.compare(a.item, b.item));
+        for (Source source : Source.values()) {
+            List<ActivityItemDto> rows = withArchived(source, walletAddress, after,
+                    fetch(source, walletAddress, after, limit), limit.max());
+            Head head = new Head(rows.iterator());
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+
+        List<ActivityItemDto> items = new ArrayList<>(pageSize + 1);
+        while (items.size() <= pageSize && !heads.isEmpty()) {
+            Head head = heads.poll();
+            items.add(head.item);
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+
+        if (items.size() <= pageSize) {
+            return new KeysetPageDto<>(items, null);
+        }
+        List<ActivityItemDto> page = items.subList(0, pageSize);
+        ActivityItemDto last = page.get(pageSize - 1);
+        return new KeysetPageDto<>(page,
+                last.getTimestamp() + "_" + Source.valueOf(last.getType()).ordinal() + "_" + last.getId());
+    }
+
+    private List<ActivityItemDto> fetch(Source source, String wallet, Cursor after, Limit limit) {
+        if (after == null) {
+            return switch (source) {
+                case DONATION -> donationRepository.findActivityFirstPage(wallet, limit);
+                case TRANSACTION -> transactionRepository.findActivityFirstPage(wallet, limit);
+                case WITHDRAWAL -> withdrawlRepository.findActivityFirstPage(wallet, limit);
+            };
+        }
+        long beforeId = after.beforeId(source);
+        return switch (source) {
+            case DONATION -> donationRepository.findActivityPageBefore(wallet, after.timestamp(), beforeId, limit);
+            case TRANSACTION -> transactionRepository.findActivityPageBefore(wallet, after.timestamp(), beforeId, limit);
+            case WITHDRAWAL -> withdrawlRepository.findActivityPageBefore(wallet, after.timestamp(), beforeId, limit);
+        };
+    }
+
+    // the source's page over table and segments together; a row an interrupted archival run left in both counts once
+    private List<ActivityItemDto> withArchived(Source source, String wallet, Cursor after, List<ActivityItemDto> hot, int limit) {
+        List<ActivityItemDto> archived = new ArrayList<>();
+        switch (source) {
+            case DONATION -> coldStorage.findDonationsByDonor(wallet).forEach(d -> archived.add(new ActivityItemDto(
+                    Source.DONATION.name(), d.getId(), d.getTxHash(), d.getAmount(), d.getTimestamp(), d.getCharityId(),
+                    d.getCharityName())));
+            case TRANSACTION -> coldStorage.findTransactionsByWallet(wallet).forEach(t -> archived.add(new ActivityItemDto(
+                    Source.TRANSACTION.name(), t.getId(), t.getTxHash(), t.getAmount(), t.getTimestamp(), t.getCharityId(),
+                    t.getType())));
+            case WITHDRAWAL -> {
+                return hot; // withdrawals are not archived
+            }
+        }
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        Set<Long> hotIds = new HashSet<>();
+        hot.forEach(item -> hotIds.add(item.getId()));
+        List<ActivityItemDto> merged = new ArrayList<>(hot);
+        for (ActivityItemDto item : archived) {
+            if (item.getTimestamp() != null && (after == null || after.admits(source, item)) && !hotIds.contains(item.getId())) {
+                merged.add(item);
+            }
+        }
+        merged.sort(FEED_ORDER);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private record Cursor(LocalDateTime timestamp, int source, long id) {
+
+        static Cursor parse(String cursor) {
+            String[] parts = cursor.split("_");
+            if (parts.length != 3) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+            }
+            try {
+                return new Cursor(LocalDateTime.parse(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+            }
+        }
+
+        // Sources ordered before the cursor's only continue below its timestamp, the cursor's own source continues
+        // below its id, and sources ordered after it may still have rows at exactly that timestamp.
+        long beforeId(Source other) {
+            return other.ordinal() < source ? Long.MIN_VALUE
+                    : other.ordinal() == source ? id
+                    : Long.MAX_VALUE;
+        }
+
+        boolean admits(Source other, ActivityItemDto item) {
+            return item.getTimestamp().isBefore(timestamp)
+                    || (item.getTimestamp().isEqual(timestamp) && item.getId() < beforeId(other));
+        }
+    }
+
+    private static class Head {
+
+        private final Iterator<ActivityItemDto> rows;
+        private ActivityItemDto item;
+
+        Head(Iterator<ActivityItemDto> rows) {
+            this.rows = rows;
+        }
+
+        boolean advance() {
+            item = rows.hasNext() ? rows.next() : null;
+            return item != null;
+        }
+    }
+}
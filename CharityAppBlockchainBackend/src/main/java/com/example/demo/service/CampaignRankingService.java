@@ -0,0 +1,344 @@
+package com.example.demo.service;
+
+import com.example.demo.archive.ColdStorage;
+import com.example.demo.archive.SegmentSchema;
+import com.example.demo.cluster.ClusterChangeLog;
+import com.example.demo.dto.RankedCampaignDto;
+import com.example.demo.entity.Campaign;
+import com.example.demo.entity.ClusterChange;
+import com.example.demo.entity.Donation;
+import com.example.demo.journal.EventJournal;
+import com.example.demo.journal.JournalEvent;
+import com.example.demo.repo.CampaignAmountView;
+import com.example.demo.repo.CampaignDonationView;
+import com.example.demo.repo.CampaignDonorView;
+import com.example.demo.repo.CampaignRepo;
+import com.example.demo.repo.DonationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory campaign rankings for the homepage: trending, almost funded and newest, each kept as an ordered
+ * skip list of active campaigns. A donation touches one campaign and moves its entries, O(log n); reading the
+ * top K walks the head of a list, O(K), without a database query.
+ * <p>
+ * Trending uses forward decay: a donation at time t adds weight * e^(lambda * (t - LANDMARK)), where the weight
+ * is the amount plus a bonus when the donor is new to the campaign. Every score shrinks by the same factor as
+ * time passes, so the order never has to be recomputed; scores are kept as logarithms so they cannot overflow.
+ * <p>
+ * At startup totals and donor sets are seeded from the donations table and cold storage, and trending scores
+ * from the donations of the last SEED_HALF_LIVES half-lives (older ones would add less than a millionth of their
+ * amount), so every node starts from the same numbers. After that the rankings follow the event journal, which
+ * sees every donation committed on this node however it was ingested, and the {@link ClusterChangeLog} for
+ * campaigns and donations written by other nodes.
+ */
+@Slf4j
+@Service
+public class CampaignRankingService {
+
+    private static final int MAX_LIMIT = 50;
+    private static final long LANDMARK = LocalDateTime.of(2024, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final int SEED_HALF_LIVES = 20;
+
+    private static final Comparator<Entry> BY_KEY_DESC = Comparator
+            .comparingDouble(Entry::key).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::id).reversed());
+
+    private final CampaignRepo campaignRepo;
+    private final EventJournal eventJournal;
+    private final DonationRepository donationRepository;
+    private final ClusterChangeLog clusterChangeLog;
+    private final ColdStorage coldStorage;
+    private final double lambda;
+    private final double newDonorWeight;
+
+    private final ConcurrentHashMap<Long, State> campaigns = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> trending = new ConcurrentSkipListSet<>(BY_KEY_DESC);
+    // key is the funded fraction, so the head is the campaign closest to its goal
+    private final ConcurrentSkipListSet<Entry> almostFunded = new ConcurrentSkipListSet<>(BY_KEY_DESC);
+    // ids are assigned in creation order
+    private final ConcurrentSkipListSet<Entry> newest = new ConcurrentSkipListSet<>(BY_KEY_DESC);
+
+    // donations committed while the seed queries run; null once seeded
+    private final Object seedLock = new Object();
+    private List<Donation> arrivedWhileSeeding;
+
+    @Autowired
+    public CampaignRankingService(CampaignRepo campaignRepo,
+                                  EventJournal eventJournal,
+                                  DonationRepository donationRepository,
+                                  ClusterChangeLog clusterChangeLog,
+                                  ColdStorage coldStorage,
+                                  @Value("${app.trending.half-life-hours:24}") double halfLifeHours,
+                                  @Value("${app.trending.new-donor-weight:0.05}") double newDonorWeight) {
+        this.campaignRepo = campaignRepo;
+        this.eventJournal = eventJournal;
+        this.donationRepository = donationRepository;
+        this.clusterChangeLog = clusterChangeLog;
+        this.coldStorage = coldStorage;
+        this.lambda = Math.log(2) / (halfLifeHours * 3600);
+        this.newDonorWeight = newDonorWeight;
+    }
+
+    @PostConstruct
+    void load() {
+        long start = System.currentTimeMillis();
+        campaignRepo.findAllByStatus("ACTIVE").forEach(this::onCampaignSaved);
+        // subscribed before the seed reads, so nothing committed meanwhile is lost; what it already counted is dropped
+        synchronized (seedLock) {
+            arrivedWhileSeeding = new ArrayList<>();
+        }
+        eventJournal.subscribe(this::onEvent);
+        clusterChangeLog.subscribe(this::onRemoteChange);
+        long seededUpTo = seed();
+        List<Donation> arrived;
+        synchronized (seedLock) {
+            arrived = arrivedWhileSeeding;
+            arrivedWhileSeeding = null;
+        }
+        arrived.stream().filter(d -> d.getId() == null || d.getId() > seededUpTo).forEach(this::onDonation);
+        log.info("Campaign rankings seeded for {} campaigns up to donation {} in {} ms",
+                campaigns.size(), seededUpTo, System.currentTimeMillis() - start);
+    }
+
+    // returns the id up to which the donations table was read
+    private long seed() {
+        Long maxId = donationRepository.findMaxId();
+        long upTo = maxId != null ? maxId : 0;
+        long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        LocalDateTime since = LocalDateTime.ofEpochSecond(now - (long) (SEED_HALF_LIVES * Math.log(2) / lambda), 0, ZoneOffset.UTC);
+
+        for (CampaignAmountView row : donationRepository.countCampaignAmounts(upTo)) {
+            double amount = parseAmount(row.getAmount());
+            if (amount >= 0) {
+                State state = campaigns.computeIfAbsent(row.getCampaignId(), State::new);
+                synchronized (state) {
+                    state.raisedAmount += amount * row.getDonationCount();
+                }
+            }
+        }
+        for (CampaignDonorView row : donationRepository.findCampaignDonors(upTo)) {
+            State state = campaigns.computeIfAbsent(row.getCampaignId(), State::new);
+            synchronized (state) {
+                state.donors.add(row.getDonorAddress());
+                // the new-donor bonus, at the donor's first donation to the campaign
+                if (newDonorWeight > 0 && row.getFirstDonationAt() != null && !row.getFirstDonationAt().isBefore(since)) {
+                    addScore(state, newDonorWeight, row.getFirstDonationAt(), now);
+                }
+            }
+        }
+        for (CampaignDonationView row : donationRepository.findCampaignDonationsSince(since, upTo)) {
+            double amount = parseAmount(row.getAmount());
+            if (amount > 0) {
+                State state = campaigns.computeIfAbsent(row.getCampaignId(), State::new);
+                synchronized (state) {
+                    addScore(state, amount, row.getTimestamp(), now);
+                }
+            }
+        }
+        for (State state : campaigns.values()) {
+            synchronized (state) {
+                reindex(state);
+            }
+        }
+
+        // archived rows an interrupted archival left in the table were counted above
+        Long minId = donationRepository.findMinId();
+        coldStorage.forEachDonation(null, null, minId != null ? minId : Long.MAX_VALUE,
+                donationRepository::findExistingIds, this::onDonation);
+        return upTo;
+    }
+
+    public void onCampaignSaved(Campaign campaign) {
+        if (campaign.getId() == null) {
+            return;
+        }
+        State state = campaigns.computeIfAbsent(campaign.getId(), State::new);
+        synchronized (state) {
+            state.title = campaign.getTitle();
+            state.charityName = campaign.getCharityName();
+            state.walletAddress = campaign.getWalletAddress();
+            state.goalAmount = campaign.getGoalAmount();
+            state.active = "ACTIVE".equals(campaign.getStatus());
+            reindex(state);
+        }
+    }
+
+    public void onCampaignsEnded(Collection<Long> ids) {
+        for (Long id : ids) {
+            State state = campaigns.get(id);
+            if (state != null) {
+                synchronized (state) {
+                    state.active = false;
+                    reindex(state);
+                }
+            }
+        }
+    }
+
+    public void onDonation(Donation donation) {
+        if (donation.getCampaignId() == null) {
+            return;
+        }
+        double amount = parseAmount(donation.getAmount());
+        if (!(amount >= 0)) {
+            return;
+        }
+        long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+
+        State state = campaigns.computeIfAbsent(donation.getCampaignId(), State::new);
+        synchronized (state) {
+            double weight = amount;
+            if (donation.getDonorAddress() != null && state.donors.add(donation.getDonorAddress())) {
+                weight += newDonorWeight;
+            }
+            state.raisedAmount += amount;
+            if (weight > 0) {
+                addScore(state, weight, donation.getTimestamp(), now);
+            }
+            reindex(state);
+        }
+    }
+
+    public List<RankedCampaignDto> getTrending(int limit) {
+        return top(trending, limit);
+    }
+
+    public List<RankedCampaignDto> getAlmostFunded(int limit) {
+        return top(almostFunded, limit);
+    }
+
+    public List<RankedCampaignDto> getNewest(int limit) {
+        return top(newest, limit);
+    }
+
+    private void onEvent(JournalEvent event) {
+        if (event.getSchema() == SegmentSchema.DONATIONS) {
+            onCommittedDonation((Donation) event.getEntity());
+        }
+    }
+
+    private void onCommittedDonation(Donation donation) {
+        synchronized (seedLock) {
+            if (arrivedWhileSeeding != null) {
+                arrivedWhileSeeding.add(donation);
+                return;
+            }
+        }
+        onDonation(donation);
+    }
+
+    private void onRemoteChange(Class<?> entity, ClusterChange.Operation operation, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (entity == Campaign.class) {
+            campaignRepo.findAllById(ids).forEach(this::onCampaignSaved);
+        } else if (entity == Donation.class && operation == ClusterChange.Operation.INSERT) {
+            donationRepository.findAllById(ids).forEach(this::onCommittedDonation);
+        }
+    }
+
+    // caller holds the state's lock; a donation without a timestamp, or one from the future, counts as now
+    private void addScore(State state, double weight, LocalDateTime timestamp, long now) {
+        long at = timestamp != null ? Math.min(timestamp.toEpochSecond(ZoneOffset.UTC), now) : now;
+        state.logScore = logAddExp(state.logScore, Math.log(weight) + lambda * (at - LANDMARK));
+    }
+
+    // NaN for what POST /api/donations let through but is no amount
+    private static double parseAmount(String amount) {
+        try {
+            return Double.parseDouble(amount);
+        } catch (NumberFormatException | NullPointerException e) {
+            return Double.NaN;
+        }
+    }
+
+    // caller holds the state's lock
+    private void reindex(State state) {
+        remove(trending, state.trendingEntry);
+        remove(almostFunded, state.fundedEntry);
+        remove(newest, state.newestEntry);
+        state.trendingEntry = state.fundedEntry = state.newestEntry = null;
+        if (!state.active) {
+            return;
+        }
+        state.newestEntry = add(newest, new Entry(state.id, state.id));
+        if (state.logScore > Double.NEGATIVE_INFINITY) {
+            state.trendingEntry = add(trending, new Entry(state.id, state.logScore));
+        }
+        if (state.goalAmount > 0 && state.raisedAmount < state.goalAmount) {
+            state.fundedEntry = add(almostFunded, new Entry(state.id, state.raisedAmount / state.goalAmount));
+        }
+    }
+
+    private List<RankedCampaignDto> top(ConcurrentSkipListSet<Entry> view, int limit) {
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        double decay = lambda * (LocalDateTime.now().toEpochSecond(ZoneOffset.UTC) - LANDMARK);
+        List<RankedCampaignDto> result = new ArrayList<>(k);
+        for (Iterator<Entry> it = view.iterator(); it.hasNext() && result.size() < k; ) {
+            State state = campaigns.get(it.next().id());
+            synchronized (state) {
+                result.add(new RankedCampaignDto(state.id, state.title, state.charityName, state.walletAddress,
+                        state.goalAmount, state.raisedAmount, state.donors.size(), Math.exp(state.logScore - decay)));
+            }
+        }
+        return result;
+    }
+
+    private static Entry add(ConcurrentSkipListSet<Entry> view, Entry entry) {
+        view.add(entry);
+        return entry;
+    }
+
+    private static void remove(ConcurrentSkipListSet<Entry> view, Entry entry) {
+        if (entry != null) {
+            view.remove(entry);
+        }
+    }
+
+    static double logAddExp(double a, double b) {
+        if (a == Double.NEGATIVE_INFINITY) {
+            return b;
+        }
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(Math.min(a, b) - max));
+    }
+
+    private record Entry(long id, double key) {
+    }
+
+    private static final class State {
+        final long id;
+        final Set<String> donors = new HashSet<>();
+        String title;
+        String charityName;
+        String walletAddress;
+        double goalAmount;
+        boolean active;
+        double raisedAmount;
+        double logScore = Double.NEGATIVE_INFINITY;
+        Entry trendingEntry;
+        Entry fundedEntry;
+        Entry newestEntry;
+
+        State(long id) {
+            this.id = id;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.demo.service;
 
 import com.example.demo.entity.Campaign;
+import com.example.demo.expiry.CampaignExpiryScheduler;
 import com.example.demo.repo.CampaignRepo;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -13,15 +15,27 @@ public class CampaignService {
     @Autowired
     private CampaignRepo cr;
 
+    @Autowired
+    private CampaignRankingService campaignRankingService;
+
+    @Autowired
+    private CampaignExpiryScheduler campaignExpiryScheduler;
+
     public Campaign saveCampaign(Campaign campaign) {
-        return cr.save(campaign);
+        CampaignExpiryScheduler.assignDeadline(campaign);
+        Campaign saved = cr.save(campaign);
+        campaignExpiryScheduler.schedule(saved);
+        campaignRankingService.onCampaignSaved(saved);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<Campaign> getCampaignByWallet(String walletAddress) {
 
         return cr.findAllByWalletAddress(walletAddress);
     }
 
+    @Transactional(readOnly = true)
     public List<Campaign> getCampaignByActive() {
         return cr.findAllByStatus("ACTIVE");
     }
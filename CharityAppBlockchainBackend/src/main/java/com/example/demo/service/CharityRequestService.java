@@ -1,44 +1,115 @@
 package com.example.demo.service;
 
+import com.example.demo.cluster.ClusterChangeLog;
+import com.example.demo.dto.BulkStatusResultDto;
 import com.example.demo.dto.CharityRequestDto;
+import com.example.demo.dto.CharityRequestSummaryDto;
+import com.example.demo.dto.KeysetPageDto;
 import com.example.demo.entity.CharityRequest;
+import com.example.demo.entity.ClusterChange;
 import com.example.demo.mapper.CharityReqMapper;
 import com.example.demo.repo.CharityRequestRepo;
+import com.example.demo.repo.CharityRequestStatusView;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class CharityRequestService {
 
+    private static final int MAX_QUEUE_PAGE_SIZE = 100;
+
     @Autowired
     private CharityRequestRepo charityRequestRepo;
     @Autowired
     ImageService imageService;
 
+    @Lazy // mail is only used on approval
     @Autowired
     private JavaMailSender jms;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ClusterChangeLog clusterChangeLog;
+
     public CharityRequest saveRequest(CharityRequest charityRequest) {
         return charityRequestRepo.save(charityRequest);
     }
 
+    @Transactional(readOnly = true)
     public List<CharityRequestDto> getAllCharities() {
-        List<CharityRequest> clist = charityRequestRepo.findAll();
-        return clist.stream().map(CharityReqMapper::mapToDto).collect(Collectors.toList());
+        return charityRequestRepo.findAllDtos();
+    }
+
+    /**
+     * Keyset-paginated review queue. The cursor is the (submittedAt, id) of the last row of the previous page,
+     * so every page is an index range scan no matter how deep the admin pages.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDto<CharityRequestSummaryDto> getReviewQueue(CharityRequest.RequestStatus status, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_QUEUE_PAGE_SIZE));
+        Limit limit = Limit.of(pageSize + 1); // one extra row tells us whether there is a next page
+
+        List<CharityRequestSummaryDto> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = charityRequestRepo.findQueueFirstPage(status, limit);
+        } else {
+            int sep = cursor.lastIndexOf('_');
+            if (sep < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+            }
+            try {
+                LocalDateTime afterSubmittedAt = LocalDateTime.parse(cursor.substring(0, sep));
+                long afterId = Long.parseLong(cursor.substring(sep + 1));
+                rows = charityRequestRepo.findQueuePageAfter(status, afterSubmittedAt, afterId, limit);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+            }
+        }
+
+        if (rows.size() <= pageSize) {
+            return new KeysetPageDto<>(rows, null);
+        }
+        List<CharityRequestSummaryDto> page = rows.subList(0, pageSize);
+        CharityRequestSummaryDto last = page.get(pageSize - 1);
+        return new KeysetPageDto<>(page, last.getRequestedTimeStamp() + "_" + last.getId());
     }
 
+    @Transactional(readOnly = true)
     public CharityRequestDto getCharityById(long charityId) {
         CharityRequest charityRequest = charityRequestRepo.getReferenceById(charityId);
         return CharityReqMapper.mapToDto(charityRequest);
 
     }
 
+    @Transactional(readOnly = true)
+    public CharityRequestDto getCharityByWallet(String walletAddress) {
+        return charityRequestRepo.findDtosByWalletAddress(walletAddress, Limit.of(1)).stream()
+                .findFirst()
+                .orElse(null);
+    }
+
     public CharityRequestDto updateCharityByIdByUser(long charityId, CharityRequestDto charityRequestDto, boolean logoChange) {
 
         CharityRequest charityRequest = charityRequestRepo.getReferenceById(charityId);
@@ -61,11 +132,7 @@ public class CharityRequestService {
         CharityRequest cr = charityRequestRepo.getReferenceById(charityId);
 
         cr.setStatus(CharityRequest.RequestStatus.APPROVED);
-        SimpleMailMessage mail = new SimpleMailMessage();
-        mail.setTo(cr.getEmail());
-        mail.setSubject("Welcome to Charity App");
-        mail.setText("Congratulations your request to register charity has been approved.");
-        jms.send(mail);
+        jms.send(approvalMail(cr.getEmail()));
     }
 
     @Transactional
@@ -74,6 +141,62 @@ public class CharityRequestService {
         cr.setStatus(CharityRequest.RequestStatus.REJECTED);
     }
 
+    /**
+     * Applies one status to many requests with a single set-based UPDATE, then sends all approval mails
+     * in one batch over a single SMTP connection once the update has committed.
+     */
+    public List<BulkStatusResultDto> updateStatusInBulk(List<Long> ids, CharityRequest.RequestStatus status) {
+        if (ids == null || ids.isEmpty() || status == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids and status are required");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        Map<Long, BulkStatusResultDto> results = new HashMap<>();
+        List<String> recipients = new ArrayList<>();
+        List<Long> recipientIds = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            List<Long> toUpdate = new ArrayList<>();
+            for (CharityRequestStatusView view : charityRequestRepo.findByIdIn(requested)) {
+                if (view.getStatus() == status) {
+                    results.put(view.getId(), new BulkStatusResultDto(view.getId(), BulkStatusResultDto.Outcome.UNCHANGED));
+                    continue;
+                }
+                toUpdate.add(view.getId());
+                results.put(view.getId(), new BulkStatusResultDto(view.getId(), BulkStatusResultDto.Outcome.UPDATED));
+                if (status == CharityRequest.RequestStatus.APPROVED) {
+                    recipients.add(view.getEmail());
+                    recipientIds.add(view.getId());
+                }
+            }
+            if (!toUpdate.isEmpty()) {
+                charityRequestRepo.updateStatusByIds(toUpdate, status);
+                clusterChangeLog.record(CharityRequest.class, ClusterChange.Operation.UPDATE, toUpdate);
+            }
+        });
+
+        if (!recipients.isEmpty()) {
+            SimpleMailMessage[] mails = recipients.stream().map(this::approvalMail).toArray(SimpleMailMessage[]::new);
+            try {
+                jms.send(mails);
+            } catch (MailSendException e) {
+                Map<Object, Exception> failed = e.getFailedMessages();
+                for (int i = 0; i < mails.length; i++) {
+                    if (failed.isEmpty() || failed.containsKey(mails[i])) {
+                        results.get(recipientIds.get(i)).setOutcome(BulkStatusResultDto.Outcome.MAIL_FAILED);
+                    }
+                }
+            } catch (MailException e) {
+                recipientIds.forEach(id -> results.get(id).setOutcome(BulkStatusResultDto.Outcome.MAIL_FAILED));
+            }
+        }
+
+        List<BulkStatusResultDto> ordered = new ArrayList<>(requested.size());
+        for (Long id : requested) {
+            ordered.add(results.getOrDefault(id, new BulkStatusResultDto(id, BulkStatusResultDto.Outcome.NOT_FOUND)));
+        }
+        return ordered;
+    }
+
     @Transactional
     public CharityRequestDto updateChairtyByAdmin(long charityId, CharityRequest.RequestStatus status) {
         CharityRequest charityRequest = charityRequestRepo.getReferenceById(charityId);
@@ -88,6 +211,14 @@ public class CharityRequestService {
         charityRequestRepo.deleteById(charityId);
     }
 
+    private SimpleMailMessage approvalMail(String email) {
+        SimpleMailMessage mail = new SimpleMailMessage();
+        mail.setTo(email);
+        mail.setSubject("Welcome to Charity App");
+        mail.setText("Congratulations your request to register charity has been approved.");
+        return mail;
+    }
+
     public boolean checkPhotoUrlChange(long charityId, String logoUrl) {
         if (logoUrl == null) {
             return false;
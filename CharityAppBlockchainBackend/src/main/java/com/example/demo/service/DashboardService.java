@@ -0,0 +1,112 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AdminDashboardDto;
+import com.example.demo.dto.CharityDashboardDto;
+import com.example.demo.entity.CharityRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Composes the dashboards from the individual services. Each section runs concurrently in its own
+ * read-only transaction whose timeout is the section timeout, so its statements are cancelled by the
+ * driver rather than left holding a connection; a slow or failing section is reported in failedSections
+ * instead of failing the whole dashboard.
+ */
+@Service
+public class DashboardService {
+
+    private static final int ADMIN_PENDING_PAGE_SIZE = 20;
+    private static final int ADMIN_LEADERBOARD_SIZE = 10;
+
+    private final DonationService donationService;
+    private final CampaignService campaignService;
+    private final CharityRequestService charityRequestService;
+    private final TransactionService transactionService;
+    private final Executor executor;
+    private final TransactionTemplate sectionTransaction;
+    private final long sectionTimeoutMillis;
+
+    public DashboardService(DonationService donationService,
+                            CampaignService campaignService,
+                            CharityRequestService charityRequestService,
+                            TransactionService transactionService,
+                            @Qualifier("dashboardExecutor") Executor executor,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.dashboard.section-timeout-ms:2000}") long sectionTimeoutMillis) {
+        this.donationService = donationService;
+        this.campaignService = campaignService;
+        this.charityRequestService = charityRequestService;
+        this.transactionService = transactionService;
+        this.executor = executor;
+        this.sectionTransaction = new TransactionTemplate(transactionManager);
+        this.sectionTransaction.setReadOnly(true);
+        // whole seconds only; the section's own timer still answers the dashboard at sectionTimeoutMillis
+        this.sectionTransaction.setTimeout((int) Math.max(1, (sectionTimeoutMillis + 999) / 1000));
+        this.sectionTimeoutMillis = sectionTimeoutMillis;
+    }
+
+    public CharityDashboardDto getCharityDashboard(String walletAddress, Long charityId) {
+        CharityDashboardDto dashboard = new CharityDashboardDto();
+        List<String> failed = Collections.synchronizedList(dashboard.getFailedSections());
+
+        CompletableFuture.allOf(
+                section("charity", () -> charityRequestService.getCharityByWallet(walletAddress), dashboard::setCharity, failed),
+                section("statistics", donationService::getPlatformStatistics, dashboard::setStatistics, failed),
+                section("campaigns", () -> campaignService.getCampaignByWallet(walletAddress), dashboard::setCampaigns, failed),
+                section("donations", () -> charityId != null ? donationService.getCharityDonations(charityId) : List.of(),
+                        dashboard::setDonations, failed),
+                section("transactions", () -> transactionService.getUserTransactions(walletAddress), dashboard::setTransactions, failed)
+        ).join();
+        return dashboard;
+    }
+
+    public AdminDashboardDto getAdminDashboard() {
+        AdminDashboardDto dashboard = new AdminDashboardDto();
+        List<String> failed = Collections.synchronizedList(dashboard.getFailedSections());
+
+        CompletableFuture.allOf(
+                section("statistics", donationService::getPlatformStatistics, dashboard::setStatistics, failed),
+                section("pendingRequests", () -> charityRequestService.getReviewQueue(
+                        CharityRequest.RequestStatus.PENDING, null, ADMIN_PENDING_PAGE_SIZE), dashboard::setPendingRequests, failed),
+                section("activeCampaigns", campaignService::getCampaignByActive, dashboard::setActiveCampaigns, failed),
+                section("leaderboard", () -> donationService.getDonorLeaderboard(ADMIN_LEADERBOARD_SIZE), dashboard::setLeaderboard, failed)
+        ).join();
+        return dashboard;
+    }
+
+    private <T> CompletableFuture<Void> section(String name, Supplier<T> loader, Consumer<T> setter, List<String> failed) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        CompletableFuture.runAsync(() -> {
+            // a section that timed out while still queued is not worth a connection any more
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                result.complete(sectionTransaction.execute(status -> loader.get()));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, executor);
+        return result
+                .orTimeout(sectionTimeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((value, error) -> {
+                    if (error != null) {
+                        failed.add(name);
+                    } else {
+                        setter.accept(value);
+                    }
+                    return null;
+                });
+    }
+}
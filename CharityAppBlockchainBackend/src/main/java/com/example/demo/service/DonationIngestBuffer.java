@@ -0,0 +1,222 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DonationDTO;
+import com.example.demo.entity.Donation;
+import com.example.demo.ratelimit.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-behind ingest for POST /api/donations (app.donations.ingest-mode=buffered).
+ * <p>
+ * Requests are validated, appended to a bounded in-memory queue and answered with 202. A single writer
+ * thread drains the queue and commits up to batch-size rows, or whatever arrived within max-wait-ms,
+ * in one transaction, so a burst pays for one commit per group instead of one per donation.
+ * <p>
+ * Durability: a 202 means "accepted", not "stored". Rows still in the queue are lost if the process dies
+ * without a graceful shutdown (at most queue-capacity donations). The donation itself lives on-chain and
+ * txHash is unique, so clients may safely resubmit anything they cannot find via /api/donations/receipt/{txHash}.
+ * On graceful shutdown the queue stops accepting and is drained completely before the datasource closes.
+ */
+@Slf4j
+@Component
+public class DonationIngestBuffer implements SmartLifecycle {
+
+    private final DonationService donationService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long maxWaitMillis;
+    private final BlockingQueue<Donation> queue;
+    private final Set<String> pendingTxHashes = ConcurrentHashMap.newKeySet();
+
+    private final DistributionSummary commitSize;
+    private final Timer commitLatency;
+    private final Counter failedRows;
+
+    private final ReadWriteLock submitLock = new ReentrantReadWriteLock();
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private Thread writer;
+
+    public DonationIngestBuffer(DonationService donationService,
+                                @Value("${app.donations.ingest-mode:sync}") String ingestMode,
+                                @Value("${app.donations.ingest.queue-capacity:10000}") int queueCapacity,
+                                @Value("${app.donations.ingest.batch-size:500}") int batchSize,
+                                @Value("${app.donations.ingest.max-wait-ms:20}") long maxWaitMillis,
+                                MeterRegistry meterRegistry) {
+        this.donationService = donationService;
+        this.enabled = "buffered".equalsIgnoreCase(ingestMode);
+        this.batchSize = batchSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("donations.ingest.queue.depth", queue, BlockingQueue::size).register(meterRegistry);
+        this.commitSize = DistributionSummary.builder("donations.ingest.commit.size")
+                .description("Donations per group commit").register(meterRegistry);
+        this.commitLatency = Timer.builder("donations.ingest.commit.latency").register(meterRegistry);
+        this.failedRows = Counter.builder("donations.ingest.failed").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void submit(DonationDTO dto) {
+        validate(dto);
+        Donation donation = donationService.toEntity(dto);
+        // stop() takes the write lock, so once it has stopped accepting no offer can still be on its way
+        submitLock.readLock().lock();
+        try {
+            if (!accepting) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Donation ingest is shutting down");
+            }
+            if (!pendingTxHashes.add(dto.getTxHash())) {
+                return; // already queued, the retry is a no-op
+            }
+            if (!queue.offer(donation)) {
+                pendingTxHashes.remove(dto.getTxHash());
+                throw new TooManyRequestsException("Donation ingest queue is full", maxWaitMillis * 2);
+            }
+        } finally {
+            submitLock.readLock().unlock();
+        }
+    }
+
+    private static void validate(DonationDTO dto) {
+        if (dto.getTxHash() == null || dto.getTxHash().isBlank()
+                || dto.getDonorAddress() == null || dto.getDonorAddress().isBlank()
+                || dto.getCharityId() == null || dto.getTimestamp() == null || dto.getAmount() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "txHash, donorAddress, charityId, amount and timestamp are required");
+        }
+        try {
+            new BigDecimal(dto.getAmount());
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "amount is not a number: " + dto.getAmount());
+        }
+    }
+
+    private void drainLoop() {
+        List<Donation> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Donation first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (queue.drainTo(batch, batchSize - batch.size()) == 0) {
+                        if (remaining <= 0 || !running) {
+                            break;
+                        }
+                        Donation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // rows already taken off the queue; stop() commits the rest
+                commit(batch);
+                if (!running) {
+                    return;
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Donation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            donationService.saveDonations(batch);
+        } catch (RuntimeException e) {
+            // one bad row (usually a txHash that is already stored) must not sink the whole group
+            log.warn("Group commit of {} donations failed, retrying row by row: {}", batch.size(), e.getMessage());
+            for (Donation donation : batch) {
+                donation.setId(null);
+                try {
+                    donationService.saveDonations(List.of(donation));
+                } catch (RuntimeException rowError) {
+                    failedRows.increment();
+                    log.warn("Dropping donation {}: {}", donation.getTxHash(), rowError.getMessage());
+                }
+            }
+        } finally {
+            commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            commitSize.record(batch.size());
+            batch.forEach(d -> pendingTxHashes.remove(d.getTxHash()));
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        accepting = true;
+        writer = new Thread(this::drainLoop, "donation-ingest-writer");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        submitLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            submitLock.writeLock().unlock();
+        }
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // whatever the writer left behind, e.g. when it was interrupted mid-batch
+            List<Donation> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            for (int from = 0; from < rest.size(); from += batchSize) {
+                commit(new ArrayList<>(rest.subList(from, Math.min(from + batchSize, rest.size()))));
+            }
+            log.info("Donation ingest drained, {} committed after the writer stopped", rest.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -1,38 +1,81 @@
 package com.example.demo.service;
 
+import com.example.demo.archive.ColdStorage;
+import com.example.demo.archive.Segment;
+import com.example.demo.archive.SegmentSchema;
 import com.example.demo.dto.DonationDTO;
 import com.example.demo.dto.DonorLeaderboardDTO;
 import com.example.demo.dto.PlatformStatisticsDTO;
 import com.example.demo.entity.Donation;
+import com.example.demo.journal.EventJournal;
 import com.example.demo.repo.DonationRepository;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.PdfWriter;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class DonationService {
 
+    private static final Comparator<DonationDTO> DTO_ORDER = Comparator
+            .comparing(DonationDTO::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()));
+    private static final int ARCHIVED_DONOR_BATCH = 1000;
+
 
     private final DonationRepository donationRepository;
 
+    private final EntityManager entityManager;
+
+    private final EthUsdPriceService ethUsdPriceService;
+
+    private final ColdStorage coldStorage;
+
+    private final EventJournal eventJournal;
+
+    private final DonorSummaryService donorSummaryService;
 
-    private final PDFCertificateService pdfCertificateService;
+    private volatile ArchivedStatistics archivedStatistics;
 
     @Transactional
     public DonationDTO saveDonation(DonationDTO dto) {
+        Donation donation = donationRepository.save(toEntity(dto));
+        donorSummaryService.apply(List.of(donation));
+        eventJournal.appendAfterCommit(SegmentSchema.DONATIONS, List.of(donation));
+        return convertToDTO(donation);
+    }
+
+    /**
+     * Inserts a group of donations in one transaction, i.e. one commit for the whole group.
+     * Used by the buffered ingest path.
+     */
+    @Transactional
+    public void saveDonations(List<Donation> donations) {
+        donationRepository.saveAll(donations);
+        donorSummaryService.apply(donations);
+        eventJournal.appendAfterCommit(SegmentSchema.DONATIONS, donations);
+    }
+
+    public Donation toEntity(DonationDTO dto) {
         Donation donation = new Donation();
         donation.setTxHash(dto.getTxHash());
         donation.setDonorAddress(dto.getDonorAddress());
@@ -41,43 +84,43 @@ public class DonationService {
         donation.setCampaignId(dto.getCampaignId());
         donation.setCampaignTitle(dto.getCampaignTitle());
         donation.setAmount(dto.getAmount());
-        donation.setAmountInUSD(dto.getAmountInUSD());
         donation.setTimestamp(dto.getTimestamp());
+        // value at the donation's own time; the client-supplied figure is only a fallback when we have no rate
+        BigDecimal usd = ethUsdPriceService.usdValue(dto.getAmount(), dto.getTimestamp());
+        donation.setAmountInUSD(usd != null ? usd : dto.getAmountInUSD());
         donation.setBlockNumber(dto.getBlockNumber());
         donation.setMessage(dto.getMessage());
-        donation.setIsAnonymous(dto.getIsAnonymous());
-
-        donation = donationRepository.save(donation);
-        return convertToDTO(donation);
+        donation.setIsAnonymous(dto.getIsAnonymous() != null ? dto.getIsAnonymous() : Boolean.FALSE);
+        return donation;
     }
 
+    @Transactional(readOnly = true)
     public List<DonationDTO> getUserDonations(String walletAddress) {
-        return donationRepository.findByDonorAddress(walletAddress)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return findByDonorAddress(walletAddress);
     }
 
+    @Transactional(readOnly = true)
     public List<DonationDTO> getCharityDonations(Long charityId) {
-        return donationRepository.findByCharityId(charityId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return withArchived(donationRepository.findDtosByCharityId(charityId), coldStorage.findDonationsByCharity(charityId));
     }
 
+    @Transactional(readOnly = true)
     public List<DonationDTO> getCampaignDonations(Long campaignId) {
-        return donationRepository.findByCampaignId(campaignId)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return withArchived(donationRepository.findDtosByCampaignId(campaignId), coldStorage.findDonationsByCampaign(campaignId));
     }
 
+    @Transactional(readOnly = true)
     public DonationDTO getDonationByTxHash(String txHash) {
-        return donationRepository.findByTxHash(txHash)
+        return findByTxHash(txHash)
                 .map(this::convertToDTO)
                 .orElse(null);
     }
 
+    /**
+     * Counts archived donations too. Their totals are computed once per set of segments; only the donors they
+     * share with the table are counted on each call.
+     */
+    @Transactional(readOnly = true)
     public PlatformStatisticsDTO getPlatformStatistics() {
         PlatformStatisticsDTO stats = new PlatformStatisticsDTO();
 
@@ -85,6 +128,18 @@ public class DonationService {
         Double totalAmount = donationRepository.getTotalDonationAmount();
         Long uniqueDonors = donationRepository.countUniqueDonors();
 
+        ArchivedStatistics archived = archivedStatistics();
+        if (archived.count > 0) {
+            totalDonations += archived.count;
+            totalAmount = (totalAmount != null ? totalAmount : 0) + archived.amount;
+            List<String> donors = new ArrayList<>(archived.donors);
+            long shared = 0;
+            for (int from = 0; from < donors.size(); from += ARCHIVED_DONOR_BATCH) {
+                shared += donationRepository.countDonorsAmong(donors.subList(from, Math.min(from + ARCHIVED_DONOR_BATCH, donors.size())));
+            }
+            uniqueDonors += donors.size() - shared;
+        }
+
         stats.setTotalDonations(totalDonations);
         stats.setTotalDonationsETH(totalAmount != null ? totalAmount.toString() : "0");
         stats.setTotalDonors(uniqueDonors);
@@ -99,8 +154,9 @@ public class DonationService {
     }
 
 
+    @Transactional(readOnly = true)
     public byte[] exportDonationsAsCSV(String walletAddress) {
-        List<Donation> donations = donationRepository.findByDonorAddress(walletAddress);
+        List<DonationDTO> donations = findByDonorAddress(walletAddress);
 
         StringBuilder csv = new StringBuilder();
 
@@ -109,7 +165,7 @@ public class DonationService {
 
         // CSV Rows
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        for (Donation donation : donations) {
+        for (DonationDTO donation : donations) {
             csv.append(escapeCSV(donation.getTimestamp().format(formatter))).append(",");
             csv.append(escapeCSV(donation.getTxHash())).append(",");
             csv.append(escapeCSV(donation.getCharityName())).append(",");
@@ -123,51 +179,88 @@ public class DonationService {
     }
 
     /**
-     * Generate donation certificate as PDF
-     * Note: This is a simple text-based implementation.
-     * For production, use libraries like iText or Apache PDFBox
+     * Donation a certificate is rendered for. Looked up on its own so that no transaction stays open while the
+     * PDF is written to the client.
      */
-    public byte[] generateCertificatePDF(String txHash) {
-        Donation donation = donationRepository.findByTxHash(txHash)
-                .orElseThrow(() -> new RuntimeException("Donation not found"));
-
-        return pdfCertificateService.createPDF(donation);
+    @Transactional(readOnly = true)
+    public Donation getCertificateDonation(String txHash) {
+        return findByTxHash(txHash)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Donation not found"));
     }
 
     /**
      * Get donor leaderboard
      */
+    @Transactional(readOnly = true)
     public List<DonorLeaderboardDTO> getDonorLeaderboard(int limit) {
-        // Get all donations grouped by donor
-        Map<String, DonorLeaderboardDTO> donorMap = new HashMap<>();
-
-        List<Donation> allDonations = donationRepository.findAll();
+        // grouped and ranked in the database, only the top rows come back
+        return donationRepository.findLeaderboard(Limit.of(limit)).stream()
+                .map(row -> {
+                    DonorLeaderboardDTO dto = new DonorLeaderboardDTO();
+                    dto.setDonorAddress(row.getDonorAddress());
+                    dto.setDonationCount(row.getDonationCount().intValue());
+                    dto.setTotalAmount(row.getTotalEth() != null ? BigDecimal.valueOf(row.getTotalEth()) : BigDecimal.ZERO);
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
 
-        for (Donation donation : allDonations) {
-            if (donation.getIsAnonymous()) {
-                continue; // Skip anonymous donations
-            }
+    // Natural-id load: served from the Donation##NaturalId and Donation cache regions without touching MySQL;
+    // archived donations are looked up in the segments
+    private Optional<Donation> findByTxHash(String txHash) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Donation.class)
+                .loadOptional(txHash)
+                .or(() -> coldStorage.findDonationByTxHash(txHash));
+    }
 
-            String donor = donation.getDonorAddress();
-            DonorLeaderboardDTO dto = donorMap.getOrDefault(donor, new DonorLeaderboardDTO());
-            dto.setDonorAddress(donor);
-            dto.setDonationCount(dto.getDonationCount() + 1);
+    // segments are immutable, so their totals only change when archival or a rescan adds one, i.e. with the list
+    private ArchivedStatistics archivedStatistics() {
+        List<Segment<Donation>> segments = coldStorage.getDonationSegments();
+        ArchivedStatistics current = archivedStatistics;
+        if (current != null && current.segments.equals(segments)) {
+            return current;
+        }
+        ArchivedStatistics computed = new ArchivedStatistics(segments);
+        if (!segments.isEmpty()) {
+            Long firstHotId = donationRepository.findMinId();
+            coldStorage.forEachDonation(null, null, firstHotId != null ? firstHotId : Long.MAX_VALUE,
+                    donationRepository::findExistingIds, donation -> {
+                        computed.count++;
+                        try {
+                            computed.amount += Double.parseDouble(donation.getAmount());
+                        } catch (NumberFormatException | NullPointerException e) {
+                            // counted like the CAST in getTotalDonationAmount, which skips what it cannot read
+                        }
+                        computed.donors.add(donation.getDonorAddress());
+                    });
+        }
+        archivedStatistics = computed;
+        return computed;
+    }
 
-            // Sum amounts
-            BigDecimal currentAmount = dto.getTotalAmount() != null
-                    ? dto.getTotalAmount()
-                    : BigDecimal.ZERO;
-            BigDecimal donationAmount = new BigDecimal(donation.getAmount());
-            dto.setTotalAmount(currentAmount.add(donationAmount));
+    // Hot rows plus the donor's archived ones; the donor address is the key segments are indexed by
+    private List<DonationDTO> findByDonorAddress(String walletAddress) {
+        return withArchived(donationRepository.findDtosByDonorAddress(walletAddress), coldStorage.findDonationsByDonor(walletAddress));
+    }
 
-            donorMap.put(donor, dto);
+    // hot rows come projected from the database, archived ones are converted only when there are any
+    private List<DonationDTO> withArchived(List<DonationDTO> hot, List<Donation> archived) {
+        if (archived.isEmpty()) {
+            return hot;
         }
+        return ColdStorage.merge(hot, archived.stream().map(this::convertToDTO).toList(), DonationDTO::getTxHash, DTO_ORDER);
+    }
 
-        // Sort by total amount and limit
-        return donorMap.values().stream()
-                .sorted((a, b) -> b.getTotalAmount().compareTo(a.getTotalAmount()))
-                .limit(limit)
-                .collect(Collectors.toList());
+    private static final class ArchivedStatistics {
+        final List<Segment<Donation>> segments;
+        final Set<String> donors = new HashSet<>();
+        long count;
+        double amount;
+
+        ArchivedStatistics(List<Segment<Donation>> segments) {
+            this.segments = segments;
+        }
     }
 
     private String escapeCSV(String value) {
@@ -0,0 +1,281 @@
+package com.example.demo.service;
+
+import com.example.demo.archive.ColdStorage;
+import com.example.demo.archive.Segment;
+import com.example.demo.dto.DonorSummaryDto;
+import com.example.demo.entity.Donation;
+import com.example.demo.entity.DonorSummary;
+import com.example.demo.repo.DonationRepository;
+import com.example.demo.repo.DonorSummaryRepository;
+import com.example.demo.repo.DonorSummaryRowView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Per-donor lifetime totals, so the profile page reads one row by primary key instead of reducing the whole
+ * donation history. {@link #apply} runs inside the transaction that inserts the donations and takes a row lock
+ * per donor, so concurrent donations of one wallet are applied one after the other.
+ * <p>
+ * {@link #rebuild} recomputes every summary from the donations table and the archived segments, e.g. after a
+ * USD price backfill, which does not go through {@link #apply}.
+ */
+@Slf4j
+@Service
+public class DonorSummaryService {
+
+    private static final int WRITE_BATCH = 500;
+
+    private final DonorSummaryRepository donorSummaryRepository;
+    private final DonationRepository donationRepository;
+    private final ColdStorage coldStorage;
+    private final TransactionTemplate transactionTemplate;
+    private final int partitions;
+    private final int chunkSize;
+
+    public DonorSummaryService(DonorSummaryRepository donorSummaryRepository,
+                               DonationRepository donationRepository,
+                               ColdStorage coldStorage,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${app.donor-summary.rebuild.partitions:4}") int partitions,
+                               @Value("${app.donor-summary.rebuild.chunk-size:2000}") int chunkSize) {
+        this.donorSummaryRepository = donorSummaryRepository;
+        this.donationRepository = donationRepository;
+        this.coldStorage = coldStorage;
+        this.transactionTemplate = transactionTemplate;
+        this.partitions = partitions;
+        this.chunkSize = chunkSize;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(List<Donation> donations) {
+        Map<String, Totals> byDonor = new TreeMap<>();
+        for (Donation donation : donations) {
+            byDonor.computeIfAbsent(donation.getDonorAddress(), donor -> new Totals())
+                    .add(donation.getCharityId(), donation.getAmount(), donation.getAmountInUSD(), donation.getTimestamp());
+        }
+        for (DonorSummary summary : lock(byDonor.keySet())) {
+            byDonor.get(summary.getDonorAddress()).addTo(summary);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public DonorSummaryDto getSummary(String walletAddress) {
+        DonorSummary summary = donorSummaryRepository.findById(walletAddress).orElse(null);
+        if (summary == null) {
+            return new DonorSummaryDto(walletAddress, BigDecimal.ZERO, BigDecimal.ZERO, 0, null, null, 0, List.of());
+        }
+        List<Long> charityIds = Arrays.stream(SortedIntSet.toArray(summary.getCharityIds()))
+                .mapToObj(id -> (long) id)
+                .collect(Collectors.toList());
+        return new DonorSummaryDto(summary.getDonorAddress(), summary.getTotalAmount(), summary.getTotalAmountUSD(),
+                summary.getDonationCount(), summary.getFirstDonationAt(), summary.getLastDonationAt(),
+                summary.getCharityCount(), charityIds);
+    }
+
+    /**
+     * Recomputes all summaries. Donations up to the current max id are scanned in parallel id-range partitions
+     * (plus one partition per archived segment); each donor is then written under its row lock together with
+     * any donations inserted since the scan started, so donations arriving during the rebuild are not lost.
+     * A donation still uncommitted when the scan starts, with an id below the max, can be missed; run it again
+     * if the write load was high.
+     */
+    public Map<String, Object> rebuild() {
+        long start = System.currentTimeMillis();
+        Long minId = donationRepository.findMinId();
+        Long maxId = donationRepository.findMaxId();
+        long watermark = maxId != null ? maxId : 0;
+
+        List<Segment<Donation>> segments = coldStorage.getDonationSegments();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, partitions));
+        List<CompletableFuture<Map<String, Totals>>> scans = new ArrayList<>();
+        try {
+            if (minId != null) {
+                long span = Math.max(1, (watermark - minId + 1 + partitions - 1) / partitions);
+                for (long from = minId - 1; from < watermark; from += span) {
+                    long afterId = from;
+                    long toId = Math.min(from + span, watermark);
+                    scans.add(CompletableFuture.supplyAsync(() -> scanTable(afterId, toId), pool));
+                }
+            }
+            long firstHotId = minId != null ? minId : Long.MAX_VALUE;
+            for (Segment<Donation> segment : segments) {
+                scans.add(CompletableFuture.supplyAsync(() -> scanSegment(segment, firstHotId), pool));
+            }
+            CompletableFuture.allOf(scans.toArray(new CompletableFuture[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, Totals> totals = new TreeMap<>();
+        for (CompletableFuture<Map<String, Totals>> scan : scans) {
+            scan.join().forEach((donor, partial) -> totals.merge(donor, partial, Totals::merge));
+        }
+
+        List<String> donors = new ArrayList<>(totals.keySet());
+        for (int from = 0; from < donors.size(); from += WRITE_BATCH) {
+            List<String> batch = donors.subList(from, Math.min(from + WRITE_BATCH, donors.size()));
+            transactionTemplate.executeWithoutResult(status -> write(batch, totals, watermark));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("donors", donors.size());
+        result.put("partitions", scans.size());
+        result.put("archivedSegments", segments.size());
+        result.put("millis", System.currentTimeMillis() - start);
+        log.info("Rebuilt donor summaries: {}", result);
+        return result;
+    }
+
+    private void write(List<String> batch, Map<String, Totals> totals, long watermark) {
+        Map<String, Totals> rows = new HashMap<>();
+        for (String donor : batch) {
+            rows.put(donor, totals.get(donor).copy());
+        }
+        List<DonorSummary> summaries = lock(batch);
+        // committed after the scan started; any still in flight wait on the locks and apply themselves
+        for (DonorSummaryRowView row : donationRepository.findSummaryRowsAfter(watermark, batch)) {
+            rows.get(row.getDonorAddress())
+                    .add(row.getCharityId(), row.getAmount(), row.getAmountInUSD(), row.getTimestamp());
+        }
+        for (DonorSummary summary : summaries) {
+            rows.get(summary.getDonorAddress()).replace(summary);
+        }
+    }
+
+    // creates missing rows, then locks all of them in donor order
+    private List<DonorSummary> lock(Collection<String> donors) {
+        List<DonorSummary> summaries = donorSummaryRepository.findAllForUpdate(donors);
+        if (summaries.size() < donors.size()) {
+            donors.stream().sorted().forEach(donorSummaryRepository::insertIfAbsent);
+            summaries = donorSummaryRepository.findAllForUpdate(donors);
+        }
+        return summaries;
+    }
+
+    private Map<String, Totals> scanTable(long afterId, long toId) {
+        Map<String, Totals> totals = new HashMap<>();
+        List<DonorSummaryRowView> rows;
+        do {
+            rows = donationRepository.findSummaryRows(afterId, toId, Limit.of(chunkSize));
+            for (DonorSummaryRowView row : rows) {
+                totals.computeIfAbsent(row.getDonorAddress(), donor -> new Totals())
+                        .add(row.getCharityId(), row.getAmount(), row.getAmountInUSD(), row.getTimestamp());
+                afterId = row.getId();
+            }
+        } while (rows.size() == chunkSize);
+        return totals;
+    }
+
+    // archived rows still in the table (an interrupted archival run) are counted by the table scan only
+    private Map<String, Totals> scanSegment(Segment<Donation> segment, long firstHotId) {
+        List<Donation> donations = segment.findAll();
+        List<Long> maybeHot = donations.stream().map(Donation::getId).filter(id -> id >= firstHotId).toList();
+        Set<Long> hot = new HashSet<>();
+        for (int from = 0; from < maybeHot.size(); from += chunkSize) {
+            hot.addAll(donationRepository.findExistingIds(maybeHot.subList(from, Math.min(from + chunkSize, maybeHot.size()))));
+        }
+        Map<String, Totals> totals = new HashMap<>();
+        for (Donation donation : donations) {
+            if (!hot.contains(donation.getId())) {
+                totals.computeIfAbsent(donation.getDonorAddress(), donor -> new Totals())
+                        .add(donation.getCharityId(), donation.getAmount(), donation.getAmountInUSD(), donation.getTimestamp());
+            }
+        }
+        return totals;
+    }
+
+    private static final class Totals {
+        BigDecimal amount = BigDecimal.ZERO;
+        BigDecimal amountUSD = BigDecimal.ZERO;
+        long count;
+        LocalDateTime first;
+        LocalDateTime last;
+        byte[] charityIds = SortedIntSet.EMPTY;
+
+        void add(Long charityId, String amount, BigDecimal amountInUSD, LocalDateTime timestamp) {
+            this.amount = this.amount.add(parse(amount));
+            if (amountInUSD != null) {
+                this.amountUSD = this.amountUSD.add(amountInUSD);
+            }
+            count++;
+            first = min(first, timestamp);
+            last = max(last, timestamp);
+            if (charityId != null && charityId <= Integer.MAX_VALUE) {
+                charityIds = SortedIntSet.add(charityIds, charityId.intValue());
+            }
+        }
+
+        Totals merge(Totals other) {
+            amount = amount.add(other.amount);
+            amountUSD = amountUSD.add(other.amountUSD);
+            count += other.count;
+            first = min(first, other.first);
+            last = max(last, other.last);
+            charityIds = SortedIntSet.union(charityIds, other.charityIds);
+            return this;
+        }
+
+        Totals copy() {
+            return new Totals().merge(this);
+        }
+
+        void addTo(DonorSummary summary) {
+            summary.setTotalAmount(summary.getTotalAmount().add(amount));
+            summary.setTotalAmountUSD(summary.getTotalAmountUSD().add(amountUSD));
+            summary.setDonationCount(summary.getDonationCount() + count);
+            summary.setFirstDonationAt(min(summary.getFirstDonationAt(), first));
+            summary.setLastDonationAt(max(summary.getLastDonationAt(), last));
+            byte[] merged = SortedIntSet.union(summary.getCharityIds(), charityIds);
+            summary.setCharityIds(merged);
+            summary.setCharityCount(SortedIntSet.size(merged));
+        }
+
+        void replace(DonorSummary summary) {
+            summary.setTotalAmount(amount);
+            summary.setTotalAmountUSD(amountUSD);
+            summary.setDonationCount(count);
+            summary.setFirstDonationAt(first);
+            summary.setLastDonationAt(last);
+            summary.setCharityIds(charityIds);
+            summary.setCharityCount(SortedIntSet.size(charityIds));
+        }
+
+        private static BigDecimal parse(String amount) {
+            try {
+                return amount != null ? new BigDecimal(amount) : BigDecimal.ZERO;
+            } catch (NumberFormatException e) {
+                return BigDecimal.ZERO;
+            }
+        }
+
+        private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+            return a == null ? b : b == null || a.isBefore(b) ? a : b;
+        }
+
+        private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+            return a == null ? b : b == null || a.isAfter(b) ? a : b;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Historical ETH/USD rates held as two parallel primitive arrays (epoch minute, price), sorted by minute.
+ * Lookups are a binary search over the int array and allocate nothing, so they can run per row inside
+ * exports and rollups.
+ * <p>
+ * Rates come from app.pricing.eth-usd-csv (lines of "unix_seconds,price_usd", a header line is skipped)
+ * or, for development, a flat app.pricing.stub-price. Without either, no USD values are computed.
+ * Donation timestamps are treated as UTC.
+ */
+@Slf4j
+@Service
+public class EthUsdPriceService {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private final ResourceLoader resourceLoader;
+    private final String csvLocation;
+    private final double stubPrice;
+
+    private volatile PriceSeries series = new PriceSeries(new int[0], new double[0], 0);
+
+    public EthUsdPriceService(ResourceLoader resourceLoader,
+                              @Value("${app.pricing.eth-usd-csv:}") String csvLocation,
+                              @Value("${app.pricing.stub-price:0}") double stubPrice) {
+        this.resourceLoader = resourceLoader;
+        this.csvLocation = csvLocation;
+        this.stubPrice = stubPrice;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!csvLocation.isBlank()) {
+            try {
+                series = readCsv(resourceLoader.getResource(csvLocation));
+                log.info("Loaded {} ETH/USD rates from {}", series.size, csvLocation);
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not load ETH/USD rates from {}: {}", csvLocation, e.getMessage());
+            }
+        }
+        if (stubPrice > 0) {
+            series = new PriceSeries(new int[]{0}, new double[]{stubPrice}, 1);
+            log.info("Using stub ETH/USD rate {}", stubPrice);
+        }
+    }
+
+    public boolean hasRates() {
+        return series.size > 0;
+    }
+
+    /**
+     * @return the last known ETH/USD rate at or before the given time, or NaN if there is none
+     */
+    public double priceAt(LocalDateTime timestamp) {
+        return priceAtEpochMinute(timestamp.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    public double priceAtEpochMinute(long epochMinute) {
+        PriceSeries s = series;
+        int lo = 0;
+        int hi = s.size - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (s.minutes[mid] <= epochMinute) {
+                found = mid;
+                lo = mid + 1;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return found < 0 ? Double.NaN : s.prices[found];
+    }
+
+    /**
+     * @return the USD value of an ETH amount at the given time, or null if no rate is known or the amount is not a number
+     */
+    public BigDecimal usdValue(String ethAmount, LocalDateTime timestamp) {
+        if (ethAmount == null || timestamp == null) {
+            return null;
+        }
+        double price = priceAt(timestamp);
+        if (Double.isNaN(price)) {
+            return null;
+        }
+        try {
+            return new BigDecimal(ethAmount).multiply(BigDecimal.valueOf(price)).setScale(2, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static PriceSeries readCsv(Resource resource) throws IOException {
+        int[] minutes = new int[INITIAL_CAPACITY];
+        double[] prices = new double[INITIAL_CAPACITY];
+        int size = 0;
+        boolean sorted = true;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma < 0 || !Character.isDigit(line.charAt(0))) {
+                    continue; // header or blank
+                }
+                if (size == minutes.length) {
+                    minutes = Arrays.copyOf(minutes, size * 2);
+                    prices = Arrays.copyOf(prices, size * 2);
+                }
+                minutes[size] = (int) (Long.parseLong(line.substring(0, comma).trim()) / 60);
+                prices[size] = Double.parseDouble(line.substring(comma + 1).trim());
+                if (size > 0 && minutes[size] < minutes[size - 1]) {
+                    sorted = false;
+                }
+                size++;
+            }
+        }
+        if (!sorted) {
+            sortByMinute(minutes, prices, size);
+        }
+        return new PriceSeries(minutes, prices, size);
+    }
+
+    private static void sortByMinute(int[] minutes, double[] prices, int size) {
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = ((long) minutes[i] << 32) | i;
+        }
+        Arrays.sort(packed);
+        double[] original = Arrays.copyOf(prices, size);
+        for (int i = 0; i < size; i++) {
+            minutes[i] = (int) (packed[i] >> 32);
+            prices[i] = original[(int) packed[i]];
+        }
+    }
+
+    private static final class PriceSeries {
+        final int[] minutes;
+        final double[] prices;
+        final int size;
+
+        PriceSeries(int[] minutes, double[] prices, int size) {
+            this.minutes = minutes;
+            this.prices = prices;
+            this.size = size;
+        }
+    }
+}
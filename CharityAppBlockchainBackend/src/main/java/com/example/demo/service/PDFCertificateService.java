@@ -4,20 +4,71 @@ import com.example.demo.entity.Donation;
 import com.lowagie.text.*;
 import com.lowagie.text.Font;
 import com.lowagie.text.Image;
+import com.lowagie.text.Rectangle;
 import com.lowagie.text.pdf.*;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import javax.imageio.ImageIO;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
-import java.net.URL;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 
+/**
+ * Renders donation certificates straight into the response stream.
+ * <p>
+ * The logo is decoded, scaled down to the resolution it is printed at and deflated once, when the service is
+ * created; every certificate then embeds those pre-encoded bytes as is. The watermark is drawn once per document
+ * into a form XObject that each page references, and object streams plus maximum Flate compression keep the
+ * file small.
+ */
+@Slf4j
 @Service
+@Lazy
 public class PDFCertificateService {
 
-    public byte[] createPDF(Donation donation) {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    private static final float LOGO_SIZE = 100;
+    // pixels per point of the embedded logo, about 216 dpi
+    private static final int LOGO_PIXELS_PER_POINT = 3;
+
+    private final Image logo;
+    private final Timer renderTimer;
+    private final DistributionSummary sizeSummary;
+
+    public PDFCertificateService(MeterRegistry meterRegistry) {
+        this.logo = loadLogo();
+        this.renderTimer = Timer.builder("certificate.pdf.render")
+                .description("Time to render one donation certificate")
+                .register(meterRegistry);
+        this.sizeSummary = DistributionSummary.builder("certificate.pdf.size")
+                .baseUnit("bytes")
+                .description("Size of one donation certificate")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes the certificate to out, which is left open.
+     */
+    public void writePDF(Donation donation, OutputStream out) {
+        long start = System.nanoTime();
+        CountingOutputStream counting = new CountingOutputStream(out);
+        try {
             Document document = new Document(PageSize.A4, 50, 50, 50, 50);
-            PdfWriter writer = PdfWriter.getInstance(document, out);
+            PdfWriter writer = PdfWriter.getInstance(document, counting);
+            writer.setCloseStream(false);
+            writer.setFullCompression();
+            writer.setCompressionLevel(Deflater.BEST_COMPRESSION);
 
             // Add a Page Event for the Watermark
             writer.setPageEvent(new WatermarkEvent());
@@ -25,16 +76,9 @@ public class PDFCertificateService {
             document.open();
 
             // 1. Add Logo
-            try {
-                URL logoUrl = getClass().getResource("/static/charityapplogo.png"); // Make sure file is in resources
-                if (logoUrl != null) {
-                    Image logo = Image.getInstance(logoUrl);
-                    logo.scaleToFit(100, 100);
-                    logo.setAlignment(Element.ALIGN_CENTER);
-                    document.add(logo);
-                }
-            } catch (Exception e) {
-                System.err.println("Logo not found, skipping...");
+            if (logo != null) {
+                // a copy per document: the encoded bytes are shared, the layout state is not
+                document.add(Image.getInstance(logo));
             }
             Font brandFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 28, Font.BOLD, Color.CYAN);
             Paragraph appName = new Paragraph("ChainHeart", brandFont);
@@ -101,10 +145,11 @@ public class PDFCertificateService {
             document.add(new Paragraph("\n[Verified on Blockchain] "));
 
             document.close();
-            return out.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate styled PDF", e);
         }
+        renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        sizeSummary.record(counting.count);
     }
 
     // Helper method for table cells
@@ -116,13 +161,103 @@ public class PDFCertificateService {
         return cell;
     }
 
+    // RGB and alpha planes of the scaled logo, each deflated here so the writer embeds them without re-encoding
+    private static Image loadLogo() {
+        try (InputStream in = PDFCertificateService.class.getResourceAsStream("/static/charityapplogo.png")) {
+            BufferedImage source = in != null ? ImageIO.read(in) : null;
+            if (source == null) {
+                log.warn("Logo not found, certificates are rendered without it");
+                return null;
+            }
+            float scale = Math.min(LOGO_SIZE / source.getWidth(), LOGO_SIZE / source.getHeight());
+            int width = Math.max(1, Math.min(source.getWidth(), Math.round(source.getWidth() * scale * LOGO_PIXELS_PER_POINT)));
+            int height = Math.max(1, Math.min(source.getHeight(), Math.round(source.getHeight() * scale * LOGO_PIXELS_PER_POINT)));
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = scaled.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+            g.dispose();
+
+            int[] argb = scaled.getRGB(0, 0, width, height, null, 0, width);
+            byte[] rgb = new byte[argb.length * 3];
+            byte[] alpha = new byte[argb.length];
+            boolean opaque = true;
+            for (int i = 0; i < argb.length; i++) {
+                int pixel = argb[i];
+                rgb[i * 3] = (byte) (pixel >> 16);
+                rgb[i * 3 + 1] = (byte) (pixel >> 8);
+                rgb[i * 3 + 2] = (byte) pixel;
+                alpha[i] = (byte) (pixel >>> 24);
+                opaque &= alpha[i] == (byte) 0xFF;
+            }
+
+            Image image = Image.getInstance(width, height, 3, 8, deflate(rgb));
+            image.setDeflated(true);
+            if (!opaque) {
+                Image mask = Image.getInstance(width, height, 1, 8, deflate(alpha));
+                mask.setDeflated(true);
+                mask.makeMask();
+                image.setImageMask(mask);
+            }
+            image.scaleToFit(LOGO_SIZE, LOGO_SIZE);
+            image.setAlignment(Element.ALIGN_CENTER);
+            return image;
+        } catch (IOException | DocumentException e) {
+            log.warn("Could not load the logo, certificates are rendered without it: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater)) {
+            deflating.write(data);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
     // Inner class to handle the Watermark
     static class WatermarkEvent extends PdfPageEventHelper {
+
+        private PdfTemplate watermark;
+
+        // drawn once into a form XObject; every page only references it
+        @Override
+        public void onOpenDocument(PdfWriter writer, Document document) {
+            Rectangle page = document.getPageSize();
+            watermark = writer.getDirectContentUnder().createTemplate(page.getWidth(), page.getHeight());
+            Phrase text = new Phrase("VERIFIED ON BLOCKCHAIN", FontFactory.getFont(FontFactory.HELVETICA, 40, Font.BOLD, GrayColor.GRAYWHITE));
+            ColumnText.showTextAligned(watermark, Element.ALIGN_CENTER, text, 297, 421, 45); // Centered at 45 degrees
+        }
+
         @Override
         public void onEndPage(PdfWriter writer, Document document) {
-            PdfContentByte canvas = writer.getDirectContentUnder();
-            Phrase watermark = new Phrase("VERIFIED ON BLOCKCHAIN", FontFactory.getFont(FontFactory.HELVETICA, 40, Font.BOLD, GrayColor.GRAYWHITE));
-            ColumnText.showTextAligned(canvas, Element.ALIGN_CENTER, watermark, 297, 421, 45); // Centered at 45 degrees
+            writer.getDirectContentUnder().addTemplate(watermark, 0, 0);
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import com.example.demo.cluster.ClusterChangeLog;
+import com.example.demo.entity.ClusterChange;
+import com.example.demo.entity.Donation;
+import com.example.demo.repo.DonationRepository;
+import com.example.demo.repo.DonationValuationView;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills amountInUSD for existing donations that have none. Rows are read in id-ordered chunks through a
+ * projection; each chunk is valued and written with one JDBC batch on a small worker pool, so reading the
+ * next chunk overlaps with writing the previous ones. At most two chunks per thread are read ahead of the
+ * writers, which keeps memory flat however many rows are missing a value.
+ */
+@Slf4j
+@Service
+public class PriceBackfillService {
+
+    private final DonationRepository donationRepository;
+    private final EthUsdPriceService ethUsdPriceService;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ClusterChangeLog clusterChangeLog;
+    private final int chunkSize;
+    private final int threads;
+
+    public PriceBackfillService(DonationRepository donationRepository,
+                                EthUsdPriceService ethUsdPriceService,
+                                JdbcTemplate jdbcTemplate,
+                                EntityManagerFactory entityManagerFactory,
+                                ClusterChangeLog clusterChangeLog,
+                                @Value("${app.pricing.backfill.chunk-size:2000}") int chunkSize,
+                                @Value("${app.pricing.backfill.threads:4}") int threads) {
+        this.donationRepository = donationRepository;
+        this.ethUsdPriceService = ethUsdPriceService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.clusterChangeLog = clusterChangeLog;
+        this.chunkSize = chunkSize;
+        this.threads = threads;
+    }
+
+    /**
+     * @return number of donations that received a USD value
+     */
+    public int backfill() {
+        if (!ethUsdPriceService.hasRates()) {
+            // the admin has to load the rates first
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "No ETH/USD rates loaded");
+        }
+        AtomicInteger updated = new AtomicInteger();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Semaphore inFlight = new Semaphore(threads * 2);
+        try {
+            long afterId = 0;
+            while (true) {
+                inFlight.acquireUninterruptibly();
+                List<DonationValuationView> chunk =
+                        donationRepository.findByAmountInUSDIsNullAndIdGreaterThanOrderByIdAsc(afterId, Limit.of(chunkSize));
+                if (chunk.isEmpty()) {
+                    inFlight.release();
+                    break;
+                }
+                afterId = chunk.get(chunk.size() - 1).getId();
+                pending.add(CompletableFuture.runAsync(() -> updated.addAndGet(valueChunk(chunk)), pool)
+                        .whenComplete((result, error) -> inFlight.release()));
+            }
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+        // rows were changed behind Hibernate's back
+        entityManagerFactory.getCache().evict(Donation.class);
+        clusterChangeLog.record(Donation.class, ClusterChange.Operation.UPDATE, List.of());
+        log.info("USD backfill updated {} donations", updated.get());
+        return updated.get();
+    }
+
+    private int valueChunk(List<DonationValuationView> chunk) {
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        for (DonationValuationView donation : chunk) {
+            BigDecimal usd = ethUsdPriceService.usdValue(donation.getAmount(), donation.getTimestamp());
+            if (usd != null) {
+                rows.add(new Object[]{usd, donation.getId()});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE donations SET amount_inusd = ? WHERE id = ?", rows);
+        }
+        return rows.size();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Set of ints stored as a sorted array of big-endian 4-byte values, the form donor_summaries.charity_ids is
+ * persisted in. A donor supports a handful of charities, so binary search plus an array copy beats a
+ * join, a child table or a bitmap over the whole id space.
+ */
+final class SortedIntSet {
+
+    static final byte[] EMPTY = new byte[0];
+
+    private SortedIntSet() {
+    }
+
+    static int size(byte[] set) {
+        return set == null ? 0 : set.length / Integer.BYTES;
+    }
+
+    static boolean contains(byte[] set, int value) {
+        return indexOf(set, value) >= 0;
+    }
+
+    /**
+     * @return the set with value added; the same array when it was already present
+     */
+    static byte[] add(byte[] set, int value) {
+        if (set == null) {
+            set = EMPTY;
+        }
+        int index = indexOf(set, value);
+        if (index >= 0) {
+            return set;
+        }
+        int at = (-index - 1) * Integer.BYTES;
+        byte[] grown = new byte[set.length + Integer.BYTES];
+        System.arraycopy(set, 0, grown, 0, at);
+        ByteBuffer.wrap(grown).putInt(at, value);
+        System.arraycopy(set, at, grown, at + Integer.BYTES, set.length - at);
+        return grown;
+    }
+
+    static byte[] union(byte[] a, byte[] b) {
+        byte[] result = a == null ? EMPTY : a;
+        for (int value : toArray(b)) {
+            result = add(result, value);
+        }
+        return result;
+    }
+
+    static int[] toArray(byte[] set) {
+        int[] values = new int[size(set)];
+        ByteBuffer.wrap(set == null ? EMPTY : set).asIntBuffer().get(values);
+        return values;
+    }
+
+    static byte[] of(int... values) {
+        int[] sorted = Arrays.stream(values).sorted().distinct().toArray();
+        ByteBuffer out = ByteBuffer.allocate(sorted.length * Integer.BYTES);
+        out.asIntBuffer().put(sorted);
+        return out.array();
+    }
+
+    // binary search; -(insertion point) - 1 when absent, as in Arrays.binarySearch
+    private static int indexOf(byte[] set, int value) {
+        if (set == null) {
+            return -1;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(set);
+        int lo = 0;
+        int hi = set.length / Integer.BYTES - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = buffer.getInt(mid * Integer.BYTES);
+            if (v < value) {
+                lo = mid + 1;
+            } else if (v > value) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(lo + 1);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.TransactionMetadata;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * Converts between the metadata JSON string of the API and {@link TransactionMetadata}. A declared field is
+ * only moved to its column when it has the column's type and fits; otherwise it stays with the unknown fields,
+ * so nothing the client sent is lost. Metadata that is not a JSON object is kept verbatim as a CBOR string.
+ * <p>
+ * Formatting writes the declared fields first, so the JSON can come back in a different key order.
+ */
+public final class TransactionMetadataCodec {
+
+    private static final JsonMapper JSON = JsonMapper.builder()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .build();
+    private static final CBORMapper CBOR = CBORMapper.builder()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+            .build();
+
+    private static final String CAMPAIGN_TITLE = "campaignTitle";
+    private static final String CHARITY_NAME = "charityName";
+    private static final String MESSAGE = "message";
+    private static final String ANONYMOUS = "isAnonymous";
+    private static final String ERROR = "error";
+    private static final String GAS_USED = "gasUsed";
+    private static final String CLIENT_VERSION = "clientVersion";
+
+    private TransactionMetadataCodec() {
+    }
+
+    public static TransactionMetadata parse(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        JsonNode root;
+        try {
+            root = JSON.readTree(json);
+        } catch (JacksonException e) {
+            root = null;
+        }
+        TransactionMetadata metadata = new TransactionMetadata();
+        if (root == null || !root.isObject()) {
+            metadata.setExtra(CBOR.writeValueAsBytes(json));
+            return metadata;
+        }
+
+        ObjectNode extra = JSON.createObjectNode();
+        for (Map.Entry<String, JsonNode> field : root.properties()) {
+            if (!extract(metadata, field.getKey(), field.getValue())) {
+                extra.set(field.getKey(), field.getValue());
+            }
+        }
+        // an empty object still needs one non-null column to load back as non-null
+        if (!extra.isEmpty() || root.isEmpty()) {
+            metadata.setExtra(CBOR.writeValueAsBytes(extra));
+        }
+        return metadata;
+    }
+
+    public static String format(TransactionMetadata metadata) {
+        if (metadata == null || isEmpty(metadata)) {
+            return null;
+        }
+        // streamed token by token: list endpoints format every row, so no trees are built here
+        StringWriter json = new StringWriter(128);
+        try (JsonParser extra = metadata.getExtra() != null ? CBOR.createParser(metadata.getExtra()) : null;
+             JsonGenerator out = JSON.createGenerator(json)) {
+            JsonToken first = extra != null ? extra.nextToken() : null;
+            if (first == JsonToken.VALUE_STRING) {
+                return extra.getString();
+            }
+            out.writeStartObject();
+            writeIfPresent(out, CAMPAIGN_TITLE, metadata.getCampaignTitle());
+            writeIfPresent(out, CHARITY_NAME, metadata.getCharityName());
+            writeIfPresent(out, MESSAGE, metadata.getMessage());
+            if (metadata.getAnonymous() != null) {
+                out.writeBooleanProperty(ANONYMOUS, metadata.getAnonymous());
+            }
+            writeIfPresent(out, ERROR, metadata.getError());
+            if (metadata.getGasUsed() != null) {
+                out.writeNumberProperty(GAS_USED, metadata.getGasUsed());
+            }
+            writeIfPresent(out, CLIENT_VERSION, metadata.getClientVersion());
+            if (first == JsonToken.START_OBJECT) {
+                while (extra.nextToken() == JsonToken.PROPERTY_NAME) {
+                    out.writeName(extra.currentName());
+                    extra.nextToken();
+                    out.copyCurrentStructure(extra);
+                }
+            }
+            out.writeEndObject();
+        }
+        return json.toString();
+    }
+
+    // Hibernate may hand a constructor projection an embeddable with every column null
+    private static boolean isEmpty(TransactionMetadata metadata) {
+        return metadata.getExtra() == null && metadata.getCampaignTitle() == null && metadata.getCharityName() == null
+                && metadata.getMessage() == null && metadata.getAnonymous() == null && metadata.getError() == null
+                && metadata.getGasUsed() == null && metadata.getClientVersion() == null;
+    }
+
+    private static boolean extract(TransactionMetadata metadata, String name, JsonNode value) {
+        return switch (name) {
+            case CAMPAIGN_TITLE -> fits(value, 255) && set(() -> metadata.setCampaignTitle(value.stringValue()));
+            case CHARITY_NAME -> fits(value, 255) && set(() -> metadata.setCharityName(value.stringValue()));
+            case MESSAGE -> fits(value, 1000) && set(() -> metadata.setMessage(value.stringValue()));
+            case ERROR -> fits(value, 1000) && set(() -> metadata.setError(value.stringValue()));
+            case CLIENT_VERSION -> fits(value, 64) && set(() -> metadata.setClientVersion(value.stringValue()));
+            case ANONYMOUS -> value.isBoolean() && set(() -> metadata.setAnonymous(value.booleanValue()));
+            case GAS_USED -> value.isIntegralNumber() && value.canConvertToLong()
+                    && set(() -> metadata.setGasUsed(value.longValue()));
+            default -> false;
+        };
+    }
+
+    private static boolean fits(JsonNode value, int maxLength) {
+        return value.isString() && value.stringValue().length() <= maxLength;
+    }
+
+    private static boolean set(Runnable setter) {
+        setter.run();
+        return true;
+    }
+
+    private static void writeIfPresent(JsonGenerator out, String name, String value) {
+        if (value != null) {
+            out.writeStringProperty(name, value);
+        }
+    }
+}
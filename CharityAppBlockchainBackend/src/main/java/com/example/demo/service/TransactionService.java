@@ -1,19 +1,44 @@
 package com.example.demo.service;
 
+import com.example.demo.archive.ColdStorage;
+import com.example.demo.archive.SegmentSchema;
+import com.example.demo.dto.KeysetPageDto;
 import com.example.demo.dto.TransactionDTO;
+import com.example.demo.dto.TransactionSearchCriteria;
 import com.example.demo.entity.Transaction;
+import com.example.demo.journal.EventJournal;
 import com.example.demo.repo.TransactionRepository;
-import jakarta.transaction.Transactional;
+import com.example.demo.repo.TransactionSpecifications;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class TransactionService {
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MIGRATION_BATCH = 500;
+    private static final Comparator<TransactionDTO> DTO_ORDER = Comparator
+            .comparing(TransactionDTO::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()));
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("id"));
+
     private final TransactionRepository transactionRepository;
+    private final ColdStorage coldStorage;
+    private final EventJournal eventJournal;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public TransactionDTO saveTransaction(TransactionDTO dto) {
@@ -28,17 +53,91 @@ public class TransactionService {
         transaction.setStatus(dto.getStatus());
         transaction.setBlockNumber(dto.getBlockNumber());
         transaction.setTimestamp(dto.getTimestamp());
-        transaction.setMetadata(dto.getMetadata());
+        transaction.setMetadata(TransactionMetadataCodec.parse(dto.getMetadata()));
 
         transaction = transactionRepository.save(transaction);
+        eventJournal.appendAfterCommit(SegmentSchema.TRANSACTIONS, List.of(transaction));
         return convertToDTO(transaction);
     }
 
+    @Transactional(readOnly = true)
     public List<TransactionDTO> getUserTransactions(String walletAddress) {
-        return transactionRepository.findByFromAddress(walletAddress)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<TransactionDTO> hot = transactionRepository.findDtosByFromAddress(walletAddress);
+        List<Transaction> archived = coldStorage.findTransactionsByWallet(walletAddress);
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        return ColdStorage.merge(hot, archived.stream().map(this::convertToDTO).toList(), TransactionDTO::getTxHash, DTO_ORDER);
+    }
+
+    /**
+     * Keyset-paginated search over the hot table, newest first. The cursor is the (timestamp, id) of the last
+     * row of the previous page. Archived transactions are not searched.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDto<TransactionDTO> search(TransactionSearchCriteria criteria, String cursor, int size) {
+        if (!criteria.hasIndexedFilter()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Filter on fromAddress, campaignId, campaignTitle, charityName, clientVersion or gasUsed");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+
+        LocalDateTime beforeTimestamp = null;
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            int sep = cursor.lastIndexOf('_');
+            if (sep < 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+            }
+            try {
+                beforeTimestamp = LocalDateTime.parse(cursor.substring(0, sep));
+                beforeId = Long.parseLong(cursor.substring(sep + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor, e);
+            }
+        }
+
+        // one extra row tells us whether there is a next page
+        List<Transaction> rows = transactionRepository.findBy(
+                TransactionSpecifications.matching(criteria, beforeTimestamp, beforeId),
+                query -> query.sortBy(NEWEST_FIRST).limit(pageSize + 1).all());
+        List<TransactionDTO> items = rows.stream().limit(pageSize).map(this::convertToDTO).collect(Collectors.toList());
+        if (rows.size() <= pageSize) {
+            return new KeysetPageDto<>(items, null);
+        }
+        Transaction last = rows.get(pageSize - 1);
+        return new KeysetPageDto<>(items, last.getTimestamp() + "_" + last.getId());
+    }
+
+    /**
+     * Moves the metadata of rows written before the metadata columns existed into those columns. Run once by an
+     * admin after the upgrade rather than on every boot: it walks the whole table. Running it twice, or on two nodes at
+     * once, is harmless: a legacy value always parses to the same columns, and a migrated row is no longer picked up.
+     */
+    public int migrateLegacyMetadata() {
+        long afterId = 0;
+        int migrated = 0;
+        List<Transaction> batch;
+        do {
+            long from = afterId;
+            batch = transactionTemplate.execute(status -> {
+                List<Transaction> rows = transactionRepository.findByIdGreaterThanAndLegacyMetadataIsNotNullOrderByIdAsc(
+                        from, Limit.of(MIGRATION_BATCH));
+                for (Transaction transaction : rows) {
+                    transaction.setMetadata(TransactionMetadataCodec.parse(transaction.getLegacyMetadata()));
+                    transaction.setLegacyMetadata(null);
+                }
+                return rows;
+            });
+            if (!batch.isEmpty()) {
+                afterId = batch.get(batch.size() - 1).getId();
+                migrated += batch.size();
+            }
+        } while (batch.size() == MIGRATION_BATCH);
+        if (migrated > 0) {
+            log.info("Moved the metadata of {} transactions into columns", migrated);
+        }
+        return migrated;
     }
 
     private TransactionDTO convertToDTO(Transaction transaction) {
@@ -53,7 +152,9 @@ public class TransactionService {
         dto.setStatus(transaction.getStatus());
         dto.setBlockNumber(transaction.getBlockNumber());
         dto.setTimestamp(transaction.getTimestamp());
-        dto.setMetadata(transaction.getMetadata());
+        dto.setMetadata(transaction.getLegacyMetadata() != null
+                ? transaction.getLegacyMetadata()
+                : TransactionMetadataCodec.format(transaction.getMetadata()));
         return dto;
     }
 }
@@ -0,0 +1,60 @@
+package com.example.demo.service;
+
+import com.example.demo.archive.SegmentSchema;
+import com.example.demo.dto.WithdrawalDTO;
+import com.example.demo.entity.Withdrawal;
+import com.example.demo.journal.EventJournal;
+import com.example.demo.repo.WithdrawlRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class WithdrawalService {
+    private final WithdrawlRepository withdrawlRepository;
+    private final EventJournal eventJournal;
+
+    @Transactional
+    public WithdrawalDTO saveWithdrawal(WithdrawalDTO dto) {
+        Withdrawal withdrawal = new Withdrawal();
+        withdrawal.setTxHash(dto.getTxHash());
+        withdrawal.setCharityId(dto.getCharityId());
+        withdrawal.setCharityName(dto.getCharityName());
+        withdrawal.setAmount(dto.getAmount());
+        withdrawal.setFee(dto.getFee());
+        withdrawal.setNetAmount(dto.getNetAmount());
+        withdrawal.setTimestamp(dto.getTimestamp());
+        withdrawal.setBlockNumber(dto.getBlockNumber());
+        withdrawal.setToAddress(dto.getToAddress());
+
+        withdrawal = withdrawlRepository.save(withdrawal);
+        eventJournal.appendAfterCommit(SegmentSchema.WITHDRAWALS, List.of(withdrawal));
+        return convertToDTO(withdrawal);
+    }
+
+    @Transactional(readOnly = true)
+    public List<WithdrawalDTO> getCharityWithdrawals(Long charityId) {
+        return withdrawlRepository.findByCharityId(charityId)
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
+    private WithdrawalDTO convertToDTO(Withdrawal withdrawal) {
+        WithdrawalDTO dto = new WithdrawalDTO();
+        dto.setTxHash(withdrawal.getTxHash());
+        dto.setCharityId(withdrawal.getCharityId());
+        dto.setCharityName(withdrawal.getCharityName());
+        dto.setAmount(withdrawal.getAmount());
+        dto.setFee(withdrawal.getFee());
+        dto.setNetAmount(withdrawal.getNetAmount());
+        dto.setTimestamp(withdrawal.getTimestamp());
+        dto.setBlockNumber(withdrawal.getBlockNumber());
+        dto.setToAddress(withdrawal.getToAddress());
+        return dto;
+    }
+}
@@ -0,0 +1,88 @@
+-- Schema as of the first release, for a new database. Apply the later versions in order on top of it.
+-- MySQL 8, InnoDB.
+
+create table campaigns (
+    goal_amount float(53) not null,
+    raised_amount float(53) not null,
+    id bigint not null auto_increment,
+    charity_name varchar(255),
+    description varchar(255),
+    duration_days varchar(255),
+    status varchar(255),
+    title varchar(255),
+    wallet_address varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table charity_requests (
+    id bigint not null auto_increment,
+    submitted_at datetime(6) not null,
+    wallet_address varchar(42) not null,
+    charity_name varchar(255) not null,
+    description TEXT not null,
+    email varchar(255) not null,
+    logo_url varchar(255),
+    verification_document_url varchar(255) not null,
+    website_url varchar(255),
+    status enum ('APPROVED','PENDING','REJECTED') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table donations (
+    amount_inusd decimal(38,2),
+    is_anonymous bit not null,
+    block_number bigint,
+    campaign_id bigint,
+    charity_id bigint not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    timestamp datetime(6) not null,
+    message varchar(1000),
+    amount varchar(255) not null,
+    campaign_title varchar(255),
+    charity_name varchar(255),
+    donor_address varchar(255) not null,
+    tx_hash varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table transactions (
+    block_number bigint,
+    campaign_id bigint,
+    charity_id bigint,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    timestamp datetime(6) not null,
+    metadata varchar(2000),
+    amount varchar(255) not null,
+    from_address varchar(255) not null,
+    status varchar(255) not null,
+    to_address varchar(255),
+    tx_hash varchar(255) not null,
+    type varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table withdrawals (
+    block_number bigint,
+    charity_id bigint not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    timestamp datetime(6) not null,
+    amount varchar(255) not null,
+    charity_name varchar(255),
+    fee varchar(255),
+    net_amount varchar(255),
+    to_address varchar(255),
+    tx_hash varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table donations
+    add constraint UK50m4o3o0ivjrdgoj7vbu1npmv unique (tx_hash);
+
+alter table transactions
+    add constraint UKpcaq61xakqmx496as8f0c5y0y unique (tx_hash);
+
+alter table withdrawals
+    add constraint UK36nd8ug2bt3xdwgxy1239fsww unique (tx_hash);
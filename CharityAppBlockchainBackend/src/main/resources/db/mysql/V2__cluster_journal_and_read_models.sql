@@ -0,0 +1,120 @@
+-- Cluster coordination, donor summaries, resumable imports, campaign deadlines, typed transaction metadata and
+-- the indexes the list, search and activity queries walk. MySQL 8, InnoDB.
+
+-- leader election (LeaderElection) and cache invalidation across nodes (ClusterChangeLog)
+create table cluster_leases (
+    expires_at_ms bigint not null,
+    name varchar(64) not null,
+    owner varchar(255) not null,
+    primary key (name)
+) engine=InnoDB;
+
+create table cluster_changes (
+    created_at_ms bigint not null,
+    entity_id bigint,
+    id bigint not null auto_increment,
+    entity varchar(64) not null,
+    node_id varchar(255) not null,
+    operation enum ('DELETE','INSERT','UPDATE') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index idx_cluster_changes_created
+    on cluster_changes (created_at_ms);
+
+-- lifetime totals per donor; fill with POST /api/donations/summaries/rebuild
+create table donor_summaries (
+    charity_count integer not null,
+    total_amount decimal(38,18) not null,
+    total_amount_usd decimal(38,2) not null,
+    donation_count bigint not null,
+    first_donation_at datetime(6),
+    last_donation_at datetime(6),
+    donor_address varchar(255) not null,
+    charity_ids blob,
+    primary key (donor_address)
+) engine=InnoDB;
+
+-- checkpoints of CSV donation imports
+create table donation_imports (
+    byte_offset bigint not null,
+    duplicates bigint not null,
+    imported bigint not null,
+    records_read bigint not null,
+    rejected bigint not null,
+    started_at datetime(6) not null,
+    updated_at datetime(6) not null,
+    version bigint,
+    id varchar(64) not null,
+    last_error varchar(1000),
+    status enum ('COMPLETED','FAILED','RUNNING') not null,
+    primary key (id)
+) engine=InnoDB;
+
+-- existing campaigns keep a null deadline and never expire
+alter table campaigns
+    add column created_at datetime(6);
+
+alter table campaigns
+    add column deadline datetime(6);
+
+create index idx_campaigns_status_deadline
+    on campaigns (status, deadline);
+
+create index idx_charity_requests_status_submitted
+    on charity_requests (status, submitted_at);
+
+create index idx_donations_timestamp
+    on donations (timestamp);
+
+create index idx_donations_donor_activity
+    on donations (donor_address, timestamp, id);
+
+-- the old metadata column stays until POST /api/transactions/metadata/migrate has moved it into these
+alter table transactions
+    add column meta_anonymous bit;
+
+alter table transactions
+    add column meta_gas_used bigint;
+
+alter table transactions
+    add column meta_client_version varchar(64);
+
+alter table transactions
+    add column meta_error varchar(1000);
+
+alter table transactions
+    add column meta_message varchar(1000);
+
+alter table transactions
+    add column meta_campaign_title varchar(255);
+
+alter table transactions
+    add column meta_charity_name varchar(255);
+
+alter table transactions
+    add column meta_extra blob;
+
+create index idx_transactions_from_activity
+    on transactions (from_address, timestamp, id);
+
+create index idx_transactions_campaign
+    on transactions (campaign_id, timestamp, id);
+
+create index idx_transactions_meta_campaign_title
+    on transactions (meta_campaign_title, timestamp, id);
+
+create index idx_transactions_meta_charity_name
+    on transactions (meta_charity_name, timestamp, id);
+
+create index idx_transactions_meta_client_version
+    on transactions (meta_client_version, timestamp, id);
+
+create index idx_transactions_meta_gas_used
+    on transactions (meta_gas_used);
+
+create index idx_withdrawals_timestamp
+    on withdrawals (timestamp, id);
+
+create index idx_withdrawals_to_activity
+    on withdrawals (to_address, timestamp, id);
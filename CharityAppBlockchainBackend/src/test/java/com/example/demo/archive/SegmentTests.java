@@ -0,0 +1,78 @@
+package com.example.demo.archive;
+
+import com.example.demo.entity.Donation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsRowsAndFindsThemByWalletAndZone() throws IOException {
+        ColdStorage storage = new ColdStorage(dir.toString());
+        storage.load();
+
+        List<Donation> donations = new ArrayList<>();
+        LocalDateTime base = LocalDateTime.of(2023, 3, 1, 12, 0, 0, 123_456_000);
+        for (int i = 0; i < 2000; i++) {
+            Donation d = new Donation();
+            d.setId((long) i + 1);
+            d.setTxHash("0xtx" + i);
+            d.setDonorAddress("0xdonor" + (i % 37));
+            d.setCharityId((long) (i % 5));
+            d.setCharityName("Charity " + (i % 5));
+            d.setCampaignId(i % 3 == 0 ? null : (long) (100 + i % 4));
+            d.setAmount("0." + i);
+            d.setAmountInUSD(i % 2 == 0 ? new BigDecimal("12.50") : null);
+            d.setTimestamp(base.plusMinutes(i));
+            d.setBlockNumber(5_000_000L + i);
+            d.setMessage(i % 10 == 0 ? "thanks, \"team\"" : null);
+            d.setIsAnonymous(i % 7 == 0);
+            d.setCreatedAt(base);
+            donations.add(d);
+        }
+        storage.archive(SegmentSchema.DONATIONS, donations);
+
+        List<Donation> byDonor = storage.findDonationsByDonor("0xdonor5");
+        assertEquals(donations.stream().filter(d -> d.getDonorAddress().equals("0xdonor5")).count(), byDonor.size());
+        assertTrue(byDonor.stream().allMatch(d -> d.getDonorAddress().equals("0xdonor5")));
+        assertTrue(storage.findDonationsByDonor("0xnobody").isEmpty());
+
+        Donation original = donations.get(70);
+        Donation restored = storage.findDonationsByDonor(original.getDonorAddress()).stream()
+                .filter(d -> d.getTxHash().equals(original.getTxHash())).findFirst().orElseThrow();
+        assertEquals(original, restored);
+        Donation withNulls = donations.get(1);
+        assertEquals(withNulls, storage.findDonationsByDonor(withNulls.getDonorAddress()).stream()
+                .filter(d -> d.getId().equals(withNulls.getId())).findFirst().orElseThrow());
+
+        assertEquals(400, storage.findDonationsByCharity(3L).size());
+        assertEquals(donations.stream().filter(d -> Long.valueOf(101).equals(d.getCampaignId())).count(),
+                storage.findDonationsByCampaign(101L).size());
+
+        assertEquals(donations.get(1234), storage.findDonationByTxHash("0xtx1234").orElseThrow());
+        assertTrue(storage.findDonationByTxHash("0xtx2000").isEmpty());
+
+        // ids 150 and 151 are still in the table, so they are left to it
+        List<Donation> inRange = new ArrayList<>();
+        storage.forEachDonation(base.plusMinutes(100), base.plusMinutes(200), 150, ids -> List.of(150L, 151L), inRange::add);
+        assertEquals(98, inRange.size());
+
+        // reopening from disk sees the same data
+        ColdStorage reopened = new ColdStorage(dir.toString());
+        reopened.load();
+        assertEquals(byDonor.size(), reopened.findDonationsByDonor("0xdonor5").size());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.chain;
+
+import com.example.demo.dto.BlockViewDto;
+import com.example.demo.dto.OnChainDonationDto;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ArrayNode;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs against a stub JSON-RPC server that answers like a CharityPlatform node: charity n has a balance of
+ * n * 1000 wei and n donations, campaign n is n * 10 percent funded, and ids above 50 revert.
+ */
+class ContractViewCacheTests {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+    private static final String CONTRACT = "0x5fbdb2315678afecb367f032d93f642f64180aa3";
+
+    private final AtomicLong block = new AtomicLong(100);
+    private final AtomicInteger batches = new AtomicInteger();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<String> blockTags = new ArrayList<>();
+    private HttpServer server;
+
+    @BeforeEach
+    void startNode() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            JsonNode request = JSON.readTree(exchange.getRequestBody());
+            JsonNode response;
+            if (request.isArray()) {
+                batches.incrementAndGet();
+                ArrayNode responses = JSON.createArrayNode();
+                // answered back to front: clients must match on id
+                for (int i = request.size() - 1; i >= 0; i--) {
+                    responses.add(answer(request.get(i)));
+                }
+                response = responses;
+            } else {
+                response = answer(request);
+            }
+            byte[] body = response.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopNode() {
+        server.stop(0);
+    }
+
+    @Test
+    void readsWithinABlockAreServedFromCacheAndANewBlockRefetches() {
+        ContractViewCache cache = cache(100);
+
+        BlockViewDto<Map<Long, String>> first = cache.getCharityBalances(List.of(1L, 2L, 51L));
+        assertEquals(100, first.getBlockNumber());
+        assertEquals(Map.of(1L, "1000", 2L, "2000"), first.getValues());
+        assertEquals(1, batches.get());
+        assertEquals(3, calls.get());
+
+        // the unknown charity is cached as absent too
+        assertEquals(Map.of(2L, "2000", 1L, "1000"), cache.getCharityBalances(List.of(2L, 51L, 1L)).getValues());
+        assertEquals(3, calls.get());
+
+        cache.getCampaignProgress(List.of(1L, 3L));
+        assertEquals(5, calls.get());
+
+        block.set(101);
+        BlockViewDto<Map<Long, String>> next = cache.getCharityBalances(List.of(1L));
+        assertEquals(101, next.getBlockNumber());
+        assertEquals(6, calls.get());
+        assertEquals("0x65", blockTags.get(blockTags.size() - 1));
+    }
+
+    @Test
+    void splitsLargeReadsIntoBatchesPinnedToOneBlock() {
+        ContractViewCache cache = cache(2);
+
+        BlockViewDto<Map<Long, Long>> progress = cache.getCampaignProgress(List.of(1L, 2L, 3L, 4L, 5L));
+
+        assertEquals(Map.of(1L, 10L, 2L, 20L, 3L, 30L, 4L, 40L, 5L, 50L), progress.getValues());
+        assertEquals(3, batches.get());
+        assertEquals(List.of("0x64", "0x64", "0x64", "0x64", "0x64"), blockTags);
+    }
+
+    @Test
+    void decodesDonationStructs() {
+        List<OnChainDonationDto> donations = cache(100).getCharityDonations(3).getValues();
+
+        assertEquals(3, donations.size());
+        OnChainDonationDto last = donations.get(2);
+        assertEquals("0x00000000000000000000000000000000000000a3", last.getDonor());
+        assertEquals("300", last.getAmount());
+        assertEquals(1_700_000_002L, last.getTimestamp());
+        assertEquals(3, last.getCharityId());
+        assertEquals(2, last.getCampaignId());
+    }
+
+    private ContractViewCache cache(int maxBatchSize) {
+        return new ContractViewCache("http://127.0.0.1:" + server.getAddress().getPort(), CONTRACT, 0, 2000, maxBatchSize);
+    }
+
+    private synchronized ObjectNode answer(JsonNode request) {
+        ObjectNode response = JSON.createObjectNode().put("jsonrpc", "2.0");
+        response.set("id", request.get("id"));
+        if (request.get("method").stringValue().equals("eth_blockNumber")) {
+            return response.put("result", "0x" + Long.toHexString(block.get()));
+        }
+        calls.incrementAndGet();
+        JsonNode params = request.get("params");
+        assertEquals(CONTRACT, params.get(0).get("to").stringValue());
+        blockTags.add(params.get(1).stringValue());
+        String data = params.get(0).get("data").stringValue();
+        String selector = data.substring(2, 10);
+        long id = Long.parseLong(data.substring(10), 16);
+        if (id > 50) {
+            response.putObject("error").put("code", 3).put("message", "execution reverted: Charity does not exist");
+            return response;
+        }
+        StringBuilder result = new StringBuilder("0x");
+        switch (selector) {
+            case ContractAbi.GET_CHARITY_BALANCE -> result.append(word(id * 1000));
+            case ContractAbi.GET_CAMPAIGN_PROGRESS -> result.append(word(id * 10));
+            case ContractAbi.GET_CHARITY_DONATIONS -> {
+                result.append(word(32)).append(word(id));
+                for (int i = 0; i < id; i++) {
+                    result.append(word(0xa1 + i)).append(word((i + 1) * 100L)).append(word(1_700_000_000L + i))
+                            .append(word(id)).append(word(i));
+                }
+            }
+            default -> throw new IllegalStateException("Unexpected selector " + selector);
+        }
+        return response.put("result", result.toString());
+    }
+
+    private static String word(long value) {
+        return String.format("%064x", value);
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.demo.cluster;
+
+import com.example.demo.CharityBlockchainApplication;
+import com.example.demo.archive.ArchivalJob;
+import com.example.demo.archive.ColdStorage;
+import com.example.demo.dto.DonationDTO;
+import com.example.demo.dto.TransactionDTO;
+import com.example.demo.entity.Campaign;
+import com.example.demo.repo.CampaignRepo;
+import com.example.demo.service.CampaignService;
+import com.example.demo.service.DonationService;
+import com.example.demo.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two application contexts on one shared database, each with its own cache manager, standing in for two nodes.
+ */
+class ClusterCoordinationTests {
+
+    @TempDir
+    Path dir;
+
+    private final String database = "cluster-" + UUID.randomUUID();
+    private ConfigurableApplicationContext nodeA;
+    private ConfigurableApplicationContext nodeB;
+
+    @AfterEach
+    void stopNodes() {
+        for (ConfigurableApplicationContext node : new ConfigurableApplicationContext[]{nodeA, nodeB}) {
+            if (node != null && node.isActive()) {
+                node.close();
+            }
+        }
+    }
+
+    @Test
+    void oneLeaderAndCachesFollowWritesOfTheOtherNode() throws Exception {
+        nodeA = start("a");
+        nodeB = start("b");
+        LeaderElection electionA = nodeA.getBean(LeaderElection.class);
+        LeaderElection electionB = nodeB.getBean(LeaderElection.class);
+        await(() -> electionA.isLeader() || electionB.isLeader());
+        assertNotEquals(electionA.isLeader(), electionB.isLeader());
+
+        CampaignService campaignsA = nodeA.getBean(CampaignService.class);
+        CampaignService campaignsB = nodeB.getBean(CampaignService.class);
+        CampaignRepo repoB = nodeB.getBean(CampaignRepo.class);
+
+        // B caches the empty active list, then A creates a campaign
+        assertTrue(campaignsB.getCampaignByActive().isEmpty());
+        Campaign campaign = campaignsA.saveCampaign(campaign("Before"));
+        await(() -> campaignsB.getCampaignByActive().size() == 1);
+
+        // B caches the entity, then A renames it
+        assertEquals("Before", repoB.findById(campaign.getId()).orElseThrow().getTitle());
+        campaign.setTitle("After");
+        campaignsA.saveCampaign(campaign);
+        await(() -> "After".equals(repoB.findById(campaign.getId()).orElseThrow().getTitle()));
+
+        // the leader hands over its lease on shutdown
+        ConfigurableApplicationContext leader = electionA.isLeader() ? nodeA : nodeB;
+        LeaderElection follower = leader == nodeA ? electionB : electionA;
+        leader.close();
+        await(follower::isLeader);
+    }
+
+    @Test
+    void leaderEndsCampaignsCreatedOnAFollower() throws Exception {
+        nodeA = start("a");
+        nodeB = start("b");
+        LeaderElection electionA = nodeA.getBean(LeaderElection.class);
+        LeaderElection electionB = nodeB.getBean(LeaderElection.class);
+        await(() -> electionA.isLeader() || electionB.isLeader());
+        ConfigurableApplicationContext follower = electionA.isLeader() ? nodeB : nodeA;
+
+        // one day long, created a day ago less two seconds
+        Campaign campaign = campaign("Short");
+        campaign.setDurationDays("1");
+        campaign.setCreatedAt(LocalDateTime.now().minusDays(1).plusSeconds(2));
+        Campaign saved = follower.getBean(CampaignService.class).saveCampaign(campaign);
+
+        CampaignRepo repo = follower.getBean(CampaignRepo.class);
+        await(() -> "ENDED".equals(repo.findById(saved.getId()).orElseThrow().getStatus()));
+    }
+
+    @Test
+    void followersKeepReadingWhatTheLeaderArchives() throws Exception {
+        nodeA = start("a");
+        nodeB = start("b");
+        LeaderElection electionA = nodeA.getBean(LeaderElection.class);
+        LeaderElection electionB = nodeB.getBean(LeaderElection.class);
+        await(() -> electionA.isLeader() || electionB.isLeader());
+        ConfigurableApplicationContext leader = electionA.isLeader() ? nodeA : nodeB;
+        ConfigurableApplicationContext follower = leader == nodeA ? nodeB : nodeA;
+
+        LocalDateTime longAgo = LocalDateTime.now().minusYears(2);
+        leader.getBean(DonationService.class).saveDonation(donation("0xarchived", longAgo));
+        leader.getBean(TransactionService.class).saveTransaction(transaction("0xarchivedtx", longAgo));
+        DonationService donations = follower.getBean(DonationService.class);
+        TransactionService transactions = follower.getBean(TransactionService.class);
+        assertEquals(1, donations.getUserDonations("0xarchiver").size());
+
+        leader.getBean(ArchivalJob.class).run();
+
+        // the leader deleted the rows only after the follower had opened the new segments
+        assertEquals(1, follower.getBean(ColdStorage.class).getDonationSegments().size());
+        assertEquals(List.of("0xarchived"), donations.getUserDonations("0xarchiver").stream().map(DonationDTO::getTxHash).toList());
+        assertEquals(List.of("0xarchivedtx"), transactions.getUserTransactions("0xarchiver").stream().map(TransactionDTO::getTxHash).toList());
+        assertEquals(1, donations.getPlatformStatistics().getTotalDonations());
+    }
+
+    private ConfigurableApplicationContext start(String nodeId) throws IOException {
+        // a cache manager per node: the JCache provider shares one per config URI
+        Path config = dir.resolve("ehcache-" + nodeId + ".xml");
+        try (InputStream in = getClass().getResourceAsStream("/ehcache.xml")) {
+            Files.copy(in, config);
+        }
+        return new SpringApplicationBuilder(CharityBlockchainApplication.class).run(
+                "--spring.main.web-application-type=none",
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1;MODE=MySQL",
+                "--spring.jpa.hibernate.ddl-auto=update",
+                "--spring.jpa.properties.hibernate.javax.cache.uri=" + config.toUri(),
+                "--app.cluster.enabled=true",
+                "--app.cluster.node-id=" + nodeId,
+                "--app.cluster.lease-ttl-ms=1500",
+                "--app.cluster.lease-renew-ms=200",
+                "--app.cluster.poll-ms=100",
+                "--app.cluster.gap-timeout-ms=2000",
+                "--app.archive.dir=" + dir.resolve("archive"),
+                "--app.archive.rescan-grace-ms=1000");
+    }
+
+    private static Campaign campaign(String title) {
+        Campaign campaign = new Campaign();
+        campaign.setTitle(title);
+        campaign.setGoalAmount(10);
+        campaign.setWalletAddress("0xcluster");
+        campaign.setDurationDays("30");
+        campaign.setStatus("ACTIVE");
+        return campaign;
+    }
+
+    private static DonationDTO donation(String txHash, LocalDateTime timestamp) {
+        DonationDTO dto = new DonationDTO();
+        dto.setTxHash(txHash);
+        dto.setDonorAddress("0xarchiver");
+        dto.setCharityId(1L);
+        dto.setAmount("1");
+        dto.setTimestamp(timestamp);
+        dto.setBlockNumber(1L);
+        return dto;
+    }
+
+    private static TransactionDTO transaction(String txHash, LocalDateTime timestamp) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setTxHash(txHash);
+        dto.setFromAddress("0xarchiver");
+        dto.setAmount("1");
+        dto.setType("DONATION");
+        dto.setStatus("CONFIRMED");
+        dto.setTimestamp(timestamp);
+        return dto;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 10s");
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.DonationDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ColumnarJsonHttpMessageConverterTests {
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void beanRowsBecomeOneArrayPerProperty() throws IOException {
+        DonationDTO first = new DonationDTO("0x1", "0xd", 1L, "Water", null, null, "0.1", new BigDecimal("1.20"),
+                LocalDateTime.of(2024, 1, 1, 1, 1, 1), 5L, "hi", false);
+        DonationDTO second = new DonationDTO();
+        second.setTxHash("0x2");
+
+        assertEquals("{\"count\":2,\"columns\":{\"txHash\":[\"0x1\",\"0x2\"],\"donorAddress\":[\"0xd\",null],"
+                        + "\"charityId\":[1,null],\"charityName\":[\"Water\",null],\"campaignId\":[null,null],"
+                        + "\"campaignTitle\":[null,null],\"amount\":[\"0.1\",null],\"amountInUSD\":[1.20,null],"
+                        + "\"timestamp\":[\"2024-01-01T01:01:01\",null],\"blockNumber\":[5,null],\"message\":[\"hi\",null],"
+                        + "\"isAnonymous\":[false,null]}}",
+                write(List.of(first, second)));
+    }
+
+    @Test
+    void mapRowsUseTheirKeysAndMissingKeysAreNull() throws IOException {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("id", 1);
+        first.put("name", "a");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("id", 2);
+        second.put("extra", true);
+
+        assertEquals("{\"count\":2,\"columns\":{\"id\":[1,2],\"name\":[\"a\",null],\"extra\":[null,true]}}",
+                write(List.of(first, second)));
+    }
+
+    @Test
+    void scalarRowsAreWrittenAsPlainJson() throws IOException {
+        assertEquals("[\"a\",\"b\"]", write(List.of("a", "b")));
+        assertEquals("[null,3,4]", write(Arrays.asList(null, 3, 4)));
+    }
+
+    @Test
+    void listsStayPlainJsonUnlessColumnarIsAskedFor() throws Exception {
+        mockMvc.perform(get("/api/campaign/active").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/api/campaign/active").accept(ColumnarJsonHttpMessageConverter.COLUMNAR_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ColumnarJsonHttpMessageConverter.COLUMNAR_JSON));
+    }
+
+    private String write(List<?> items) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ColumnarJsonHttpMessageConverter(jsonMapper).write(items, ColumnarJsonHttpMessageConverter.COLUMNAR_JSON,
+                new HttpOutputMessage() {
+                    @Override
+                    public OutputStream getBody() {
+                        return out;
+                    }
+
+                    @Override
+                    public HttpHeaders getHeaders() {
+                        return new HttpHeaders();
+                    }
+                });
+        return out.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// the prod profile validates the mappings against a schema built by the scripts in db/mysql; so does this test
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prodschema;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/mysql/V1__initial_schema.sql,classpath:db/mysql/V2__cluster_journal_and_read_models.sql",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class ProdSchemaTests {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationScriptsMatchTheMappings() {
+        // the context only starts if validation passed
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM donor_summaries", Integer.class));
+    }
+}
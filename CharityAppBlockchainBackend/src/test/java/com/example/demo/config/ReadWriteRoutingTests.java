@@ -0,0 +1,51 @@
+package com.example.demo.config;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "app.datasource.replica.jdbc-url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "app.datasource.replica.username=sa"
+})
+class ReadWriteRoutingTests {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertEquals("REPLICA", currentDatabase(true));
+    }
+
+    @Test
+    void readWriteTransactionsGoToPrimary() {
+        assertEquals("PRIMARY", currentDatabase(false));
+    }
+
+    @Test
+    void pinnedReadsGoToPrimary() {
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            assertEquals("PRIMARY", currentDatabase(true));
+        } finally {
+            ReplicaRoutingDataSource.clearPin();
+        }
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template.execute(status ->
+                String.valueOf(entityManager.createNativeQuery("SELECT DATABASE()").getSingleResult()));
+    }
+}
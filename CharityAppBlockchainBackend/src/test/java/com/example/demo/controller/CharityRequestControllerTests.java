@@ -0,0 +1,31 @@
+package com.example.demo.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CharityRequestControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void bulkStatusWithoutIdsIsABadRequest() throws Exception {
+        mockMvc.perform(post("/api/charityRequests/bulk-status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[],\"status\":\"APPROVED\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/charityRequests/bulk-status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.demo.expiry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimerWheelTests {
+
+    @Test
+    void firesEachTimerOnTheFirstAdvancePastItsDeadline() {
+        long start = 1_700_000_000_000L;
+        HierarchicalTimerWheel<Integer> wheel = new HierarchicalTimerWheel<>(1000, start);
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            // from already overdue to past the 64^4-tick span of the wheel
+            long deadline = start + (long) (random.nextDouble() * 40_000_000_000L) - 5_000_000;
+            deadlines.put(i, deadline);
+            wheel.schedule(i, deadline);
+        }
+
+        long now = start;
+        int fired = 0;
+        while (fired < deadlines.size()) {
+            now += 1000 + random.nextInt(200_000_000);
+            for (Integer id : wheel.advance(now)) {
+                assertTrue(deadlines.get(id) <= now, "fired early: " + id);
+                assertTrue(deadlines.get(id) > now - 200_001_000 || deadlines.get(id) <= start, "fired late: " + id);
+                fired++;
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void keepsTimersScheduledWhileAdvancing() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(1000, 0);
+        wheel.schedule("a", 5_000);
+        assertEquals(List.of(), wheel.advance(4_999));
+        wheel.schedule("b", 4_000);
+        wheel.schedule("c", 65_000);
+        List<String> fired = new ArrayList<>(wheel.advance(5_000));
+        assertEquals(List.of("a", "b"), fired.stream().sorted().toList());
+        assertEquals(List.of(), wheel.advance(64_999));
+        assertEquals(List.of("c"), wheel.advance(65_000));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvTokenizerTests {
+
+    private static final String CSV = "Date,Message,Block\r\n"
+            + "2024-03-01 10:15:30,\"Thanks, \"\"team\"\"\nsee you\",123\r\n"
+            + "\n"
+            + "2024-03-02T08:00:00,plain ünïcode,\n"
+            + "2024-03-03 00:00:00,\"bad\"x,7";
+
+    @Test
+    void tokenizesQuotedFieldsAcrossBufferRefills() throws IOException {
+        // a 4-byte buffer forces a refill and growth inside nearly every record
+        CsvTokenizer csv = tokenizer(4);
+
+        assertTrue(csv.next());
+        assertEquals(3, csv.fieldCount());
+        assertTrue(csv.equalsAscii(2, "Block"));
+
+        assertTrue(csv.next());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 15, 30), csv.parseDateTime(0));
+        assertEquals("Thanks, \"team\"\nsee you", csv.string(1));
+        assertEquals(123, csv.parseLong(2));
+        assertFalse(csv.isMalformed());
+
+        // the blank line is skipped
+        assertTrue(csv.next());
+        assertEquals(LocalDateTime.of(2024, 3, 2, 8, 0), csv.parseDateTime(0));
+        assertEquals("plain ünïcode", csv.string(1));
+        assertTrue(csv.isEmpty(2));
+        assertNull(csv.string(2));
+        assertEquals(3, csv.fieldCount());
+
+        // last record without a line break
+        assertTrue(csv.next());
+        assertTrue(csv.isMalformed());
+        assertEquals(7, csv.parseLong(2));
+        assertEquals(CSV.getBytes(StandardCharsets.UTF_8).length, csv.recordEnd());
+        assertFalse(csv.next());
+    }
+
+    @Test
+    void resumesAtARecordBoundary() throws IOException {
+        CsvTokenizer first = tokenizer(64);
+        first.next();
+        first.next();
+        long offset = first.recordEnd();
+
+        CsvTokenizer resumed = tokenizer(8);
+        resumed.next();
+        resumed.skipTo(offset);
+        assertTrue(resumed.next());
+        assertEquals(LocalDateTime.of(2024, 3, 2, 8, 0), resumed.parseDateTime(0));
+    }
+
+    @Test
+    void rejectsRecordsLongerThanTheLimit() {
+        byte[] data = ("a," + "x".repeat(100) + "\n").getBytes(StandardCharsets.US_ASCII);
+        CsvTokenizer csv = new CsvTokenizer(new ByteArrayInputStream(data), 16, 64);
+        assertThrows(IOException.class, csv::next);
+    }
+
+    private static CsvTokenizer tokenizer(int bufferSize) {
+        return new CsvTokenizer(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)), bufferSize, 1024);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.demo.importer;
+
+import com.example.demo.dto.DonationDTO;
+import com.example.demo.dto.DonationImportReportDto;
+import com.example.demo.entity.Campaign;
+import com.example.demo.entity.CharityRequest;
+import com.example.demo.entity.Donation;
+import com.example.demo.entity.DonationImport;
+import com.example.demo.repo.CampaignRepo;
+import com.example.demo.repo.CharityRequestRepo;
+import com.example.demo.repo.DonationRepository;
+import com.example.demo.service.DonationService;
+import com.example.demo.service.DonorSummaryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "app.donations.import.batch-size=2"
+})
+class DonationCsvImporterTests {
+
+    private static final String DONOR = "0x" + "d".repeat(40);
+
+    @Autowired
+    private DonationCsvImporter importer;
+
+    @Autowired
+    private CharityRequestRepo charityRequestRepo;
+
+    @Autowired
+    private CampaignRepo campaignRepo;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private DonationService donationService;
+
+    @Autowired
+    private DonorSummaryService donorSummaryService;
+
+    @Test
+    void resumesAfterAFailedStreamWithoutDuplicatingRows() throws IOException {
+        long charityId = charity("Clean Water");
+        long campaignId = campaign("Clean Water", "Wells, 2024");
+
+        StringBuilder csv = new StringBuilder("Date,Transaction Hash,Charity,Campaign,Amount (ETH),Block Number,Message\n");
+        for (int i = 1; i <= 10; i++) {
+            csv.append("2024-01-").append(String.format("%02d", i)).append(" 12:00:00,").append(hash(i))
+                    .append(",Clean Water,").append(i % 2 == 0 ? "\"Wells, 2024\"" : "Direct Donation")
+                    .append(",0.").append(i).append(',').append(1000 + i)
+                    .append(",\"thanks, \"\"all\"\"\"\n");
+        }
+        csv.append("2024-01-01 12:00:00,").append(hash(1)).append(",Clean Water,Direct Donation,0.1,1001,\n");
+        csv.append("2024-01-11 12:00:00,0x1234,Clean Water,Direct Donation,0.1,1011,\n");
+        csv.append("2024-01-12 12:00:00,").append(hash(12)).append(",Dirty Water,Direct Donation,0.1,1012,\n");
+        byte[] file = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        // already stored through the API
+        DonationDTO existing = new DonationDTO();
+        existing.setTxHash(hash(3));
+        existing.setDonorAddress(DONOR);
+        existing.setCharityId(charityId);
+        existing.setAmount("0.3");
+        existing.setTimestamp(LocalDateTime.of(2024, 1, 3, 12, 0));
+        donationService.saveDonation(existing);
+
+        DonationImportReportDto failed = importer.importCsv("history-1", DONOR, failingAfter(file, file.length / 2));
+        assertEquals(DonationImport.Status.FAILED, failed.getStatus());
+        assertTrue(failed.getByteOffset() > 0 && failed.getByteOffset() < file.length / 2);
+        assertTrue(failed.getImported() < 9);
+
+        DonationImportReportDto done = importer.importCsv("history-1", DONOR, new ByteArrayInputStream(file));
+        assertEquals(DonationImport.Status.COMPLETED, done.getStatus());
+        assertEquals(13, done.getRecordsRead());
+        assertEquals(9, done.getImported());
+        assertEquals(2, done.getDuplicates());
+        assertEquals(2, done.getRejected());
+        assertEquals(file.length, done.getByteOffset());
+        assertTrue(done.getErrors().stream().anyMatch(e -> e.startsWith("record 12: invalid transaction hash")), done.getErrors().toString());
+        assertTrue(done.getErrors().stream().anyMatch(e -> e.startsWith("record 13: unknown charity Dirty Water")), done.getErrors().toString());
+
+        Donation second = donationRepository.findByTxHash(hash(2)).orElseThrow();
+        assertEquals(charityId, second.getCharityId());
+        assertEquals(campaignId, second.getCampaignId());
+        assertEquals("Wells, 2024", second.getCampaignTitle());
+        assertEquals("thanks, \"all\"", second.getMessage());
+        assertEquals(1002L, second.getBlockNumber());
+        assertNull(donationRepository.findByTxHash(hash(1)).orElseThrow().getCampaignId());
+        assertEquals(10, donorSummaryService.getSummary(DONOR).getDonationCount());
+
+        // a completed import is not run again
+        DonationImportReportDto again = importer.importCsv("history-1", DONOR, new ByteArrayInputStream(file));
+        assertEquals(9, again.getImported());
+    }
+
+    private long charity(String name) {
+        CharityRequest charity = new CharityRequest();
+        charity.setCharityName(name);
+        charity.setWalletAddress("0x" + "c".repeat(40));
+        charity.setDescription("d");
+        charity.setEmail("c@example.org");
+        charity.setVerificationDocumentUrl("doc.pdf");
+        charity.setStatus(CharityRequest.RequestStatus.APPROVED);
+        return charityRequestRepo.save(charity).getId();
+    }
+
+    private long campaign(String charityName, String title) {
+        Campaign campaign = new Campaign();
+        campaign.setCharityName(charityName);
+        campaign.setTitle(title);
+        campaign.setStatus("ENDED");
+        return campaignRepo.save(campaign).getId();
+    }
+
+    private static String hash(int i) {
+        return "0x" + String.format("%064x", i);
+    }
+
+    private static InputStream failingAfter(byte[] data, int bytes) {
+        return new FilterInputStream(new ByteArrayInputStream(data)) {
+            private int read;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (read >= bytes) {
+                    throw new IOException("connection reset");
+                }
+                int n = super.read(b, off, Math.min(len, bytes - read));
+                read += Math.max(n, 0);
+                return n;
+            }
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.demo.journal;
+
+import com.example.demo.archive.SegmentSchema;
+import com.example.demo.entity.Donation;
+import com.example.demo.entity.Withdrawal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventJournalTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysEveryRecordInOrderAcrossFilesToEachConsumer() throws IOException {
+        EventJournal journal = new EventJournal(dir.toString(), true, 1, false);
+        journal.open();
+        for (int i = 0; i < 5000; i++) {
+            journal.append(SegmentSchema.DONATIONS, List.of(donation(i)));
+            if (i % 100 == 0) {
+                journal.append(SegmentSchema.WITHDRAWALS, List.of(withdrawal(i)));
+            }
+        }
+        assertTrue(Files.list(dir).count() > 1, "expected the journal to roll over to a second file");
+
+        List<String> first = Collections.synchronizedList(new ArrayList<>());
+        List<String> second = Collections.synchronizedList(new ArrayList<>());
+        long records = journal.replay(List.of(
+                event -> first.add(txHash(event)),
+                event -> second.add(txHash(event))));
+
+        assertEquals(5050, records);
+        assertEquals(first, second);
+        assertEquals("0xd0", first.get(0));
+        assertEquals("0xw0", first.get(1));
+        assertEquals("0xd4999", first.get(first.size() - 1));
+
+        // reopening continues after the last record
+        EventJournal reopened = new EventJournal(dir.toString(), true, 1, false);
+        reopened.open();
+        reopened.append(SegmentSchema.DONATIONS, List.of(donation(5000)));
+        List<String> replayed = new ArrayList<>();
+        assertEquals(5051, reopened.replay(List.of(event -> replayed.add(txHash(event)))));
+        assertEquals("0xd5000", replayed.get(replayed.size() - 1));
+    }
+
+    @Test
+    void dropsTornRecordOnOpen() throws IOException {
+        EventJournal journal = new EventJournal(dir.toString(), true, 1, false);
+        journal.open();
+        journal.append(SegmentSchema.DONATIONS, List.of(donation(1), donation(2)));
+
+        // corrupt the second record's payload, as if the process died halfway through writing it
+        Path file = Files.list(dir).findFirst().orElseThrow();
+        List<Long> positions = new ArrayList<>();
+        journal.replay(List.of(event -> positions.add(event.getPosition())));
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(positions.get(1) + 20);
+            raf.write(0x5A);
+        }
+
+        EventJournal reopened = new EventJournal(dir.toString(), true, 1, false);
+        reopened.open();
+        reopened.append(SegmentSchema.DONATIONS, List.of(donation(3)));
+        List<String> replayed = new ArrayList<>();
+        reopened.replay(List.of(event -> replayed.add(txHash(event))));
+        assertEquals(List.of("0xd1", "0xd3"), replayed);
+    }
+
+    @Test
+    void concurrentFsyncedAppendsAllLandAcrossRolls() throws Exception {
+        EventJournal journal = new EventJournal(dir.toString(), true, 1, true);
+        journal.open();
+        ExecutorService writers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int offset = t * 1000;
+                done.add(writers.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        journal.append(SegmentSchema.DONATIONS, List.of(donation(offset + i)));
+                    }
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+        } finally {
+            writers.shutdown();
+        }
+        assertTrue(Files.list(dir).count() > 1, "expected the journal to roll over to a second file");
+
+        Set<String> replayed = new HashSet<>();
+        assertEquals(8000, journal.replay(List.of(event -> replayed.add(txHash(event)))));
+        assertEquals(8000, replayed.size());
+    }
+
+    @Test
+    void failedAppendAfterCommitDoesNotReachTheCaller() throws IOException {
+        EventJournal journal = new EventJournal(dir.toString(), true, 1, false);
+        journal.open();
+        Donation oversized = donation(1);
+        oversized.setMessage("x".repeat(2 * 1024 * 1024));
+
+        journal.appendAfterCommit(SegmentSchema.DONATIONS, List.of(oversized));
+        journal.appendAfterCommit(SegmentSchema.DONATIONS, List.of(donation(2)));
+
+        List<String> replayed = new ArrayList<>();
+        journal.replay(List.of(event -> replayed.add(txHash(event))));
+        assertEquals(List.of("0xd2"), replayed);
+    }
+
+    private static String txHash(JournalEvent event) {
+        return event.getEntity() instanceof Donation d ? d.getTxHash() : ((Withdrawal) event.getEntity()).getTxHash();
+    }
+
+    private static Donation donation(int i) {
+        Donation d = new Donation();
+        d.setId((long) i + 1);
+        d.setTxHash("0xd" + i);
+        d.setDonorAddress("0xdonor" + (i % 50));
+        d.setCharityId((long) (i % 3));
+        d.setAmount("0.25");
+        d.setTimestamp(LocalDateTime.of(2024, 5, 1, 0, 0).plusSeconds(i));
+        d.setMessage("x".repeat(i % 300));
+        return d;
+    }
+
+    private static Withdrawal withdrawal(int i) {
+        Withdrawal w = new Withdrawal();
+        w.setId((long) i + 1);
+        w.setTxHash("0xw" + i);
+        w.setCharityId(1L);
+        w.setAmount("1.0");
+        w.setTimestamp(LocalDateTime.of(2024, 5, 1, 0, 0).plusSeconds(i));
+        return w;
+    }
+}
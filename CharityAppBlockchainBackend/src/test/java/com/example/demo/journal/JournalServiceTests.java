@@ -0,0 +1,48 @@
+package com.example.demo.journal;
+
+import com.example.demo.archive.SegmentSchema;
+import com.example.demo.entity.Donation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JournalServiceTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void statsSkipRowsWithoutCharityAndCountUnparsableAmountsAsZero() throws IOException {
+        EventJournal journal = new EventJournal(dir.toString(), true, 1, false);
+        journal.open();
+        journal.append(SegmentSchema.DONATIONS, List.of(
+                donation(1, 7L, "1.5"),
+                donation(2, 7L, "lots"),
+                donation(3, null, "2"),
+                donation(4, 8L, null)));
+
+        Map<String, Object> stats = new JournalService(journal, null, null, null).stats();
+
+        assertEquals(4L, stats.get("records"));
+        assertEquals(Map.of(7L, new BigDecimal("1.5"), 8L, BigDecimal.ZERO), stats.get("donatedEthByCharity"));
+    }
+
+    private static Donation donation(long id, Long charityId, String amount) {
+        Donation d = new Donation();
+        d.setId(id);
+        d.setTxHash("0xj" + id);
+        d.setDonorAddress("0xdonor");
+        d.setCharityId(charityId);
+        d.setAmount(amount);
+        d.setTimestamp(LocalDateTime.of(2024, 5, 1, 0, 0));
+        return d;
+    }
+}
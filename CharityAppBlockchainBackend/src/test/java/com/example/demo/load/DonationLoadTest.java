@@ -0,0 +1,210 @@
+package com.example.demo.load;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the REST API of an app booted on H2 with synthetic traffic and prints throughput and latency
+ * percentiles per endpoint (also written to target/load-report.txt). Not part of the normal build; run with
+ * <pre>
+ * mvn -Pload test
+ * </pre>
+ * Knobs are system properties (defaults in brackets): load.duration-seconds [30], load.warmup-seconds [5],
+ * load.donation-rate [200], load.read-rate [200] (requests/s), load.charities [20], load.campaigns [200],
+ * load.wallets [2000], load.campaign-skew [1.1] and load.donor-skew [0.8] (Zipf exponents), load.seed [42].
+ * The same seed gives the same wallets, campaigns and request sequence. Rate limiting is switched off so the
+ * numbers are the node's, not the limiter's.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"app.ratelimit.enabled=false", "logging.level.root=WARN"})
+class DonationLoadTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0x0D,
+            'I', 'H', 'D', 'R', 0, 0, 0, 1, 0, 0, 0, 1, 8, 6, 0, 0, 0, 0x1F, 0x15, (byte) 0xC4, (byte) 0x89};
+
+    private final JsonMapper json = JsonMapper.builder().build();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @LocalServerPort
+    private int port;
+
+    private final long seed = Long.getLong("load.seed", 42);
+    private final AtomicLong txCounter = new AtomicLong();
+
+    private final List<String> wallets = new ArrayList<>();
+    private final List<Long> charityIds = new ArrayList<>();
+    private final List<String> charityWallets = new ArrayList<>();
+    private final List<Long> campaignIds = new ArrayList<>();
+    private final List<Integer> campaignCharity = new ArrayList<>();
+
+    @Test
+    void sustainedDonationAndDashboardTraffic() throws Exception {
+        int charities = Integer.getInteger("load.charities", 20);
+        int campaigns = Integer.getInteger("load.campaigns", 200);
+        int walletCount = Integer.getInteger("load.wallets", 2000);
+        double donationRate = Double.parseDouble(System.getProperty("load.donation-rate", "200"));
+        double readRate = Double.parseDouble(System.getProperty("load.read-rate", "200"));
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration-seconds", 30));
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+
+        SplittableRandom setupRandom = new SplittableRandom(seed);
+        for (int i = 0; i < walletCount; i++) {
+            wallets.add(address(setupRandom));
+        }
+        for (int i = 0; i < charities; i++) {
+            registerCharity(i, address(setupRandom));
+        }
+        for (int i = 0; i < campaigns; i++) {
+            createCampaign(i, i % charities);
+        }
+
+        ZipfSampler campaignPopularity = new ZipfSampler(campaigns, Double.parseDouble(System.getProperty("load.campaign-skew", "1.1")));
+        ZipfSampler donorActivity = new ZipfSampler(walletCount, Double.parseDouble(System.getProperty("load.donor-skew", "0.8")));
+        List<OpenModelDriver.Stream> streams = List.of(
+                new OpenModelDriver.Stream("POST /api/donations", donationRate,
+                        random -> donation(random, campaignPopularity.next(random), donorActivity.next(random))),
+                new OpenModelDriver.Stream("GET /api/donations/campaign", readRate * 0.4,
+                        random -> get("/api/donations/campaign/" + campaignIds.get(campaignPopularity.next(random)))),
+                new OpenModelDriver.Stream("GET /api/activity", readRate * 0.3,
+                        random -> get("/api/activity/" + wallets.get(donorActivity.next(random)))),
+                new OpenModelDriver.Stream("GET /api/dashboard/charity", readRate * 0.2, random -> {
+                    int charity = campaignCharity.get(campaignPopularity.next(random));
+                    return get("/api/dashboard/charity/" + charityWallets.get(charity) + "?charityId=" + charityIds.get(charity));
+                }),
+                new OpenModelDriver.Stream("GET /api/dashboard/admin", readRate * 0.1,
+                        random -> get("/api/dashboard/admin")));
+
+        if (!warmup.isZero()) {
+            new OpenModelDriver(client, seed - 1).run(streams, warmup);
+        }
+        Map<String, LatencyStats> results = new OpenModelDriver(client, seed).run(streams, duration);
+
+        StringBuilder report = new StringBuilder(String.format(Locale.ROOT,
+                "%d s at %.0f donations/s and %.0f reads/s, %d charities, %d campaigns, %d wallets, seed %d%n",
+                duration.getSeconds(), donationRate, readRate, charities, campaigns, walletCount, seed));
+        report.append(LatencyStats.header()).append('\n');
+        results.values().forEach(stats -> report.append(stats.summary(duration.getSeconds())).append('\n'));
+        System.out.println(report);
+        Files.writeString(Path.of("target", "load-report.txt"), report);
+
+        results.values().forEach(stats -> assertTrue(stats.count() > 0 || donationRate == 0 || readRate == 0,
+                "no requests completed for an endpoint"));
+    }
+
+    private void registerCharity(int index, String wallet) throws IOException, InterruptedException {
+        String boundary = "load-" + seed + "-" + index;
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        field(body, boundary, "name", "Load Test Charity " + index);
+        field(body, boundary, "wallet", wallet);
+        field(body, boundary, "email", "charity" + index + "@example.org");
+        field(body, boundary, "description", "Synthetic charity for load testing");
+        field(body, boundary, "websiteUrl", "https://example.org/" + index);
+        file(body, boundary, "logo", "logo.png");
+        file(body, boundary, "verification", "verification.png");
+        body.writeBytes(("--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+
+        JsonNode created = send(HttpRequest.newBuilder(uri("/api/charity/register"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build());
+        charityIds.add(created.get("id").asLong());
+        charityWallets.add(wallet);
+    }
+
+    private void createCampaign(int index, int charity) throws IOException, InterruptedException {
+        String body = json.writeValueAsString(Map.of(
+                "title", "Campaign " + index,
+                "description", "Synthetic campaign " + index,
+                "goalAmount", 10 + index % 90,
+                "raisedAmount", 0,
+                "walletAddress", charityWallets.get(charity),
+                "charityName", "Load Test Charity " + charity,
+                "durationDays", "30"));
+        JsonNode created = send(HttpRequest.newBuilder(uri("/api/campaign"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build());
+        campaignIds.add(created.get("id").asLong());
+        campaignCharity.add(charity);
+    }
+
+    private HttpRequest donation(SplittableRandom random, int campaign, int donor) {
+        int charity = campaignCharity.get(campaign);
+        // log-normal amounts: mostly small gifts with the occasional large one
+        double amount = Math.exp(random.nextGaussian() * 1.2) * 0.02;
+        String body = json.writeValueAsString(Map.of(
+                "txHash", String.format("0x%016x%048x", seed, txCounter.incrementAndGet()),
+                "donorAddress", wallets.get(donor),
+                "charityId", charityIds.get(charity),
+                "charityName", "Load Test Charity " + charity,
+                "campaignId", campaignIds.get(campaign),
+                "campaignTitle", "Campaign " + campaign,
+                "amount", String.format(Locale.ROOT, "%.6f", amount),
+                "timestamp", LocalDateTime.now().toString(),
+                "isAnonymous", random.nextInt(10) == 0));
+        return HttpRequest.newBuilder(uri("/api/donations"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return json.readTree(response.body());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String address(SplittableRandom random) {
+        return String.format("0x%08x%016x%016x", random.nextInt(), random.nextLong(), random.nextLong());
+    }
+
+    private static void field(ByteArrayOutputStream body, String boundary, String name, String value) {
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+                + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void file(ByteArrayOutputStream body, String boundary, String name, String filename) {
+        body.writeBytes(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\""
+                + filename + "\"\r\nContent-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(PNG);
+        body.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+    }
+}
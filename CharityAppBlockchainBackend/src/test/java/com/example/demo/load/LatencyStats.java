@@ -0,0 +1,58 @@
+package com.example.demo.load;
+
+import java.util.Arrays;
+
+/**
+ * Latencies of one endpoint, measured from each request's scheduled arrival time.
+ */
+final class LatencyStats {
+
+    private final String endpoint;
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+
+    LatencyStats(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    synchronized void record(long nanos, boolean ok) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+        if (!ok) {
+            errors++;
+        }
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized int errors() {
+        return errors;
+    }
+
+    static String header() {
+        return String.format("%-32s %8s %7s %9s %9s %9s %9s %9s %9s",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+    }
+
+    synchronized String summary(double seconds) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return String.format("%-32s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f",
+                endpoint, count, errors, count / seconds,
+                millis(sorted, 0.50), millis(sorted, 0.90), millis(sorted, 0.99), millis(sorted, 0.999),
+                count == 0 ? 0 : sorted[count - 1] / 1e6);
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Open-model load generator: every stream issues requests as a Poisson process at a fixed rate, independent of
+ * how fast responses come back, and latency is measured from the scheduled arrival time, so a stalled server
+ * shows up as queueing delay instead of as a lower request rate (no coordinated omission).
+ */
+final class OpenModelDriver {
+
+    /**
+     * One kind of request: the endpoint name it is reported under, its arrival rate and how to build it.
+     */
+    static final class Stream {
+        final String endpoint;
+        final double ratePerSecond;
+        final Function<SplittableRandom, HttpRequest> request;
+
+        Stream(String endpoint, double ratePerSecond, Function<SplittableRandom, HttpRequest> request) {
+            this.endpoint = endpoint;
+            this.ratePerSecond = ratePerSecond;
+            this.request = request;
+        }
+    }
+
+    private final HttpClient client;
+    private final long seed;
+
+    OpenModelDriver(HttpClient client, long seed) {
+        this.client = client;
+        this.seed = seed;
+    }
+
+    Map<String, LatencyStats> run(List<Stream> streams, Duration duration) throws InterruptedException {
+        Map<String, LatencyStats> stats = new LinkedHashMap<>();
+        AtomicInteger inFlight = new AtomicInteger();
+        List<Thread> dispatchers = new ArrayList<>();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (int i = 0; i < streams.size(); i++) {
+            Stream stream = streams.get(i);
+            LatencyStats endpointStats = stats.computeIfAbsent(stream.endpoint, LatencyStats::new);
+            SplittableRandom random = new SplittableRandom(seed * 31 + i);
+            Thread dispatcher = new Thread(() -> dispatch(stream, random, start, end, endpointStats, inFlight),
+                    "load-" + stream.endpoint);
+            dispatchers.add(dispatcher);
+            dispatcher.start();
+        }
+        for (Thread dispatcher : dispatchers) {
+            dispatcher.join();
+        }
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    private void dispatch(Stream stream, SplittableRandom random, long start, long end,
+                          LatencyStats stats, AtomicInteger inFlight) {
+        if (stream.ratePerSecond <= 0) {
+            return;
+        }
+        double meanGapNanos = 1e9 / stream.ratePerSecond;
+        long scheduled = start;
+        while (true) {
+            scheduled += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (scheduled >= end) {
+                return;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            long intended = scheduled;
+            inFlight.incrementAndGet();
+            client.sendAsync(stream.request.apply(random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        stats.record(System.nanoTime() - intended,
+                                error == null && response.statusCode() < 400);
+                        inFlight.decrementAndGet();
+                    });
+        }
+    }
+}
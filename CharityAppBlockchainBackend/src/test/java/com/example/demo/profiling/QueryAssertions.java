@@ -0,0 +1,34 @@
+package com.example.demo.profiling;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query-count checks for tests, e.g. {@code assertMaxQueries(2, () -> service.getCharityDonations(id))}.
+ * Statements are counted on the calling thread and on pool threads the work is handed to with the scope.
+ */
+public final class QueryAssertions {
+
+    private QueryAssertions() {
+    }
+
+    public static QueryProfiler.Scope profile(Runnable action) {
+        try (QueryProfiler.Scope scope = QueryProfiler.open(() -> "test")) {
+            action.run();
+            return scope;
+        }
+    }
+
+    public static void assertMaxQueries(int max, Runnable action) {
+        QueryProfiler.Scope scope = profile(action);
+        assertTrue(scope.count() <= max,
+                "expected at most " + max + " statements but " + scope.count() + " ran: " + scope.shapes());
+    }
+
+    public static void assertNoRepeatedQueries(int threshold, Runnable action) {
+        QueryProfiler.Scope scope = profile(action);
+        Map<String, Integer> repeated = scope.repeated(threshold);
+        assertTrue(repeated.isEmpty(), "statements repeated " + threshold + " or more times: " + repeated);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.profiling;
+
+import com.example.demo.entity.Donation;
+import com.example.demo.repo.DonationRepository;
+import com.example.demo.service.DonationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.example.demo.profiling.QueryAssertions.assertMaxQueries;
+import static com.example.demo.profiling.QueryAssertions.assertNoRepeatedQueries;
+import static com.example.demo.profiling.QueryAssertions.profile;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class QueryProfilerTests {
+
+    @Autowired
+    private DonationService donationService;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void charityDonationsAreOneQueryRegardlessOfRowCount() {
+        long charityId = ThreadLocalRandom.current().nextLong(1_000_000, Long.MAX_VALUE);
+        for (int i = 0; i < 10; i++) {
+            Donation donation = new Donation();
+            donation.setTxHash("0x" + charityId + "-" + i);
+            donation.setDonorAddress("0xdonor" + i);
+            donation.setCharityId(charityId);
+            donation.setAmount("0.1");
+            donation.setTimestamp(LocalDateTime.now());
+            donationRepository.save(donation);
+        }
+
+        assertMaxQueries(2, () -> assertEquals(10, donationService.getCharityDonations(charityId).size()));
+        assertNoRepeatedQueries(2, () -> donationService.getCharityDonations(charityId));
+    }
+
+    @Test
+    void repeatedStatementsShareOneShapeWithLiteralsRedacted() {
+        QueryProfiler.Scope scope = profile(() -> {
+            for (int i = 0; i < 5; i++) {
+                jdbcTemplate.queryForList("select id from donations where tx_hash = '0xsecret" + i + "' and charity_id = " + i);
+            }
+        });
+
+        assertEquals(Map.of("select id from donations where tx_hash = ? and charity_id = ?", 5), scope.repeated(5));
+    }
+
+    @Test
+    void placeholderListsFoldIntoOneShape() {
+        assertEquals("select d1_0.id from donations d1_0 where d1_0.id in (?) and d1_0.amount = ?",
+                QueryProfiler.shapeOf("select d1_0.id from donations d1_0\n where d1_0.id in (?, ?,?) and d1_0.amount = 'it''s'"));
+    }
+}
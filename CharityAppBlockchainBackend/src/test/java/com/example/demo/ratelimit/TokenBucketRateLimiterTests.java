@@ -0,0 +1,53 @@
+package com.example.demo.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTests {
+
+    @Test
+    void admitsUpToCapacityThenReportsWait() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 1, 60_000, 4);
+        assertEquals(0, limiter.tryAcquire("0xabc"));
+        assertEquals(0, limiter.tryAcquire("0xabc"));
+        assertEquals(0, limiter.tryAcquire("0xabc"));
+        long wait = limiter.tryAcquire("0xabc");
+        assertTrue(wait > 0 && wait <= 1000, "wait was " + wait);
+        assertEquals(0, limiter.tryAcquire("0xdef"), "buckets are per key");
+    }
+
+    @Test
+    void concurrentCallersNeverOverdrawBucket() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100, 1, 60_000, 4);
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            pool.execute(() -> {
+                if (limiter.tryAcquire("hot") == 0) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+        // 100 from capacity plus at most a few refilled at 1/s while the test runs
+        assertTrue(admitted.get() >= 100 && admitted.get() <= 105, "admitted " + admitted.get());
+    }
+
+    @Test
+    void evictsIdleBuckets() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 10, 4);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        Thread.sleep(30);
+        assertEquals(2, limiter.evictIdle());
+        assertEquals(0, limiter.size());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+// a real server: the forwarded-header filter is only registered with the embedded container
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "app.ratelimit.ip.capacity=3",
+        "app.ratelimit.ip.refill-per-second=1"
+})
+class WriteAdmissionFilterTests {
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void clientsBehindTheProxyGetTheirOwnBuckets() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertNotEquals(429, postFrom("203.0.113.7"));
+        }
+        assertEquals(429, postFrom("203.0.113.7"));
+        // same proxy connection, different client
+        assertNotEquals(429, postFrom("198.51.100.20"));
+    }
+
+    private int postFrom(String forwardedFor) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/campaign"))
+                .header("X-Forwarded-For", forwardedFor)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
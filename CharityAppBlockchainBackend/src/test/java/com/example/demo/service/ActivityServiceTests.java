@@ -0,0 +1,85 @@
+package com.example.demo.service;
+
+import com.example.demo.archive.ColdStorage;
+import com.example.demo.archive.SegmentSchema;
+import com.example.demo.dto.ActivityItemDto;
+import com.example.demo.dto.KeysetPageDto;
+import com.example.demo.entity.Donation;
+import com.example.demo.repo.DonationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:activity;DB_CLOSE_DELAY=-1;MODE=MySQL")
+class ActivityServiceTests {
+
+    private static final String WALLET = "0x" + "a".repeat(40);
+    private static final LocalDateTime BASE = LocalDateTime.of(2022, 1, 1, 12, 0);
+
+    @Autowired
+    private ActivityService activityService;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private ColdStorage coldStorage;
+
+    @Test
+    void pagesThroughTableAndArchiveNewestFirst() throws IOException {
+        List<Donation> hot = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            hot.add(donationRepository.save(donation(null, "0xhot" + i, BASE.plusDays(100 + i))));
+        }
+        List<Donation> archived = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            archived.add(donation(1_000_000L + i, "0xold" + i, BASE.plusDays(i)));
+        }
+        // an archival run that stopped before deleting leaves this one in both places
+        archived.add(hot.get(0));
+        coldStorage.archive(SegmentSchema.DONATIONS, archived);
+
+        List<String> feed = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPageDto<ActivityItemDto> page = activityService.getActivity(WALLET, cursor, 4);
+            page.getItems().forEach(item -> feed.add(item.getTxHash()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("0xhot4", "0xhot3", "0xhot2", "0xhot1", "0xhot0",
+                "0xold6", "0xold5", "0xold4", "0xold3", "0xold2", "0xold1", "0xold0"), feed);
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> activityService.getActivity(WALLET, "2024-01-01T00:00_x_1", 10));
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        assertThrows(ResponseStatusException.class, () -> activityService.getActivity(WALLET, "garbage", 10));
+    }
+
+    private static Donation donation(Long id, String txHash, LocalDateTime timestamp) {
+        Donation d = new Donation();
+        d.setId(id);
+        d.setTxHash(txHash);
+        d.setDonorAddress(WALLET);
+        d.setCharityId(1L);
+        d.setCharityName("Charity");
+        d.setAmount("0.5");
+        d.setTimestamp(timestamp);
+        d.setBlockNumber(1L);
+        d.setIsAnonymous(false);
+        return d;
+    }
+}
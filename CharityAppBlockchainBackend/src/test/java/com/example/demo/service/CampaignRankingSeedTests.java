@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import com.example.demo.archive.ColdStorage;
+import com.example.demo.cluster.ClusterChangeLog;
+import com.example.demo.dto.DonationDTO;
+import com.example.demo.dto.RankedCampaignDto;
+import com.example.demo.entity.Campaign;
+import com.example.demo.journal.EventJournal;
+import com.example.demo.repo.CampaignRepo;
+import com.example.demo.repo.DonationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:rankingseed;DB_CLOSE_DELAY=-1;MODE=MySQL")
+class CampaignRankingSeedTests {
+
+    private static final AtomicInteger TX_COUNTER = new AtomicInteger();
+
+    @Autowired
+    private CampaignRepo campaignRepo;
+
+    @Autowired
+    private DonationRepository donationRepository;
+
+    @Autowired
+    private DonationService donationService;
+
+    @Autowired
+    private EventJournal eventJournal;
+
+    @Autowired
+    private ClusterChangeLog clusterChangeLog;
+
+    @Autowired
+    private ColdStorage coldStorage;
+
+    @Test
+    void restartedNodeStartsFromTheDonationsTable() {
+        LocalDateTime now = LocalDateTime.now();
+        long nearlyFunded = campaign(10);
+        long halfFunded = campaign(10);
+        long stale = campaign(200);
+        donationService.saveDonation(donation(nearlyFunded, "0xa", "5", now.minusHours(1)));
+        donationService.saveDonation(donation(nearlyFunded, "0xb", "4", now.minusHours(2)));
+        donationService.saveDonation(donation(nearlyFunded, "0xa", "0.5", now));
+        donationService.saveDonation(donation(halfFunded, "0xc", "5", now));
+        // far outside the trending window, but still part of the total
+        donationService.saveDonation(donation(stale, "0xd", "50", now.minusDays(400)));
+
+        // a node that has never seen these donations in its journal
+        CampaignRankingService restarted = new CampaignRankingService(campaignRepo, eventJournal, donationRepository,
+                clusterChangeLog, coldStorage, 24, 0.05);
+        restarted.load();
+
+        Map<Long, RankedCampaignDto> funded = restarted.getAlmostFunded(50).stream()
+                .collect(Collectors.toMap(RankedCampaignDto::getId, Function.identity()));
+        assertEquals(9.5, funded.get(nearlyFunded).getRaisedAmount(), 1e-9);
+        assertEquals(2, funded.get(nearlyFunded).getDonorCount());
+        assertEquals(5, funded.get(halfFunded).getRaisedAmount(), 1e-9);
+        assertEquals(50, funded.get(stale).getRaisedAmount(), 1e-9);
+        assertEquals(List.of(nearlyFunded, halfFunded, stale), ids(restarted.getAlmostFunded(50)).stream()
+                .filter(id -> id == nearlyFunded || id == halfFunded || id == stale).toList());
+
+        List<Long> trending = ids(restarted.getTrending(50));
+        assertTrue(trending.indexOf(nearlyFunded) < trending.indexOf(halfFunded), trending.toString());
+        assertTrue(!trending.contains(stale), trending.toString());
+
+        // later donations are counted once, from the journal
+        donationService.saveDonation(donation(halfFunded, "0xe", "1", now));
+        RankedCampaignDto updated = restarted.getAlmostFunded(50).stream()
+                .filter(c -> c.getId() == halfFunded).findFirst().orElseThrow();
+        assertEquals(6, updated.getRaisedAmount(), 1e-9);
+        assertEquals(2, updated.getDonorCount());
+    }
+
+    private long campaign(double goal) {
+        Campaign campaign = new Campaign();
+        campaign.setTitle("Seeded campaign");
+        campaign.setGoalAmount(goal);
+        campaign.setStatus("ACTIVE");
+        return campaignRepo.save(campaign).getId();
+    }
+
+    private static List<Long> ids(List<RankedCampaignDto> campaigns) {
+        return campaigns.stream().map(RankedCampaignDto::getId).toList();
+    }
+
+    private static DonationDTO donation(long campaignId, String donor, String amount, LocalDateTime timestamp) {
+        DonationDTO dto = new DonationDTO();
+        dto.setTxHash("0xseed" + TX_COUNTER.incrementAndGet());
+        dto.setDonorAddress(donor);
+        dto.setCharityId(1L);
+        dto.setCampaignId(campaignId);
+        dto.setAmount(amount);
+        dto.setTimestamp(timestamp);
+        dto.setBlockNumber(1L);
+        return dto;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.RankedCampaignDto;
+import com.example.demo.entity.Campaign;
+import com.example.demo.entity.Donation;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CampaignRankingServiceTests {
+
+    // no startup rebuild: campaigns and donations are fed in directly
+    private final CampaignRankingService rankings = new CampaignRankingService(null, null, null, null, null, 24, 0);
+
+    @Test
+    void olderDonationsDecayByHalfLife() {
+        LocalDateTime now = LocalDateTime.now();
+        rankings.onCampaignSaved(campaign(1, 10, "ACTIVE"));
+        rankings.onCampaignSaved(campaign(2, 10, "ACTIVE"));
+        rankings.onCampaignSaved(campaign(3, 10, "ACTIVE"));
+
+        // 1 ETH two half-lives ago is worth 0.25 now: behind 0.3 ETH today, ahead of 0.2 ETH today
+        rankings.onDonation(donation(1, "0xa", "1", now.minusHours(48)));
+        rankings.onDonation(donation(2, "0xb", "0.3", now));
+        rankings.onDonation(donation(3, "0xc", "0.2", now));
+
+        List<RankedCampaignDto> trending = rankings.getTrending(10);
+        assertEquals(List.of(2L, 1L, 3L), trending.stream().map(RankedCampaignDto::getId).toList());
+        assertEquals(0.25, trending.get(1).getTrendingScore(), 0.001);
+    }
+
+    @Test
+    void almostFundedAndNewestFollowUpdates() {
+        LocalDateTime now = LocalDateTime.now();
+        rankings.onCampaignSaved(campaign(1, 10, "ACTIVE"));
+        rankings.onCampaignSaved(campaign(2, 4, "ACTIVE"));
+        rankings.onCampaignSaved(campaign(3, 10, "PENDING"));
+
+        rankings.onDonation(donation(1, "0xa", "8", now));
+        rankings.onDonation(donation(2, "0xb", "2", now));
+        assertEquals(List.of(1L, 2L), ids(rankings.getAlmostFunded(10)));
+
+        // reaching the goal drops a campaign from the list
+        rankings.onDonation(donation(1, "0xb", "2", now));
+        assertEquals(List.of(2L), ids(rankings.getAlmostFunded(10)));
+        assertEquals(List.of(2L, 1L), ids(rankings.getNewest(10)));
+
+        rankings.onCampaignSaved(campaign(3, 10, "ACTIVE"));
+        assertEquals(List.of(3L), ids(rankings.getNewest(1)));
+        assertEquals(2, rankings.getTrending(10).get(0).getDonorCount());
+    }
+
+    private static List<Long> ids(List<RankedCampaignDto> campaigns) {
+        return campaigns.stream().map(RankedCampaignDto::getId).toList();
+    }
+
+    private static Campaign campaign(long id, double goal, String status) {
+        Campaign campaign = new Campaign();
+        campaign.setId(id);
+        campaign.setTitle("Campaign " + id);
+        campaign.setGoalAmount(goal);
+        campaign.setStatus(status);
+        return campaign;
+    }
+
+    private static Donation donation(long campaignId, String donor, String amount, LocalDateTime timestamp) {
+        Donation donation = new Donation();
+        donation.setCampaignId(campaignId);
+        donation.setDonorAddress(donor);
+        donation.setAmount(amount);
+        donation.setTimestamp(timestamp);
+        return donation;
+    }
+}
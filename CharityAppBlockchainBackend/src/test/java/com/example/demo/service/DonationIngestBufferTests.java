@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DonationDTO;
+import com.example.demo.entity.Donation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DonationIngestBufferTests {
+
+    @Test
+    void everyAcceptedDonationIsCommittedWhenStoppingUnderLoad() throws Exception {
+        Set<String> saved = ConcurrentHashMap.newKeySet();
+        DonationService donations = new DonationService(null, null, null, null, null, null) {
+            @Override
+            public Donation toEntity(DonationDTO dto) {
+                Donation donation = new Donation();
+                donation.setTxHash(dto.getTxHash());
+                return donation;
+            }
+
+            @Override
+            public void saveDonations(List<Donation> batch) {
+                batch.forEach(d -> saved.add(d.getTxHash()));
+            }
+        };
+
+        for (int round = 0; round < 20; round++) {
+            saved.clear();
+            DonationIngestBuffer buffer = new DonationIngestBuffer(donations, "buffered", 100_000, 50, 1, new SimpleMeterRegistry());
+            buffer.start();
+            Set<String> accepted = ConcurrentHashMap.newKeySet();
+            AtomicInteger next = new AtomicInteger();
+            ExecutorService clients = Executors.newFixedThreadPool(4);
+            for (int c = 0; c < 4; c++) {
+                clients.execute(() -> {
+                    while (true) {
+                        DonationDTO dto = dto("0x" + next.incrementAndGet());
+                        try {
+                            buffer.submit(dto);
+                        } catch (ResponseStatusException e) {
+                            return;
+                        }
+                        accepted.add(dto.getTxHash());
+                    }
+                });
+            }
+            // stop while the clients are still submitting
+            while (accepted.size() < 1000) {
+                Thread.onSpinWait();
+            }
+            buffer.stop();
+            clients.shutdown();
+            assertTrue(clients.awaitTermination(10, TimeUnit.SECONDS));
+
+            assertEquals(accepted, saved);
+        }
+    }
+
+    private static DonationDTO dto(String txHash) {
+        DonationDTO dto = new DonationDTO();
+        dto.setTxHash(txHash);
+        dto.setDonorAddress("0xdonor");
+        dto.setCharityId(1L);
+        dto.setAmount("1");
+        dto.setTimestamp(LocalDateTime.now());
+        return dto;
+    }
+}
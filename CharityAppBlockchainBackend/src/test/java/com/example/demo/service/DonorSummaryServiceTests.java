@@ -0,0 +1,152 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DonationDTO;
+import com.example.demo.dto.DonorSummaryDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:donorsummary;DB_CLOSE_DELAY=-1;MODE=MySQL",
+        "app.donor-summary.rebuild.partitions=3",
+        "app.donor-summary.rebuild.chunk-size=7"
+})
+class DonorSummaryServiceTests {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 6, 1, 10, 0);
+    private static final AtomicInteger TX_COUNTER = new AtomicInteger();
+
+    @Autowired
+    private DonationService donationService;
+
+    @Autowired
+    private DonorSummaryService donorSummaryService;
+
+    @Test
+    void savingADonationUpdatesTheDonorsSummary() {
+        String donor = wallet("a");
+        donationService.saveDonation(donation(donor, 3L, "0.5", BASE.plusHours(2)));
+        donationService.saveDonation(donation(donor, 1L, "1.25", BASE));
+        donationService.saveDonation(donation(donor, 3L, "2", BASE.plusHours(1)));
+
+        DonorSummaryDto summary = donorSummaryService.getSummary(donor);
+        assertEquals(0, new BigDecimal("3.75").compareTo(summary.getTotalAmount()));
+        assertEquals(3, summary.getDonationCount());
+        assertEquals(BASE, summary.getFirstDonationAt());
+        assertEquals(BASE.plusHours(2), summary.getLastDonationAt());
+        assertEquals(2, summary.getCharityCount());
+        assertEquals(List.of(1L, 3L), summary.getCharityIds());
+    }
+
+    @Test
+    void concurrentFirstDonationsOfOneWalletAreBothCounted() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 10; round++) {
+                String donor = wallet("b" + round);
+                CyclicBarrier start = new CyclicBarrier(2);
+                List<Future<?>> saves = new ArrayList<>();
+                for (int c = 0; c < 2; c++) {
+                    long charityId = c + 1;
+                    saves.add(clients.submit(() -> {
+                        start.await();
+                        return donationService.saveDonation(donation(donor, charityId, "1", BASE));
+                    }));
+                }
+                for (Future<?> save : saves) {
+                    save.get(); // a lost race on the summary row would surface here as a key violation
+                }
+                DonorSummaryDto summary = donorSummaryService.getSummary(donor);
+                assertEquals(2, summary.getDonationCount(), "round " + round);
+                assertEquals(0, new BigDecimal("2").compareTo(summary.getTotalAmount()), "round " + round);
+                assertEquals(2, summary.getCharityCount(), "round " + round);
+            }
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    void rebuildMatchesIncrementalTotalsAndKeepsDonationsMadeMeanwhile() {
+        List<String> donors = new ArrayList<>();
+        for (int d = 0; d < 12; d++) {
+            donors.add(wallet("c" + d));
+        }
+        for (int i = 0; i < 120; i++) {
+            String donor = donors.get(i % donors.size());
+            donationService.saveDonation(donation(donor, (long) (i % 5), "0." + (i + 1), BASE.plusMinutes(i)));
+        }
+        Map<String, DonorSummaryDto> incremental = new HashMap<>();
+        donors.forEach(donor -> incremental.put(donor, donorSummaryService.getSummary(donor)));
+
+        donorSummaryService.rebuild();
+        donors.forEach(donor -> assertEquals(incremental.get(donor), donorSummaryService.getSummary(donor)));
+
+        // donations committed while the rebuild runs are merged in above its watermark or applied after its write
+        AtomicBoolean rebuilding = new AtomicBoolean(true);
+        AtomicInteger savedMeanwhile = new AtomicInteger();
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            while (rebuilding.get() || savedMeanwhile.get() < 20) {
+                int i = savedMeanwhile.getAndIncrement();
+                donationService.saveDonation(donation(donors.get(i % donors.size()), 9L, "1", BASE.plusDays(1).plusMinutes(i)));
+            }
+        });
+        try {
+            donorSummaryService.rebuild();
+        } finally {
+            rebuilding.set(false);
+        }
+        writer.join();
+
+        long total = 0;
+        for (int d = 0; d < donors.size(); d++) {
+            String donor = donors.get(d);
+            DonorSummaryDto summary = donorSummaryService.getSummary(donor);
+            long expectedExtra = countFor(d, donors.size(), savedMeanwhile.get());
+            assertEquals(incremental.get(donor).getDonationCount() + expectedExtra, summary.getDonationCount(), donor);
+            assertEquals(0, incremental.get(donor).getTotalAmount().add(BigDecimal.valueOf(expectedExtra))
+                    .compareTo(summary.getTotalAmount()), donor);
+            assertTrue(expectedExtra == 0 || summary.getCharityIds().contains(9L), donor);
+            total += summary.getDonationCount();
+        }
+        assertEquals(120 + savedMeanwhile.get(), total);
+    }
+
+    // how many of the first n round-robin donations went to the donor at index d
+    private static long countFor(int d, int donors, int n) {
+        return n / donors + (d < n % donors ? 1 : 0);
+    }
+
+    private DonationDTO donation(String donor, Long charityId, String amount, LocalDateTime timestamp) {
+        DonationDTO dto = new DonationDTO();
+        dto.setTxHash("0xsummary" + TX_COUNTER.incrementAndGet());
+        dto.setDonorAddress(donor);
+        dto.setCharityId(charityId);
+        dto.setCharityName("Charity " + charityId);
+        dto.setAmount(amount);
+        dto.setTimestamp(timestamp);
+        dto.setBlockNumber(1L);
+        return dto;
+    }
+
+    private static String wallet(String suffix) {
+        return "0x" + "0".repeat(40 - suffix.length()) + suffix;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EthUsdPriceServiceTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void looksUpLastRateAtOrBeforeTimestamp() throws IOException {
+        // 2024-01-01T00:00Z, +1h, +2h, deliberately out of order
+        Path csv = Files.writeString(dir.resolve("eth-usd.csv"),
+                "unix_seconds,price_usd\n1704070800,2300.5\n1704067200,2280\n1704074400,2310\n");
+        EthUsdPriceService prices = new EthUsdPriceService(new DefaultResourceLoader(), "file:" + csv, 0);
+        prices.load();
+
+        assertTrue(Double.isNaN(prices.priceAt(LocalDateTime.of(2023, 12, 31, 23, 59))));
+        assertEquals(2280, prices.priceAt(LocalDateTime.of(2024, 1, 1, 0, 0)));
+        assertEquals(2280, prices.priceAt(LocalDateTime.of(2024, 1, 1, 0, 59)));
+        assertEquals(2300.5, prices.priceAt(LocalDateTime.of(2024, 1, 1, 1, 30)));
+        assertEquals(2310, prices.priceAt(LocalDateTime.of(2025, 6, 1, 0, 0)));
+        assertEquals(new BigDecimal("1150.25"), prices.usdValue("0.5", LocalDateTime.of(2024, 1, 1, 1, 0)));
+        assertNull(prices.usdValue("not-a-number", LocalDateTime.of(2024, 1, 1, 1, 0)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Donation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PDFCertificateServiceTests {
+
+    @Test
+    void writesCompressedCertificateAndRecordsItsSize() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PDFCertificateService service = new PDFCertificateService(registry);
+        Donation donation = new Donation();
+        donation.setTxHash("0x" + "ab".repeat(32));
+        donation.setAmount("0.25");
+        donation.setCharityName("Clean Water");
+        donation.setTimestamp(LocalDateTime.of(2026, 1, 2, 3, 4));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writePDF(donation, out);
+        service.writePDF(donation, out);
+        byte[] pdf = out.toByteArray();
+
+        String header = new String(pdf, 0, 8, StandardCharsets.ISO_8859_1);
+        assertEquals("%PDF-1.5", header);
+        // the 710x582 logo used to be embedded at full size, about 250 KB per certificate
+        assertTrue(pdf.length / 2 < 100_000, "certificate is " + pdf.length / 2 + " bytes");
+        assertEquals(2, registry.get("certificate.pdf.render").timer().count());
+        assertEquals(pdf.length, registry.get("certificate.pdf.size").summary().totalAmount(), 0.5);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SortedIntSetTests {
+
+    @Test
+    void keepsValuesSortedAndDistinct() {
+        byte[] set = SortedIntSet.EMPTY;
+        for (int value : new int[]{7, 3, 42, 3, 1, 7, 1000}) {
+            set = SortedIntSet.add(set, value);
+        }
+        assertArrayEquals(new int[]{1, 3, 7, 42, 1000}, SortedIntSet.toArray(set));
+        assertEquals(5, SortedIntSet.size(set));
+        assertTrue(SortedIntSet.contains(set, 42));
+        assertFalse(SortedIntSet.contains(set, 8));
+        assertSame(set, SortedIntSet.add(set, 7));
+        // big-endian 4-byte values, as persisted
+        assertArrayEquals(new byte[]{0, 0, 0, 1, 0, 0, 0, 3}, SortedIntSet.of(3, 1, 3));
+    }
+
+    @Test
+    void unionMergesBothSides() {
+        byte[] union = SortedIntSet.union(SortedIntSet.of(1, 5, 9), SortedIntSet.of(2, 5, 10));
+        assertArrayEquals(new int[]{1, 2, 5, 9, 10}, SortedIntSet.toArray(union));
+        assertArrayEquals(new int[]{4}, SortedIntSet.toArray(SortedIntSet.union(null, SortedIntSet.of(4))));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.TransactionMetadata;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TransactionMetadataCodecTests {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @Test
+    void splitsDeclaredFieldsFromUnknownOnes() {
+        String json = "{\"message\":\"hi\",\"isAnonymous\":true,\"campaignTitle\":\"Water\",\"gasUsed\":21000,"
+                + "\"clientVersion\":\"web-1.4\",\"nested\":{\"a\":[1,2.50]},\"note\":null}";
+        TransactionMetadata metadata = TransactionMetadataCodec.parse(json);
+
+        assertEquals("Water", metadata.getCampaignTitle());
+        assertEquals("hi", metadata.getMessage());
+        assertEquals(true, metadata.getAnonymous());
+        assertEquals(21000L, metadata.getGasUsed());
+        assertEquals("web-1.4", metadata.getClientVersion());
+        assertNotNull(metadata.getExtra());
+        assertEquals(JSON.readTree(json), JSON.readTree(TransactionMetadataCodec.format(metadata)));
+    }
+
+    @Test
+    void keepsMistypedDeclaredFieldsAndNonObjects() {
+        TransactionMetadata metadata = TransactionMetadataCodec.parse("{\"gasUsed\":\"21000\",\"isAnonymous\":1}");
+        assertNull(metadata.getGasUsed());
+        assertNull(metadata.getAnonymous());
+        assertEquals("{\"gasUsed\":\"21000\",\"isAnonymous\":1}", TransactionMetadataCodec.format(metadata));
+
+        for (String raw : new String[]{"not json", "[1,2]", "\"text\"", "{}"}) {
+            assertEquals(raw, TransactionMetadataCodec.format(TransactionMetadataCodec.parse(raw)));
+        }
+        assertNull(TransactionMetadataCodec.parse(null));
+    }
+}